@@ -29,6 +29,13 @@
  **/
 
 import de.hhu.lirem101.quil_analyser.*;
+import de.hhu.lirem101.quil_optimizer.FuzzingOptions;
+import de.hhu.lirem101.quil_optimizer.OptimizingQuil;
+import de.hhu.lirem101.quil_optimizer.StoppingCriterion;
+import de.hhu.lirem101.quil_optimizer.Verbosity;
+import de.hhu.lirem101.quil_optimizer.search.BanditStatistics;
+import de.hhu.lirem101.quil_optimizer.search.Objective;
+import de.hhu.lirem101.quil_optimizer.search.SearchStrategy;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.snt.inmemantlr.GenericParser;
@@ -39,17 +46,33 @@ import org.snt.inmemantlr.listener.DefaultTreeListener;
 import org.snt.inmemantlr.tree.ParseTree;
 import org.snt.inmemantlr.utils.FileUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static de.hhu.lirem101.quil_optimizer.OptimizingQuil.fuzzOptimization;
+import static de.hhu.lirem101.quil_optimizer.OptimizingQuil.resumeFuzzing;
+import static de.hhu.lirem101.quil_optimizer.OptimizingQuil.searchOptimization;
 
 public class Main {
-    public static final String resourcePath = System.getProperty("user.dir") + "/src/main/resources/";
+
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 100;
+    private static final String OPTIMIZATION_FUZZING_SUFFIX = "_optimization_fuzzing";
 
     private static ParseTree getParseTree(String grammarFileName, String quilFileName) throws FileNotFoundException, CompilationException, IllegalWorkflowException, ParsingException {
+        if (grammarFileName == null) {
+            // Use the Quil parser generated at build time, no grammar has to be compiled at runtime
+            return PrecompiledQuilParser.getParseTree(FileUtils.loadFileContent(quilFileName));
+        }
         File grammarFile = new File(grammarFileName);
         GenericParser gp = new GenericParser(grammarFile);
         String s = FileUtils.loadFileContent(quilFileName);
@@ -110,33 +133,270 @@ public class Main {
         cfd.drawControlFlowGraph(graphic, dotFile, quilFileName);
     }
 
-    private static void optimizeQuil(ParseTree pt, String quilFileName, String resultFileName, Set<String> readoutParams, int iterations, int numberOfOptimizations) throws IOException, CompilationException, ParsingException, IllegalWorkflowException {
+    private static void optimizeQuil(ParseTree pt, String quilFileName, String resultFileName, Set<String> readoutParams, FuzzingOptions options) throws IOException, CompilationException, ParsingException, IllegalWorkflowException {
         ClassifyLines cl = new ClassifyLines(pt.getRoot());
         Map<Integer, LineType> classes = cl.classifyLines();
         ControlFlowBlock blocks = getControlFlow(pt, classes);
 
         String[] quilCode = FileUtils.loadFileContent(quilFileName).split("\n");
-        fuzzOptimization(resultFileName, iterations, numberOfOptimizations, blocks, classes, pt.getRoot(), readoutParams, quilCode);
+        // Strategies keep state, so every file gets its own
+        SearchStrategy strategy = options.createSearchStrategy(classes);
+        if(strategy != null) {
+            searchOptimization(resultFileName, strategy, options, blocks, classes, pt.getRoot(), readoutParams,
+                    quilCode);
+            return;
+        }
+        if(options.isResume()) {
+            // Without a checkpoint there is nothing to resume, and a new run would replace the existing results
+            if(!OptimizingQuil.canResume(resultFileName)) {
+                System.err.println("No checkpoint of " + resultFileName + " to resume. Stop.");
+                return;
+            }
+            resumeFuzzing(resultFileName, options, blocks, classes, pt.getRoot(), readoutParams, quilCode);
+            return;
+        }
+        fuzzOptimization(resultFileName, options, blocks, classes, pt.getRoot(), readoutParams, quilCode);
+    }
+
+    /**
+     * Runs the requested analyses and optimizations on a single Quil file. The outputs are written next to the file.
+     * @param pt The parse tree of the Quil file.
+     * @param quilFileName The name of the Quil file.
+     * @param cfg True if the CFG should be drawn.
+     * @param ddg True if the DDG should be drawn.
+     * @param readoutParams The classical params whose values are read out at the end of the program.
+     * @param optimization The options of the optimization, or null if the file should not be optimized.
+     */
+    private static void processQuilFile(ParseTree pt, String quilFileName, boolean cfg, boolean ddg, Set<String> readoutParams, FuzzingOptions optimization) throws IOException, CompilationException, ParsingException, IllegalWorkflowException {
+        String file = StringUtils.removeEnd(quilFileName, ".quil");
+
+        String dotFileName = file + "cfg.dot";
+        String graphImageFileName = file + "cfg.ps";
+        String dotFileNameDDG = file + "ddg.dot";
+        String graphImageFileNameDDG = file + "ddg.ps";
+        String resultFileName = file + OPTIMIZATION_FUZZING_SUFFIX + ".json";
+        if(optimization != null && optimization.getShardCount() > 1) {
+            resultFileName = file + OPTIMIZATION_FUZZING_SUFFIX + "_shard" + optimization.getShard() + "of" + optimization.getShardCount() + ".json";
+        }
+        if(optimization != null && optimization.isGzip()) {
+            resultFileName += ".gz";
+        }
+
+        if(cfg) {
+            System.out.println("Starting CFG creation...");
+            drawQuilCfg(pt, quilFileName, dotFileName, graphImageFileName);
+        }
+        if(ddg){
+            System.out.println("Starting DDG creation...");
+            drawDataDependencyGraph(pt, quilFileName, dotFileNameDDG, graphImageFileNameDDG);
+        }
+        if(optimization != null){
+            System.out.println("Starting optimization...");
+            optimizeQuil(pt, quilFileName, resultFileName, readoutParams, optimization);
+        }
+    }
+
+    /**
+     * Collects the Quil files of a batch run. The best programs that earlier optimization runs saved in the directory
+     * are not inputs of the batch, so they are skipped.
+     * @param batchFileName A directory, whose .quil files are used, or a file listing one Quil file per line.
+     * @return The names of the Quil files, sorted if a directory was given.
+     */
+    static List<String> getBatchFiles(String batchFileName) throws IOException {
+        File batchFile = new File(batchFileName);
+        List<String> files = new ArrayList<>();
+        if(batchFile.isDirectory()) {
+            File[] quilFiles = batchFile.listFiles((dir, name) -> name.endsWith(".quil")
+                    && !name.contains(OPTIMIZATION_FUZZING_SUFFIX));
+            if(quilFiles != null) {
+                for(File quilFile : quilFiles) {
+                    files.add(quilFile.getPath());
+                }
+            }
+            Collections.sort(files);
+        } else {
+            for(String line : Files.readAllLines(batchFile.toPath())) {
+                line = line.trim();
+                if(!line.isEmpty() && !line.startsWith("#")) {
+                    files.add(line);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * The standard output or error stream of a batch run. What is printed while a file is processed is collected and
+     * printed at once, with the name of the file in front of every line, when the file is finished. So the outputs of
+     * the files that are processed at the same time do not interleave. The collection is inherited by the threads
+     * started for the file, e.g. the fuzzing threads.
+     */
+    private static class BatchOutput extends OutputStream {
+        private final PrintStream target;
+        private final InheritableThreadLocal<ByteArrayOutputStream> collected = new InheritableThreadLocal<>();
+
+        private BatchOutput(PrintStream target) {
+            this.target = target;
+        }
+
+        private OutputStream current() {
+            OutputStream out = collected.get();
+            return out != null ? out : target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            current().flush();
+        }
+
+        /**
+         * Collects what the current thread prints from now on.
+         */
+        private void collect() {
+            collected.set(new ByteArrayOutputStream());
+        }
+
+        /**
+         * Prints what the current thread printed since collect was called.
+         * @param quilFileName The name of the file that was processed.
+         */
+        private void release(String quilFileName) {
+            ByteArrayOutputStream out = collected.get();
+            collected.remove();
+            synchronized(target) {
+                for(String line : out.toString().split("\\R")) {
+                    if(!line.isEmpty()) {
+                        target.println(quilFileName + ": " + line);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Processes many Quil files concurrently on a bounded worker pool. All files are parsed with the same parser, i.e.
+     * a custom grammar is only compiled once. A file that cannot be processed is reported and does not stop the batch.
+     * The output of a file is printed when the file is finished, see BatchOutput.
+     * @param quilFileNames The Quil files to process.
+     * @param grammarFileName The custom grammar or null, if the precompiled Quil parser should be used.
+     * @param threads The number of worker threads.
+     * @return The number of files that were processed.
+     */
+    static int processBatch(List<String> quilFileNames, String grammarFileName, int threads, boolean cfg, boolean ddg, Set<String> readoutParams, FuzzingOptions optimization) throws FileNotFoundException, CompilationException {
+        GenericParser gp = null;
+        if(grammarFileName != null) {
+            gp = new GenericParser(new File(grammarFileName));
+            gp.compile();
+        }
+        final GenericParser parser = gp;
+
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        BatchOutput out = new BatchOutput(stdout);
+        BatchOutput err = new BatchOutput(stderr);
+        System.setOut(new PrintStream(out, true));
+        System.setErr(new PrintStream(err, true));
+        try {
+            long start = System.nanoTime();
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<Integer>> results = new ArrayList<>();
+            for(String quilFileName : quilFileNames) {
+                results.add(pool.submit(() -> {
+                    out.collect();
+                    err.collect();
+                    try {
+                        String quilCode = FileUtils.loadFileContent(quilFileName);
+                        ParseTree pt;
+                        if(parser == null) {
+                            pt = PrecompiledQuilParser.getParseTree(quilCode);
+                        } else {
+                            DefaultTreeListener dlist = new DefaultTreeListener();
+                            parser.parse(quilCode, null, GenericParser.CaseSensitiveType.NONE, dlist);
+                            pt = dlist.getParseTree();
+                        }
+                        processQuilFile(pt, quilFileName, cfg, ddg, readoutParams, optimization);
+                        return quilCode.split("\n").length;
+                    } finally {
+                        out.release(quilFileName);
+                        err.release(quilFileName);
+                    }
+                }));
+            }
+            pool.shutdown();
+
+            int processedFiles = 0;
+            long processedLines = 0;
+            for(int i = 0; i < results.size(); i++) {
+                try {
+                    processedLines += results.get(i).get();
+                    processedFiles++;
+                    System.out.println("Finished " + quilFileNames.get(i));
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    pool.shutdownNow();
+                    return processedFiles;
+                } catch(ExecutionException e) {
+                    System.err.println("Error while processing " + quilFileNames.get(i) + ": " + e.getCause());
+                }
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT, "Processed %d of %d files (%d lines) in %.2f s with %d threads: %.2f files/s, %.2f lines/s%n",
+                    processedFiles, quilFileNames.size(), processedLines, seconds, threads,
+                    processedFiles / seconds, processedLines / seconds);
+            return processedFiles;
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
     }
 
     public static void main(String[] args) throws IOException, CompilationException, ParsingException, IllegalWorkflowException {
-        if(args.length == 0 || !args[0].endsWith(".quil")){
-            System.err.println("Quil filename to process needed. Stop.");
+        if(args.length == 0 || !(args[0].endsWith(".quil") || new File(args[0]).exists())){
+            System.err.println("Quil filename, directory or file list to process needed. Stop.");
             return;
         }
+        boolean batch = !args[0].endsWith(".quil");
 
-        int iterations = 500;
-        int numbersOfOptimizations = 50;
+        FuzzingOptions optimization = new FuzzingOptions();
+        Set<String> readoutParams = new HashSet<>();
+        int threads = Runtime.getRuntime().availableProcessors();
 
         boolean cfg = Arrays.asList(args).contains("-cfg");
         boolean ddg = Arrays.asList(args).contains("-ddg");
         boolean optimize = Arrays.asList(args).contains("-optimize");
         boolean manIterations = Arrays.asList(args).contains("-iterations");
         boolean manNumbersOfOptimizations = Arrays.asList(args).contains("-nOptimizations");
+        boolean customGrammar = Arrays.asList(args).contains("-grammar");
+        boolean manThreads = Arrays.asList(args).contains("-threads");
+        boolean manFuzzThreads = Arrays.asList(args).contains("-fuzzThreads");
+        boolean manSeed = Arrays.asList(args).contains("-seed");
+        boolean shard = Arrays.asList(args).contains("-shard");
+        boolean gzip = Arrays.asList(args).contains("-gzip");
+        boolean manMemoBudget = Arrays.asList(args).contains("-memoBudget");
+        boolean manSearch = Arrays.asList(args).contains("-search");
+        boolean manObjective = Arrays.asList(args).contains("-objective");
+        boolean manBeamWidth = Arrays.asList(args).contains("-beamWidth");
+        boolean banditStats = Arrays.asList(args).contains("-banditStats");
+        boolean manTimeBudget = Arrays.asList(args).contains("-timeBudget");
+        boolean manPatience = Arrays.asList(args).contains("-patience");
+        boolean manCheckpoint = Arrays.asList(args).contains("-checkpoint");
+        boolean resume = Arrays.asList(args).contains("-resume");
+        boolean manVerbosity = Arrays.asList(args).contains("-verbosity");
         if(manIterations){
             int indexManIts = ArrayUtils.indexOf(args, "-iterations");
             try {
-                iterations = Integer.parseInt(args[indexManIts+1]);
+                optimization.setIterations(Integer.parseInt(args[indexManIts+1]));
             } catch(Exception e) {
                 System.err.println("No valid iteration number given.");
                 return;
@@ -146,46 +406,250 @@ public class Main {
         if(manNumbersOfOptimizations){
             int indexNOpts = ArrayUtils.indexOf(args, "-nOptimizations");
             try {
-                numbersOfOptimizations = Integer.parseInt(args[indexNOpts+1]);
+                optimization.setNumberOfOptimizations(Integer.parseInt(args[indexNOpts+1]));
             } catch(Exception e) {
                 System.err.println("No valid optimization number given.");
                 return;
             }
         }
 
-        String file = args[0];
-        file = StringUtils.removeEnd(file, ".quil");
+        if(manThreads){
+            int indexThreads = ArrayUtils.indexOf(args, "-threads");
+            try {
+                threads = Integer.parseInt(args[indexThreads+1]);
+            } catch(Exception e) {
+                threads = 0;
+            }
+            if(threads < 1) {
+                System.err.println("No valid thread number given.");
+                return;
+            }
+        }
 
-        String grammarFileName = resourcePath + "Quil.g4";
-        String quilFileName = file + ".quil";
-        String dotFileName = file + "cfg.dot";
-        String graphImageFileName = file + "cfg.ps";
-        String dotFileNameDDG = file + "ddg.dot";
-        String graphImageFileNameDDG = file + "ddg.ps";
-        String resultFileName = file + "_optimization_fuzzing.json";
+        // The files of a batch are processed at the same time, so they share the processors
+        int fuzzThreads = batch ? Math.max(1, Runtime.getRuntime().availableProcessors() / threads)
+                : Runtime.getRuntime().availableProcessors();
+        if(manFuzzThreads){
+            int indexFuzzThreads = ArrayUtils.indexOf(args, "-fuzzThreads");
+            try {
+                fuzzThreads = Integer.parseInt(args[indexFuzzThreads+1]);
+            } catch(Exception e) {
+                fuzzThreads = 0;
+            }
+            if(fuzzThreads < 1) {
+                System.err.println("No valid fuzzing thread number given.");
+                return;
+            }
+        }
 
-        ParseTree pt = getParseTree(grammarFileName, quilFileName);
+        if(manSeed){
+            int indexSeed = ArrayUtils.indexOf(args, "-seed");
+            try {
+                optimization.setSeed(Long.parseLong(args[indexSeed+1]));
+            } catch(Exception e) {
+                System.err.println("No valid seed given.");
+                return;
+            }
+        }
 
-        if(cfg) {
-            System.out.println("Starting CFG creation...");
-            drawQuilCfg(pt, quilFileName, dotFileName, graphImageFileName);
+        if(shard){
+            int indexShard = ArrayUtils.indexOf(args, "-shard");
+            int shardIndex = 0;
+            int shardCount = 0;
+            try {
+                String[] shardParts = args[indexShard+1].split("/");
+                shardIndex = Integer.parseInt(shardParts[0]);
+                shardCount = Integer.parseInt(shardParts[1]);
+            } catch(Exception e) {
+                shardCount = 0;
+            }
+            if(shardCount < 1 || shardIndex < 1 || shardIndex > shardCount) {
+                System.err.println("No valid shard given, expected k/N with 1 <= k <= N.");
+                return;
+            }
+            optimization.setShard(shardIndex, shardCount);
+            if(!manSeed) {
+                System.err.println("All shards of a run need the same seed, please set it with -seed.");
+                return;
+            }
         }
-        if(ddg){
-            System.out.println("Starting DDG creation...");
-            drawDataDependencyGraph(pt, quilFileName, dotFileNameDDG, graphImageFileNameDDG);
+
+        long memoryBudget = OptimizingQuil.DEFAULT_MEMORY_BUDGET;
+        if(manMemoBudget){
+            int indexMemoBudget = ArrayUtils.indexOf(args, "-memoBudget");
+            try {
+                memoryBudget = Long.parseLong(args[indexMemoBudget+1]) * 1024 * 1024;
+            } catch(Exception e) {
+                memoryBudget = -1;
+            }
+            if(memoryBudget < 0) {
+                System.err.println("No valid memory budget given.");
+                return;
+            }
+        }
+
+        String search = "random";
+        if(manSearch){
+            int indexSearch = ArrayUtils.indexOf(args, "-search");
+            search = indexSearch + 1 < args.length ? args[indexSearch+1] : "";
+            if(!Arrays.asList("random", "beam", "annealing", "bandit").contains(search)) {
+                System.err.println("No valid search strategy given, expected random, beam, annealing or bandit.");
+                return;
+            }
+            if(shard && !search.equals("random")) {
+                System.err.println("Only random fuzzing runs can be sharded.");
+                return;
+            }
+        }
+
+        Objective objective = Objective.WALL_TIME;
+        if(manObjective){
+            int indexObjective = ArrayUtils.indexOf(args, "-objective");
+            try {
+                objective = Objective.fromName(args[indexObjective+1]);
+            } catch(Exception e) {
+                System.err.println("No valid objective given, expected instructions, quantumInstructions, "
+                        + "quantumCalculationTime or wallTime.");
+                return;
+            }
+        }
+
+        Verbosity verbosity = Verbosity.FULL;
+        if(manVerbosity){
+            int indexVerbosity = ArrayUtils.indexOf(args, "-verbosity");
+            try {
+                verbosity = Verbosity.fromName(args[indexVerbosity+1]);
+            } catch(Exception e) {
+                System.err.println("No valid verbosity given, expected summary, delta or full.");
+                return;
+            }
+        }
+
+        int beamWidth = 0;
+        if(manBeamWidth){
+            int indexBeamWidth = ArrayUtils.indexOf(args, "-beamWidth");
+            try {
+                beamWidth = Integer.parseInt(args[indexBeamWidth+1]);
+            } catch(Exception e) {
+                beamWidth = 0;
+            }
+            if(beamWidth < 1) {
+                System.err.println("No valid beam width given.");
+                return;
+            }
         }
+
+        long timeBudgetMillis = 0;
+        if(manTimeBudget){
+            int indexTimeBudget = ArrayUtils.indexOf(args, "-timeBudget");
+            try {
+                timeBudgetMillis = (long) (Double.parseDouble(args[indexTimeBudget+1]) * 1000);
+            } catch(Exception e) {
+                timeBudgetMillis = 0;
+            }
+            if(timeBudgetMillis <= 0) {
+                System.err.println("No valid time budget given.");
+                return;
+            }
+        }
+
+        int patience = 0;
+        if(manPatience){
+            int indexPatience = ArrayUtils.indexOf(args, "-patience");
+            try {
+                patience = Integer.parseInt(args[indexPatience+1]);
+            } catch(Exception e) {
+                patience = 0;
+            }
+            if(patience < 1) {
+                System.err.println("No valid patience given.");
+                return;
+            }
+        }
+
+        if(shard && (manTimeBudget || manPatience)) {
+            System.err.println("Shards that are stopped early cannot be merged, -timeBudget and -patience cannot be used with -shard.");
+            return;
+        }
+
+        // Random fuzzing runs save checkpoints unless disabled, so a crashed run can be resumed
+        int checkpointInterval = search.equals("random") ? DEFAULT_CHECKPOINT_INTERVAL : 0;
+        if(manCheckpoint){
+            int indexCheckpoint = ArrayUtils.indexOf(args, "-checkpoint");
+            try {
+                checkpointInterval = Integer.parseInt(args[indexCheckpoint+1]);
+            } catch(Exception e) {
+                checkpointInterval = -1;
+            }
+            if(checkpointInterval < 0) {
+                System.err.println("No valid checkpoint interval given.");
+                return;
+            }
+        }
+
+        if((checkpointInterval > 0 || resume) && !search.equals("random")) {
+            System.err.println("Only random fuzzing runs can be checkpointed and resumed.");
+            return;
+        }
+
+        String banditStatsFileName = null;
+        if(banditStats){
+            int indexBanditStats = ArrayUtils.indexOf(args, "-banditStats");
+            if(indexBanditStats + 1 >= args.length) {
+                System.err.println("No bandit statistics file given.");
+                return;
+            }
+            banditStatsFileName = args[indexBanditStats+1];
+        }
+
+        String grammarFileName = null;
+        if(customGrammar){
+            int indexGrammar = ArrayUtils.indexOf(args, "-grammar");
+            if(indexGrammar + 1 >= args.length) {
+                System.err.println("No grammar file given.");
+                return;
+            }
+            grammarFileName = args[indexGrammar+1];
+        }
+
         if(optimize){
-            System.out.println("Starting optimization...");
             int indexOptimize = ArrayUtils.indexOf(args, "-optimize");
-            Set<String> readoutParams = new HashSet<>();
             for(int i = indexOptimize + 1; i < args.length; i++) {
                 String current = args[i];
-                if(current.equals("-iterations") || current.equals("-nOptimizations")) {
+                // The readout params end at the next option
+                if(current.startsWith("-")) {
                     break;
                 }
                 readoutParams.add(current);
             }
-            optimizeQuil(pt, quilFileName, resultFileName, readoutParams, iterations, numbersOfOptimizations);
+            optimization.setGzip(gzip)
+                    .setMemoryBudget(memoryBudget)
+                    .setThreads(fuzzThreads)
+                    .setSearch(search)
+                    .setObjective(objective)
+                    .setBeamWidth(beamWidth)
+                    .setStoppingCriterion(new StoppingCriterion(timeBudgetMillis, patience))
+                    .setCheckpointInterval(checkpointInterval)
+                    .setResume(resume)
+                    .setVerbosity(verbosity);
+            if(banditStatsFileName != null) {
+                optimization.setBanditStatistics(BanditStatistics.read(banditStatsFileName));
+            }
+        } else {
+            optimization = null;
+        }
+
+        if(batch) {
+            List<String> quilFileNames = getBatchFiles(args[0]);
+            processBatch(quilFileNames, grammarFileName, threads, cfg, ddg, readoutParams, optimization);
+        } else {
+            String quilFileName = args[0];
+            ParseTree pt = getParseTree(grammarFileName, quilFileName);
+            processQuilFile(pt, quilFileName, cfg, ddg, readoutParams, optimization);
+        }
+
+        if(optimization != null && banditStatsFileName != null) {
+            optimization.getBanditStatistics().write(banditStatsFileName);
         }
     }
 }
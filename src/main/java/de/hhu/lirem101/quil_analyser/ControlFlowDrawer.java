@@ -159,8 +159,11 @@ public class ControlFlowDrawer {
             }
         }
 
-        Graphviz.fromGraph(g).render(Format.DOT).toFile(dotFile);
-        Graphviz.fromGraph(g).width(200).render(Format.PS).toFile(psFile);
+        // The Graphviz engine is shared, so graphs of concurrently processed files are rendered one after another
+        synchronized (Graphviz.class) {
+            Graphviz.fromGraph(g).render(Format.DOT).toFile(dotFile);
+            Graphviz.fromGraph(g).width(200).render(Format.PS).toFile(psFile);
+        }
 
     }
 
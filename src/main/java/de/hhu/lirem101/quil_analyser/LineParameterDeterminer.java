@@ -39,6 +39,11 @@ public class LineParameterDeterminer {
     private boolean calculated = false;
     private final ParseTreeNode root;
     private final Set<LineParameter> lineParameters = new HashSet<>();
+    // The declared memory regions and the LOAD and STORE accesses to them by their line and the addresses the program
+    // references
+    private final Map<Integer, MemoryRegion> memoryRegions = new HashMap<>();
+    private final Map<Integer, MemoryAccess> memoryAccesses = new HashMap<>();
+    private final Set<String> referencedAddresses = new HashSet<>();
 
     public LineParameterDeterminer(ParseTree pt, ClassifyLines cl) {
         this.root = pt.getRoot();
@@ -66,38 +71,57 @@ public class LineParameterDeterminer {
             handleParametersOfThisNode(currentNode);
             queue.addAll(currentNode.getChildren());
         }
+        addReferencedElementsOfMemoryRegions();
+    }
+
+    /**
+     * Add the elements of the declared memory regions as parameters of their DECLARE lines and of the LOAD and STORE
+     * lines accessing them. Only the elements that are referenced by the program are added, so large regions do not
+     * create a parameter for each of their elements. As the index of a LOAD or STORE is not known here, they get all
+     * referenced elements of the region, and the region itself, which is declared by the DECLARE line of the region.
+     */
+    private void addReferencedElementsOfMemoryRegions() {
+        Set<String> accessedRegions = new HashSet<>();
+        memoryAccesses.values().forEach(access -> accessedRegions.add(access.getRegion()));
+        Map<String, MemoryRegion> regionsByName = new HashMap<>();
+        for (Map.Entry<Integer, MemoryRegion> entry : memoryRegions.entrySet()) {
+            MemoryRegion region = entry.getValue();
+            regionsByName.put(region.getName(), region);
+            addClassicalParameters(entry.getKey(), region.getReferencedElements(referencedAddresses));
+            if (accessedRegions.contains(region.getName())) {
+                addClassicalParameters(entry.getKey(), Collections.singletonList(region.getName()));
+            }
+        }
+        for (Map.Entry<Integer, MemoryAccess> entry : memoryAccesses.entrySet()) {
+            MemoryRegion region = regionsByName.get(entry.getValue().getRegion());
+            if (region != null) {
+                addClassicalParameters(entry.getKey(), region.getReferencedElements(referencedAddresses));
+                addClassicalParameters(entry.getKey(), Collections.singletonList(region.getName()));
+            }
+        }
+    }
+
+    private void addClassicalParameters(int line, List<String> parameters) {
+        for (String parameter : parameters) {
+            lineParameters.stream()
+                    .filter(lp -> lp.getLineNumber() == line)
+                    .forEach(lp -> lp.addClassicalParameter(parameter));
+        }
     }
 
     private void handleParametersOfThisNode(ParseTreeNode node) {
         int line = node.getLine();
         switch (node.getRule()) {
             case "addr":
+                referencedAddresses.add(node.getLabel());
                 lineParameters.stream().filter(lp -> lp.getLineNumber() == line).forEach(lp -> lp.addClassicalParameter(node.getLabel()));
                 break;
             case "memoryDescriptor":
-                String param = node.getLabel();
-                // Remove 'DECLARE' in the front
-                param = param.substring(7);
-                // Remove BIT, FLOAT, INTEGER, OCTET or REAL in the middle
-                param = param.replaceAll("[BIT|FLOAT|INTEGER|OCTET|REAL]", "");
-
-                String[] paramArray = param.split("\\[");
-                String param_prefix = paramArray[0];
-                int param_number = 1;
-                if(paramArray.length > 1) {
-                    param_number = Integer.parseInt(paramArray[1].split("]")[0]);
-                    for (int i = 1; i <= param_number; i++) {
-                        String finalParam = param_prefix + "[" + (i - 1) + "]";
-                        lineParameters.stream()
-                                .filter(lp -> lp.getLineNumber() == line)
-                                .forEach(lp -> lp.addClassicalParameter(finalParam));
-                    }
-                } else {
-                    lineParameters.stream()
-                            .filter(lp -> lp.getLineNumber() == line)
-                            .forEach(lp -> lp.addClassicalParameter(param_prefix));
-                }
-
+                memoryRegions.put(line, MemoryRegion.fromLabel(node.getLabel()));
+                break;
+            case "load":
+            case "store":
+                memoryAccesses.put(line, MemoryAccess.fromParseTreeNode(node));
                 break;
             case "qubit":
             case "qubitVariable":
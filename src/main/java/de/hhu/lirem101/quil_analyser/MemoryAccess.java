@@ -0,0 +1,97 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_analyser;
+
+import org.snt.inmemantlr.tree.ParseTreeNode;
+
+import java.util.List;
+
+/**
+ * An access to an element of a memory region by a LOAD or STORE instruction, e.g. LOAD a[0] x idx[0] or
+ * STORE x idx[0] a[0]. The accessed element is given by the value of the index address, which is only known when the
+ * analysis can show it to be constant.
+ */
+public class MemoryAccess {
+    private final String region;
+    private final String indexAddress;
+    private final boolean store;
+
+    private MemoryAccess(String region, String indexAddress, boolean store) {
+        this.region = region;
+        this.indexAddress = indexAddress;
+        this.store = store;
+    }
+
+    /**
+     * Create the memory access of a load or store node of the parse tree.
+     * @param node The node to create the memory access of.
+     * @return The memory access or null if the node is no load or store node.
+     */
+    public static MemoryAccess fromParseTreeNode(ParseTreeNode node) {
+        List<ParseTreeNode> children = node.getChildren();
+        String label = node.getLabel();
+        // The label of the node is its tokens without whitespace, the region is the only token without a child node
+        switch (node.getRule()) {
+            case "load":
+                String target = children.get(0).getLabel();
+                String loadIndex = children.get(1).getLabel();
+                return new MemoryAccess(label.substring(4 + target.length(), label.length() - loadIndex.length()),
+                        loadIndex, false);
+            case "store":
+                String storeIndex = children.get(0).getLabel();
+                String value = children.get(1).getLabel();
+                return new MemoryAccess(label.substring(5, label.length() - storeIndex.length() - value.length()),
+                        storeIndex, true);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the name of the accessed memory region.
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * Returns the address holding the index of the accessed element.
+     */
+    public String getIndexAddress() {
+        return indexAddress;
+    }
+
+    /**
+     * Returns true for a STORE, which writes the accessed element, and false for a LOAD, which reads it.
+     */
+    public boolean isStore() {
+        return store;
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_analyser;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A memory region declared by a DECLARE instruction: its name, type, length and the region it shares its memory with.
+ * The elements of the region are not expanded to single parameters up front, only the elements that are referenced by
+ * the program are, see getReferencedElements.
+ */
+public class MemoryRegion {
+    private static final String TYPE = "(?:BIT|OCTET|INTEGER|REAL|FLOAT)";
+    // The label of a memoryDescriptor node is its tokens without whitespace, e.g. DECLAREroBIT[2]SHARINGxOFFSET1REAL
+    private static final Pattern DECLARATION = Pattern.compile("DECLARE([\\w\\-]+?)(" + TYPE + ")(?:\\[(\\d+)])?" +
+            "(?:SHARING([\\w\\-]+?)((?:OFFSET\\d+" + TYPE + ")*))?");
+    private static final Pattern OFFSET = Pattern.compile("OFFSET(\\d+)(" + TYPE + ")");
+
+    private final String name;
+    private final String type;
+    private final int length;
+    private final boolean scalar;
+    private final String sharedRegion;
+    private final List<String> offsets;
+
+    private MemoryRegion(String name, String type, int length, boolean scalar, String sharedRegion, List<String> offsets) {
+        this.name = name;
+        this.type = type;
+        this.length = length;
+        this.scalar = scalar;
+        this.sharedRegion = sharedRegion;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Create the memory region from the label of a memoryDescriptor node of the parse tree.
+     * @param label The label of the memoryDescriptor node.
+     * @return The declared memory region.
+     */
+    public static MemoryRegion fromLabel(String label) {
+        Matcher matcher = DECLARATION.matcher(label);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Label " + label + " is no memory declaration.");
+        }
+        boolean scalar = matcher.group(3) == null;
+        int length = scalar ? 1 : Integer.parseInt(matcher.group(3));
+        List<String> offsets = new ArrayList<>();
+        if (matcher.group(5) != null) {
+            Matcher offsetMatcher = OFFSET.matcher(matcher.group(5));
+            while (offsetMatcher.find()) {
+                offsets.add("OFFSET " + offsetMatcher.group(1) + " " + offsetMatcher.group(2));
+            }
+        }
+        return new MemoryRegion(matcher.group(1), matcher.group(2), length, scalar, matcher.group(4),
+                Collections.unmodifiableList(offsets));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the name of the region this region shares its memory with, or null if it does not share memory.
+     */
+    public String getSharedRegion() {
+        return sharedRegion;
+    }
+
+    /**
+     * Returns the offset descriptors of the shared memory, e.g. "OFFSET 1 REAL".
+     */
+    public List<String> getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Get the name of an element of the region, e.g. ro[1]. Regions declared without a length have a single element
+     * named like the region.
+     * @param index The index of the element.
+     * @return The name of the element.
+     */
+    public String getElementName(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of the bounds of " + name + ".");
+        }
+        return scalar ? name : name + "[" + index + "]";
+    }
+
+    /**
+     * Get the index of the element an address refers to.
+     * @param address The address, e.g. ro[1].
+     * @return The index of the element or -1 if the address is no element of this region.
+     */
+    public int getIndexOfElement(String address) {
+        if (scalar) {
+            return address.equals(name) ? 0 : -1;
+        }
+        if (!address.startsWith(name) || address.length() < name.length() + 3 || address.charAt(name.length()) != '['
+                || !address.endsWith("]")) {
+            return -1;
+        }
+        String index = address.substring(name.length() + 1, address.length() - 1);
+        if (index.isEmpty() || index.length() > 9 || !index.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        int i = Integer.parseInt(index);
+        return i < length ? i : -1;
+    }
+
+    /**
+     * Get the names of the elements of the region that are referenced by the given addresses, ordered by their index.
+     * Only the given addresses are looked at, so this does not depend on the length of the region.
+     * @param addresses The addresses referenced by the program.
+     * @return The names of the referenced elements.
+     */
+    public List<String> getReferencedElements(Collection<String> addresses) {
+        TreeSet<Integer> indices = new TreeSet<>();
+        for (String address : addresses) {
+            int index = getIndexOfElement(address);
+            if (index >= 0) {
+                indices.add(index);
+            }
+        }
+        List<String> elements = new ArrayList<>();
+        for (int index : indices) {
+            elements.add(getElementName(index));
+        }
+        return elements;
+    }
+
+    @Override
+    public String toString() {
+        return "DECLARE " + name + " " + type + (scalar ? "" : "[" + length + "]")
+                + (sharedRegion == null ? "" : " SHARING " + sharedRegion + (offsets.isEmpty() ? "" : " " + String.join(" ", offsets)));
+    }
+}
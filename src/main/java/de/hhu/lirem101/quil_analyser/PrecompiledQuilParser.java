@@ -0,0 +1,125 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_analyser;
+
+import de.hhu.lirem101.quil_parser.QuilLexer;
+import de.hhu.lirem101.quil_parser.QuilParser;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.snt.inmemantlr.PredictionStrategy;
+import org.snt.inmemantlr.exceptions.ParsingException;
+import org.snt.inmemantlr.listener.DefaultTreeListener;
+import org.snt.inmemantlr.tool.InmemantlrErrorListener;
+import org.snt.inmemantlr.tree.ParseTree;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Parser for Quil code that uses the lexer and parser generated from Quil.g4 at build time. In contrast to the
+ * GenericParser, no grammar has to be processed or compiled at runtime. The parse tree is created with the same
+ * DefaultTreeListener, so the result is identical to the one of the GenericParser.
+ */
+public class PrecompiledQuilParser {
+
+    private PrecompiledQuilParser() {
+    }
+
+    /**
+     * Parse the given Quil code and create the parse tree.
+     * @param quilCode The Quil code to parse.
+     * @return The parse tree of the Quil code.
+     * @throws ParsingException If the Quil code contains syntax errors.
+     */
+    public static ParseTree getParseTree(String quilCode) throws ParsingException {
+        return getParseTree(quilCode, PredictionStrategy.TWO_STAGE);
+    }
+
+    /**
+     * Parse the given Quil code with the given prediction strategy and create the parse tree.
+     * @param quilCode The Quil code to parse.
+     * @param strategy The prediction strategy of the parser.
+     * @return The parse tree of the Quil code.
+     * @throws ParsingException If the Quil code contains syntax errors.
+     */
+    public static ParseTree getParseTree(String quilCode, PredictionStrategy strategy) throws ParsingException {
+        DefaultTreeListener dlist = new DefaultTreeListener();
+        parse(quilCode, dlist, strategy);
+        return dlist.getParseTree();
+    }
+
+    /**
+     * Parse the given Quil code and walk the listener over the resulting context.
+     * @param quilCode The Quil code to parse.
+     * @param listener The listener that is walked over the parse result.
+     * @param strategy The prediction strategy of the parser.
+     * @return The context of the quil rule.
+     * @throws ParsingException If the Quil code contains syntax errors.
+     */
+    public static ParserRuleContext parse(String quilCode, DefaultTreeListener listener, PredictionStrategy strategy)
+            throws ParsingException {
+        InmemantlrErrorListener el = new InmemantlrErrorListener();
+        listener.reset();
+
+        QuilLexer lexer = new QuilLexer(CharStreams.fromString(quilCode));
+        lexer.addErrorListener(el);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        tokens.fill();
+
+        QuilParser parser = new QuilParser(tokens);
+        listener.setParser(parser);
+        parser.setBuildParseTree(true);
+
+        ParserRuleContext data;
+        try {
+            data = strategy.parse(parser, el, p -> ((QuilParser) p).quil());
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            // The generated entry point is called directly, so this can not happen
+            throw new IllegalStateException(e);
+        }
+
+        Set<String> msgs = el.getLog().entrySet()
+                .stream()
+                .filter(e -> e.getKey() == InmemantlrErrorListener.Type.SYNTAX_ERROR)
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toSet());
+        if (!msgs.isEmpty()) {
+            throw new ParsingException(String.join("", msgs));
+        }
+
+        ParseTreeWalker.DEFAULT.walk(listener, data);
+        return data;
+    }
+}
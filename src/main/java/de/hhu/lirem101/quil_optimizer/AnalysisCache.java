@@ -0,0 +1,155 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import javax.json.JsonObject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the results of the analyses of an OptimizingQuil object as long as no transformation changed the program in
+ * a way the analyses depend on. Every cached analysis declares the transformations that invalidate its result, so an
+ * analysis that is applied again to the same version of the program does not need to be executed again. Only
+ * analyses whose repeated execution does not change the program and gives the same result can be cached. The
+ * ConstantPropagation is not cached, as the constant values it finds depend on the values it found before.
+ * The hits and misses are counted for all copies of a cache together.
+ */
+final class AnalysisCache {
+    // The cached analyses and the transformations that invalidate their results. The reorderings keep the
+    // dependencies between the instructions, so they neither change the dead variables nor the hybrid dependencies.
+    private static final Map<String, Set<String>> INVALIDATED_BY;
+    static {
+        Map<String, Set<String>> invalidatedBy = new LinkedHashMap<>();
+        invalidatedBy.put("LiveVariableAnalysis", Collections.unmodifiableSet(new HashSet<>(
+                Arrays.asList("DeadCodeElimination", "ConstantFolding"))));
+        invalidatedBy.put("HybridDependencies", Collections.unmodifiableSet(new HashSet<>(
+                Arrays.asList("DeadCodeElimination", "ConstantFolding"))));
+        INVALIDATED_BY = Collections.unmodifiableMap(invalidatedBy);
+    }
+
+    // The results of the analyses that are valid for the current program
+    private final Map<String, JsonObject> results;
+    private final Statistics statistics;
+
+    AnalysisCache() {
+        this(new HashMap<>(), new Statistics());
+    }
+
+    private AnalysisCache(Map<String, JsonObject> results, Statistics statistics) {
+        this.results = results;
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return A copy of this cache with the same results. Its hits and misses are counted together with this cache.
+     */
+    AnalysisCache copy() {
+        return new AnalysisCache(new HashMap<>(results), statistics);
+    }
+
+    /**
+     * @param optimizationStep The name of an optimization step.
+     * @return True if the step is an analysis whose results are cached.
+     */
+    static boolean isCached(String optimizationStep) {
+        return INVALIDATED_BY.containsKey(optimizationStep);
+    }
+
+    /**
+     * Find the result of an analysis for the current program and count it as a hit or a miss.
+     * @param analysis The name of a cached analysis.
+     * @param createResult True if the json of the result is needed, an empty result does not suffice then.
+     * @return The result of the analysis, null if it has to be executed.
+     */
+    JsonObject findResult(String analysis, boolean createResult) {
+        JsonObject result = results.get(analysis);
+        if(result != null && createResult && result.isEmpty()) {
+            result = null;
+        }
+        statistics.count(analysis, result != null);
+        return result;
+    }
+
+    /**
+     * Save the result of an analysis that was executed on the current program.
+     * @param analysis The name of a cached analysis.
+     * @param result The result of the analysis, an empty JsonObject if its json was not created.
+     */
+    void analysisApplied(String analysis, JsonObject result) {
+        results.put(analysis, result);
+    }
+
+    /**
+     * Remove the results of all analyses that are invalidated by a transformation which changed the program.
+     * @param transformation The name of the transformation.
+     */
+    void programChanged(String transformation) {
+        results.keySet().removeIf(x -> INVALIDATED_BY.get(x).contains(transformation));
+    }
+
+    /**
+     * Print how many results of every cached analysis were reused.
+     */
+    void print() {
+        statistics.print();
+    }
+
+    private static final class Statistics {
+        private final Map<String, long[]> counts = new LinkedHashMap<>();
+
+        private Statistics() {
+            INVALIDATED_BY.keySet().forEach(x -> counts.put(x, new long[2]));
+        }
+
+        private synchronized void count(String analysis, boolean hit) {
+            counts.get(analysis)[hit ? 0 : 1]++;
+        }
+
+        private synchronized void print() {
+            StringBuilder sb = new StringBuilder("Cached analyses:");
+            String separator = " ";
+            for(Map.Entry<String, long[]> entry : counts.entrySet()) {
+                long hits = entry.getValue()[0];
+                long lookups = hits + entry.getValue()[1];
+                long rate = lookups == 0 ? 0 : Math.round(100.0 * hits / lookups);
+                sb.append(separator).append(entry.getKey()).append(' ').append(hits).append(" of ").append(lookups)
+                        .append(" results reused (").append(rate).append("%)");
+                separator = ", ";
+            }
+            System.out.println(sb.append('.'));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import de.hhu.lirem101.quil_optimizer.search.Objective;
+import org.snt.inmemantlr.utils.FileUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+
+/**
+ * Writes the best program found so far for every metric into a Quil file as soon as it improves, so the best programs
+ * are available while a fuzzing run is still running or if it is stopped. The files are named after the json file of
+ * the run: &lt;json-filename-without-extension&gt;_best_&lt;metric&gt;.quil. A file is replaced atomically where the file
+ * system supports it, so it always contains a complete program.
+ */
+class BestPrograms {
+    private final String baseName;
+
+    /**
+     * Constructor for the BestPrograms class.
+     * @param jsonFileName The name of the json file of the fuzzing run.
+     */
+    BestPrograms(String jsonFileName) {
+        String name = jsonFileName;
+        if(name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        if(name.endsWith(".json")) {
+            name = name.substring(0, name.length() - 5);
+        }
+        this.baseName = name;
+    }
+
+    /**
+     * Get the name of the file of the best program for a metric.
+     * @param metric The metric.
+     * @return The name of the Quil file.
+     */
+    String getFileName(Objective metric) {
+        return baseName + "_best_" + metric.getName() + ".quil";
+    }
+
+    /**
+     * Writes the best program for a metric.
+     * @param metric The metric the program is the best for.
+     * @param iteration The iteration the program was found in, -1 for the original program.
+     * @param definitions The lines that are written before the program, like gate definitions.
+     * @param program The lines of the program.
+     */
+    void write(Objective metric, int iteration, List<String> definitions, List<String> program) {
+        Path file = Paths.get(getFileName(metric));
+        StringBuilder content = new StringBuilder();
+        content.append("# Best ").append(metric.getName()).append(" found in iteration ").append(iteration).append('\n');
+        definitions.forEach(x -> content.append(x).append('\n'));
+        program.forEach(x -> content.append(x).append('\n'));
+        try {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temporary, content.toString().getBytes(StandardCharsets.UTF_8));
+            FileUtils.moveReplacing(temporary, file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,447 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import javax.json.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * The delta encoding of the json files of fuzzing runs. In the full encoding, every transformation step of an
+ * iteration contains the whole program after the step, and every iteration contains the original and the final
+ * program. In the delta encoding, the original program is written once as "OriginalProgram" and every step only
+ * contains the difference to the program before it as "Diff":
+ * "Removed" - the numbers of the removed lines,
+ * "Rewritten" - the new texts of lines by their number,
+ * "Permutations" - the new order of the lines of blocks by the index of the block, if only the order changed,
+ * "Blocks" - the line numbers of all blocks, if lines moved between blocks.
+ * The start and final program of an iteration are left out as they follow from the original program and the diffs.
+ * A step whose program cannot be encoded, e.g. because a line number appears twice, keeps its full result.
+ * Usage: DeltaEncoding &lt;json-file&gt; &lt;iteration&gt; [&lt;number-of-steps&gt;]
+ * prints the program of an iteration after a number of its steps, or its final program.
+ */
+public class DeltaEncoding {
+    static final String ENCODING = "Delta";
+
+    private DeltaEncoding() {
+    }
+
+    /**
+     * Encodes the optimization steps of an iteration.
+     * @param iteration The json of the iteration in the full encoding.
+     * @param originalProgram The original program of the run.
+     * @return The json of the iteration in the delta encoding.
+     */
+    static JsonObject encodeIteration(JsonObject iteration, JsonArray originalProgram) {
+        JsonObject optimizations = iteration.getJsonObject("Optimizations");
+        if(optimizations == null) {
+            return iteration;
+        }
+        JsonObjectBuilder encoded = Json.createObjectBuilder();
+        JsonArray start = optimizations.getJsonArray("Start");
+        if(!originalProgram.equals(start)) {
+            encoded.add("Start", start);
+        }
+        Program program = Program.of(start);
+        JsonArrayBuilder steps = Json.createArrayBuilder();
+        for(JsonValue value : optimizations.getJsonArray("Optimizations")) {
+            JsonObject step = (JsonObject) value;
+            if(!changesProgram(step)) {
+                steps.add(step);
+                continue;
+            }
+            Program next = program == null ? null : program.after(step);
+            JsonObject diff = program == null || next == null ? null : program.diff(next);
+            steps.add(diff == null ? step : replace(step, "Result", "Diff", diff));
+            program = next != null ? next : Program.of(getFullResult(step));
+        }
+        encoded.add("Optimizations", steps);
+        JsonArray finalResult = optimizations.getJsonArray("FinalResult");
+        if(program == null || !program.toJson().equals(finalResult)) {
+            encoded.add("FinalResult", finalResult);
+        }
+        return replace(iteration, "Optimizations", "Optimizations", encoded.build());
+    }
+
+    /**
+     * Decodes a delta encoded fuzzing run into the full encoding. A run in the full encoding is returned unchanged.
+     * @param run The json of the run.
+     * @return The json of the run in the full encoding.
+     */
+    public static JsonObject decode(JsonObject run) {
+        if(!ENCODING.equals(run.getString("Encoding", null))) {
+            return run;
+        }
+        JsonArray originalProgram = run.getJsonArray("OriginalProgram");
+        JsonObjectBuilder decoded = Json.createObjectBuilder();
+        for(Map.Entry<String, JsonValue> entry : run.entrySet()) {
+            String key = entry.getKey();
+            if(key.equals("Encoding") || key.equals("OriginalProgram")) {
+                continue;
+            }
+            if(key.startsWith("Iteration") && entry.getValue() instanceof JsonObject) {
+                decoded.add(key, decodeIteration((JsonObject) entry.getValue(), originalProgram, null));
+            } else {
+                decoded.add(key, entry.getValue());
+            }
+        }
+        return decoded.build();
+    }
+
+    /**
+     * Reconstructs the program of an iteration after some of its optimization steps.
+     * @param run The json of the run, in the delta or the full encoding.
+     * @param iteration The index of the iteration.
+     * @param steps The number of optimization steps applied, 0 for the start program and a negative number for the
+     *              final program.
+     * @return The program, an array of blocks of "LineNumber: LineContent".
+     * @throws IllegalArgumentException If the iteration does not exist or failed, or has less steps.
+     */
+    public static JsonArray getProgram(JsonObject run, int iteration, int steps) {
+        JsonObject iterationJson = run.getJsonObject("Iteration" + iteration);
+        if(iterationJson == null || !iterationJson.containsKey("Optimizations")) {
+            throw new IllegalArgumentException("Iteration " + iteration + " does not exist or failed.");
+        }
+        int numberOfSteps = iterationJson.getJsonObject("Optimizations").getJsonArray("Optimizations").size();
+        if(steps > numberOfSteps) {
+            throw new IllegalArgumentException("Iteration " + iteration + " has " + numberOfSteps + " steps.");
+        }
+        List<JsonArray> programs = new ArrayList<>();
+        JsonObject decoded = decodeIteration(iterationJson, run.getJsonArray("OriginalProgram"), programs);
+        return steps < 0 ? decoded.getJsonObject("Optimizations").getJsonArray("FinalResult") : programs.get(steps);
+    }
+
+    /**
+     * Decodes the optimization steps of an iteration.
+     * @param iteration The json of the iteration in the delta or the full encoding.
+     * @param originalProgram The original program of the run, null if the run is in the full encoding.
+     * @param programs If not null, the start program and the program after every step are added to it.
+     * @return The json of the iteration in the full encoding.
+     */
+    private static JsonObject decodeIteration(JsonObject iteration, JsonArray originalProgram,
+                                              List<JsonArray> programs) {
+        JsonObject optimizations = iteration.getJsonObject("Optimizations");
+        if(optimizations == null) {
+            return iteration;
+        }
+        JsonArray start = optimizations.containsKey("Start") ? optimizations.getJsonArray("Start") : originalProgram;
+        Program program = Program.of(start);
+        JsonArray current = start;
+        addProgram(programs, current);
+        JsonArrayBuilder steps = Json.createArrayBuilder();
+        for(JsonValue value : optimizations.getJsonArray("Optimizations")) {
+            JsonObject step = (JsonObject) value;
+            if(step.containsKey("Diff")) {
+                program = program.apply(step.getJsonObject("Diff"));
+                current = program.toJson();
+                JsonArray result = isLastPossibleQuantumExecution(step)
+                        ? Json.createArrayBuilder().add(current.get(0)).build() : current;
+                step = replace(step, "Diff", "Result", result);
+            } else if(changesProgram(step)) {
+                Program next = program == null ? null : program.after(step);
+                program = next != null ? next : Program.of(getFullResult(step));
+                current = program != null ? program.toJson() : getFullResult(step);
+            }
+            steps.add(step);
+            addProgram(programs, current);
+        }
+        JsonArray finalResult = optimizations.containsKey("FinalResult") ? optimizations.getJsonArray("FinalResult")
+                : current;
+        JsonObject decoded = Json.createObjectBuilder()
+                .add("Start", start)
+                .add("Optimizations", steps)
+                .add("FinalResult", finalResult)
+                .build();
+        return replace(iteration, "Optimizations", "Optimizations", decoded);
+    }
+
+    private static void addProgram(List<JsonArray> programs, JsonArray program) {
+        if(programs != null) {
+            programs.add(program);
+        }
+    }
+
+    /**
+     * @param step The json of an optimization step in the full encoding.
+     * @return True if the result of the step contains the changed program or, for the last possible quantum
+     * execution, its changed first block.
+     */
+    private static boolean changesProgram(JsonObject step) {
+        JsonValue result = step.get("Result");
+        if(!(result instanceof JsonArray)) {
+            return false;
+        }
+        if(isLastPossibleQuantumExecution(step)) {
+            return !((JsonArray) result).isEmpty();
+        }
+        return OptimizingQuil.TRANSFORMATIONS.contains(step.getString("Optimization"));
+    }
+
+    private static boolean isLastPossibleQuantumExecution(JsonObject step) {
+        return step.getString("Optimization").equals("LastPossibleQuantumExecution");
+    }
+
+    /**
+     * @param step The json of an optimization step in the full encoding that changes the program.
+     * @return The whole program after the step, null if the step only contains a part of it.
+     */
+    private static JsonArray getFullResult(JsonObject step) {
+        return isLastPossibleQuantumExecution(step) ? null : step.getJsonArray("Result");
+    }
+
+    /**
+     * Replaces a member of a json object, keeping the order of the members.
+     */
+    private static JsonObject replace(JsonObject json, String key, String newKey, JsonValue value) {
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        json.forEach((k, v) -> {
+            if(k.equals(key)) {
+                builder.add(newKey, value);
+            } else {
+                builder.add(k, v);
+            }
+        });
+        return builder.build();
+    }
+
+    /**
+     * A program as blocks of line numbers and the texts of the lines.
+     */
+    private static final class Program {
+        private final List<List<Integer>> blocks;
+        private final Map<Integer, String> texts;
+
+        private Program(List<List<Integer>> blocks, Map<Integer, String> texts) {
+            this.blocks = blocks;
+            this.texts = texts;
+        }
+
+        /**
+         * @param json The program as array of blocks of "LineNumber: LineContent".
+         * @return The program, null if it is null, a line number appears twice or a line has another form.
+         */
+        private static Program of(JsonArray json) {
+            if(json == null) {
+                return null;
+            }
+            List<List<Integer>> blocks = new ArrayList<>();
+            Map<Integer, String> texts = new HashMap<>();
+            for(JsonValue blockValue : json) {
+                List<Integer> block = new ArrayList<>();
+                for(JsonValue lineValue : (JsonArray) blockValue) {
+                    String line = ((JsonString) lineValue).getString();
+                    int separator = line.indexOf(": ");
+                    if(separator < 0) {
+                        return null;
+                    }
+                    int number;
+                    try {
+                        number = Integer.parseInt(line.substring(0, separator));
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                    if(texts.put(number, line.substring(separator + 2)) != null) {
+                        return null;
+                    }
+                    block.add(number);
+                }
+                blocks.add(block);
+            }
+            return new Program(blocks, texts);
+        }
+
+        /**
+         * @param step The json of an optimization step in the full encoding that changes the program.
+         * @return The program after the step, null if it cannot be encoded.
+         */
+        private Program after(JsonObject step) {
+            JsonArray result = step.getJsonArray("Result");
+            if(!isLastPossibleQuantumExecution(step)) {
+                return of(result);
+            }
+            if(blocks.isEmpty()) {
+                return null;
+            }
+            JsonArrayBuilder program = Json.createArrayBuilder();
+            JsonArray json = toJson();
+            program.add(result.get(0));
+            for(int i = 1; i < json.size(); i++) {
+                program.add(json.get(i));
+            }
+            return of(program.build());
+        }
+
+        private JsonArray toJson() {
+            JsonArrayBuilder json = Json.createArrayBuilder();
+            for(List<Integer> block : blocks) {
+                if(!block.isEmpty()) {
+                    JsonArrayBuilder blockJson = Json.createArrayBuilder();
+                    block.forEach(x -> blockJson.add(x + ": " + texts.get(x)));
+                    json.add(blockJson);
+                }
+            }
+            return json.build();
+        }
+
+        /**
+         * @param next The program after a step.
+         * @return The difference from this program to the next one.
+         */
+        private JsonObject diff(Program next) {
+            JsonObjectBuilder diff = Json.createObjectBuilder();
+            Set<Integer> removed = new HashSet<>();
+            JsonArrayBuilder removedJson = Json.createArrayBuilder();
+            for(List<Integer> block : blocks) {
+                for(int line : block) {
+                    if(!next.texts.containsKey(line)) {
+                        removed.add(line);
+                        removedJson.add(line);
+                    }
+                }
+            }
+            if(!removed.isEmpty()) {
+                diff.add("Removed", removedJson);
+            }
+            JsonObjectBuilder rewritten = Json.createObjectBuilder();
+            boolean anyRewritten = false;
+            for(List<Integer> block : next.blocks) {
+                for(int line : block) {
+                    String text = next.texts.get(line);
+                    if(!text.equals(texts.get(line))) {
+                        rewritten.add(Integer.toString(line), text);
+                        anyRewritten = true;
+                    }
+                }
+            }
+            if(anyRewritten) {
+                diff.add("Rewritten", rewritten);
+            }
+            List<List<Integer>> remaining = withoutLines(removed);
+            if(remaining.equals(next.blocks)) {
+                return diff.build();
+            }
+            if(remaining.size() == next.blocks.size()) {
+                JsonObjectBuilder permutations = Json.createObjectBuilder();
+                boolean permuted = true;
+                for(int i = 0; i < remaining.size() && permuted; i++) {
+                    List<Integer> block = next.blocks.get(i);
+                    if(!remaining.get(i).equals(block)) {
+                        permuted = new HashSet<>(remaining.get(i)).equals(new HashSet<>(block))
+                                && remaining.get(i).size() == block.size();
+                        permutations.add(Integer.toString(i), toJson(block));
+                    }
+                }
+                if(permuted) {
+                    return diff.add("Permutations", permutations).build();
+                }
+            }
+            JsonArrayBuilder blocksJson = Json.createArrayBuilder();
+            next.blocks.forEach(x -> blocksJson.add(toJson(x)));
+            return diff.add("Blocks", blocksJson).build();
+        }
+
+        /**
+         * @param diff The difference to the next program.
+         * @return The next program.
+         */
+        private Program apply(JsonObject diff) {
+            Set<Integer> removed = new HashSet<>();
+            if(diff.containsKey("Removed")) {
+                diff.getJsonArray("Removed").getValuesAs(JsonNumber.class).forEach(x -> removed.add(x.intValue()));
+            }
+            Map<Integer, String> nextTexts = new HashMap<>(texts);
+            nextTexts.keySet().removeAll(removed);
+            if(diff.containsKey("Rewritten")) {
+                diff.getJsonObject("Rewritten").forEach((k, v) -> nextTexts.put(Integer.parseInt(k),
+                        ((JsonString) v).getString()));
+            }
+            List<List<Integer>> nextBlocks;
+            if(diff.containsKey("Blocks")) {
+                nextBlocks = new ArrayList<>();
+                for(JsonValue block : diff.getJsonArray("Blocks")) {
+                    nextBlocks.add(toList((JsonArray) block));
+                }
+            } else {
+                nextBlocks = withoutLines(removed);
+                if(diff.containsKey("Permutations")) {
+                    diff.getJsonObject("Permutations").forEach((k, v) -> nextBlocks.set(Integer.parseInt(k),
+                            toList((JsonArray) v)));
+                }
+            }
+            return new Program(nextBlocks, nextTexts);
+        }
+
+        /**
+         * @param lines The lines to leave out.
+         * @return The blocks without the lines, blocks that become empty are left out.
+         */
+        private List<List<Integer>> withoutLines(Set<Integer> lines) {
+            List<List<Integer>> remaining = new ArrayList<>();
+            for(List<Integer> block : blocks) {
+                List<Integer> remainingBlock = new ArrayList<>(block);
+                remainingBlock.removeAll(lines);
+                if(!remainingBlock.isEmpty()) {
+                    remaining.add(remainingBlock);
+                }
+            }
+            return remaining;
+        }
+
+        private static JsonArray toJson(List<Integer> block) {
+            JsonArrayBuilder json = Json.createArrayBuilder();
+            block.forEach(json::add);
+            return json.build();
+        }
+
+        private static List<Integer> toList(JsonArray block) {
+            List<Integer> list = new ArrayList<>();
+            block.getValuesAs(JsonNumber.class).forEach(x -> list.add(x.intValue()));
+            return list;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: DeltaEncoding <json-file> <iteration> [<number-of-steps>]");
+            return;
+        }
+        JsonObject run;
+        try (InputStream is = JsonFiles.newInputStream(args[0]);
+             JsonReader jsonReader = Json.createReader(is)) {
+            run = jsonReader.readObject();
+        }
+        int steps = args.length > 2 ? Integer.parseInt(args[2]) : -1;
+        for(JsonValue block : getProgram(run, Integer.parseInt(args[1]), steps)) {
+            ((JsonArray) block).getValuesAs(JsonString.class).forEach(x -> System.out.println(x.getString()));
+        }
+    }
+}
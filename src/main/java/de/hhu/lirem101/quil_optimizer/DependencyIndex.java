@@ -0,0 +1,140 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of the instructions every instruction of a block depends on, directly or transitively. Every instruction
+ * gets a dense id, the ids of the instructions in the block are their positions. The dependencies of an instruction
+ * are a bitset of ids, calculated from the dependencies of its previous instructions, so the dependencies of all
+ * instructions are found in one pass in topological order instead of one search per instruction.
+ */
+public class DependencyIndex {
+    private final Map<InstructionNode, Integer> ids = new HashMap<>();
+    private final List<InstructionNode> instructions = new ArrayList<>();
+    // The dependencies of the instruction with the same id, null if they are not calculated yet
+    private final List<BitSet> dependencies = new ArrayList<>();
+    private final List<int[]> previousIds = new ArrayList<>();
+
+    /**
+     * Constructor for the DependencyIndex class. Calculates the dependencies of all instructions of the block.
+     * @param instructions The instructions of the block.
+     */
+    public DependencyIndex(Collection<InstructionNode> instructions) {
+        instructions.forEach(this::getId);
+        for(int i = 0; i < this.instructions.size(); i++) {
+            calculateDependencies(i);
+        }
+    }
+
+    /**
+     * @param node An instruction of the block.
+     * @return The ids of all instructions the given instruction depends on. The bitset can be changed.
+     */
+    public BitSet getDependencies(InstructionNode node) {
+        int id = getId(node);
+        calculateDependencies(id);
+        return (BitSet) dependencies.get(id).clone();
+    }
+
+    /**
+     * @param id The id of an instruction.
+     * @return The instruction with the given id.
+     */
+    public InstructionNode getInstruction(int id) {
+        return instructions.get(id);
+    }
+
+    private int getId(InstructionNode node) {
+        Integer id = ids.get(node);
+        if(id == null) {
+            id = instructions.size();
+            ids.put(node, id);
+            instructions.add(node);
+            dependencies.add(null);
+            previousIds.add(null);
+        }
+        return id;
+    }
+
+    private int[] getPreviousIds(int id) {
+        if(previousIds.get(id) == null) {
+            ArrayList<InstructionNode> previous = instructions.get(id).getBranches();
+            int[] previousOfId = new int[previous.size()];
+            for(int i = 0; i < previous.size(); i++) {
+                previousOfId[i] = getId(previous.get(i));
+            }
+            previousIds.set(id, previousOfId);
+        }
+        return previousIds.get(id);
+    }
+
+    /**
+     * Calculate the dependencies of an instruction and of all instructions it depends on that are not calculated yet.
+     * The previous instructions are calculated first, with a stack instead of recursion, as long blocks would need a
+     * deep recursion.
+     * @param id The id of the instruction.
+     */
+    private void calculateDependencies(int id) {
+        ArrayDeque<Integer> stack = new ArrayDeque<>();
+        stack.push(id);
+        while(!stack.isEmpty()) {
+            int current = stack.peek();
+            if(dependencies.get(current) != null) {
+                stack.pop();
+                continue;
+            }
+            boolean previousCalculated = true;
+            for(int previous : getPreviousIds(current)) {
+                if(dependencies.get(previous) == null) {
+                    stack.push(previous);
+                    previousCalculated = false;
+                }
+            }
+            if(previousCalculated) {
+                BitSet dependenciesOfCurrent = new BitSet();
+                for(int previous : getPreviousIds(current)) {
+                    dependenciesOfCurrent.set(previous);
+                    dependenciesOfCurrent.or(dependencies.get(previous));
+                }
+                dependencies.set(current, dependenciesOfCurrent);
+                stack.pop();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Counts the distinct values of a stream of 64 bit hashes in constant memory. The first hashes are counted exactly.
+ * Once there are more distinct hashes than EXACT_LIMIT, the set of hashes is dropped and the count is estimated with
+ * HyperLogLog, which keeps the maximal number of leading zeros of the hashes in each of 4096 registers. The standard
+ * error of the estimate is about 1.6%.
+ * The counter is not thread-safe.
+ */
+public class DistinctCounter {
+    private static final int EXACT_LIMIT = 4096;
+    private static final int PRECISION = 12;
+    private static final int REGISTERS = 1 << PRECISION;
+
+    private Set<Long> hashes = new HashSet<>();
+    private final byte[] registers = new byte[REGISTERS];
+
+    /**
+     * Counts a hash.
+     * @param hash The hash, it is counted once no matter how often it is added.
+     */
+    public void add(long hash) {
+        long mixed = mix(hash);
+        int register = (int) (mixed >>> (64 - PRECISION));
+        // The sentinel bit limits the rank to the bits that are not used for the register
+        int rank = Long.numberOfLeadingZeros(mixed << PRECISION | 1L << (PRECISION - 1)) + 1;
+        if(rank > registers[register]) {
+            registers[register] = (byte) rank;
+        }
+        if(hashes != null) {
+            hashes.add(hash);
+            if(hashes.size() > EXACT_LIMIT) {
+                hashes = null;
+            }
+        }
+    }
+
+    /**
+     * @return True if the count is exact, false if it is estimated.
+     */
+    public boolean isExact() {
+        return hashes != null;
+    }
+
+    /**
+     * @return The number of distinct hashes that were added, estimated if there were too many to count them exactly.
+     */
+    public long count() {
+        if(hashes != null) {
+            return hashes.size();
+        }
+        double sum = 0;
+        int emptyRegisters = 0;
+        for(byte rank : registers) {
+            sum += 1.0 / (1L << rank);
+            if(rank == 0) {
+                emptyRegisters++;
+            }
+        }
+        double estimate = 0.7213 / (1 + 1.079 / REGISTERS) * REGISTERS * REGISTERS / sum;
+        if(estimate <= 2.5 * REGISTERS && emptyRegisters > 0) {
+            // Linear counting is more accurate for small counts
+            estimate = REGISTERS * Math.log((double) REGISTERS / emptyRegisters);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Spreads the bits of a hash with the finalizer of MurmurHash3, so the register and the rank do not depend on how
+     * well the leading bits of the hash are distributed.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93fe53ccd53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
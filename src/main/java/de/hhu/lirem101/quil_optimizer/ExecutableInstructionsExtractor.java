@@ -67,16 +67,7 @@ public class ExecutableInstructionsExtractor {
      */
     public ArrayList<InstructionNode> getExecutableInstructionsOfOneBlock(int blockIndex, ArrayList<InstructionNode> executionQueue) {
         ArrayList<InstructionNode> instructionList = instructions.get(blockIndex);
-        ArrayList<InstructionNode> executableInstructions = new ArrayList<>();
-        ArrayList<Integer> executedLines = executionQueue.stream().map(InstructionNode::getLine).collect(Collectors.toCollection(ArrayList::new));
-        for(InstructionNode node : instructionList) {
-            ArrayList<Integer> necessaryLines = node.getBranches().stream().map(InstructionNode::getLine).collect(Collectors.toCollection(ArrayList::new));
-            if(!executionQueue.contains(node) && executedLines.containsAll(necessaryLines)) {
-                executableInstructions.add(node);
-                executedLines.add(node.getLine());
-            }
-        }
-        return executableInstructions;
+        return new InstructionScheduler(instructionList, executionQueue).getExecutableInstructions(instructionList);
     }
 
     /**
@@ -88,17 +79,9 @@ public class ExecutableInstructionsExtractor {
      */
     public ArrayList<InstructionNode> getExecutableInstructionsOfOneType(int index, LineType type, ArrayList<InstructionNode> executionQueue) {
         ArrayList<InstructionNode> instructionList = instructions.get(index);
-        ArrayList<InstructionNode> executableInstructions = new ArrayList<>();
-        ArrayList<Integer> executedLines = executionQueue.stream().map(InstructionNode::getLine).collect(Collectors.toCollection(ArrayList::new));
-        for(InstructionNode node : instructionList) {
-            if(node.getLineType() == type) {
-                ArrayList<Integer> necessaryLines = node.getBranches().stream().map(InstructionNode::getLine).collect(Collectors.toCollection(ArrayList::new));
-                if (!executionQueue.contains(node) && executedLines.containsAll(necessaryLines)) {
-                    executableInstructions.add(node);
-                    executedLines.add(node.getLine());
-                }
-            }
-        }
-        return executableInstructions;
+        ArrayList<InstructionNode> instructionsOfType = instructionList.stream()
+                .filter(x -> x.getLineType() == type)
+                .collect(Collectors.toCollection(ArrayList::new));
+        return new InstructionScheduler(instructionList, executionQueue).getExecutableInstructions(instructionsOfType);
     }
 }
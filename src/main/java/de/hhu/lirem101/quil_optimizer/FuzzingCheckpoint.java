@@ -0,0 +1,291 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import org.snt.inmemantlr.utils.FileUtils;
+
+import javax.json.*;
+import javax.json.stream.JsonGenerator;
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Periodic checkpoints of a fuzzing run, so that a run that crashed or was killed can be resumed without executing
+ * the finished iterations again. A checkpoint is saved in &lt;json-filename&gt;.checkpoint and contains the parameters
+ * of the run, the index of the next iteration, the minima and the Pareto front so far and the number of
+ * (uncompressed) bytes of the json file that contain the finished iterations. As the optimization steps of an
+ * iteration only depend on the seed and its index, this is all that is needed to continue the run.
+ * When a run is resumed, the finished part of the json file is copied into a second file that the run continues to
+ * write. The checkpoint always refers to the file the run writes, and the json file is replaced by it at the end.
+ * A run that is stopped early keeps its last checkpoint, so it can be continued later.
+ */
+class FuzzingCheckpoint {
+    private final String jsonFileName;
+    private final String outputFileName;
+    private final int interval;
+    private final JsonObject runParameters;
+    private final JsonObject resumed;
+    private final CountingOutputStream output;
+    private int iterationsSinceCheckpoint = 0;
+    private boolean saved = false;
+    private boolean stoppedEarly = false;
+
+    private FuzzingCheckpoint(String jsonFileName, String outputFileName, int interval, JsonObject runParameters,
+                              JsonObject resumed, CountingOutputStream output) {
+        this.jsonFileName = jsonFileName;
+        this.outputFileName = outputFileName;
+        this.interval = interval;
+        this.runParameters = runParameters;
+        this.resumed = resumed;
+        this.output = output;
+    }
+
+    /**
+     * Starts a new run.
+     * @param jsonFileName The name of the json file of the run.
+     * @param interval The number of iterations between two checkpoints. No checkpoints are saved if it is not
+     *                 positive.
+     * @param runParameters The parameters of the run that are written at the start of the json file.
+     * @return The checkpoints of the run.
+     * @throws IOException If the json file cannot be opened.
+     */
+    static FuzzingCheckpoint start(String jsonFileName, int interval, JsonObject runParameters) throws IOException {
+        return new FuzzingCheckpoint(jsonFileName, jsonFileName, interval, runParameters, null,
+                new CountingOutputStream(JsonFiles.newOutputStream(jsonFileName), 0));
+    }
+
+    /**
+     * Resumes a run from its last checkpoint. The finished part of the json file is copied into the file the
+     * resumed run writes.
+     * @param jsonFileName The name of the json file of the run.
+     * @param interval The number of iterations between two checkpoints. No checkpoints are saved if it is not
+     *                 positive.
+     * @return The checkpoints of the resumed run.
+     * @throws IOException If the checkpoint or the json file cannot be read.
+     */
+    static FuzzingCheckpoint resume(String jsonFileName, int interval) throws IOException {
+        JsonObject checkpoint = read(jsonFileName);
+        String previousOutput = checkpoint.getString("OutputFile");
+        String outputFileName = previousOutput.equals(jsonFileName) ? getResumeFileName(jsonFileName) : jsonFileName;
+        long offset = checkpoint.getJsonNumber("Offset").longValue();
+        OutputStream os = JsonFiles.newOutputStream(outputFileName);
+        try (InputStream is = JsonFiles.newInputStream(previousOutput)) {
+            byte[] buffer = new byte[1 << 16];
+            long remaining = offset;
+            while(remaining > 0) {
+                int read = is.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if(read < 0) {
+                    os.close();
+                    throw new IOException(previousOutput + " is shorter than its checkpoint.");
+                }
+                os.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+        // The generator of the resumed run starts a new object, its opening brace separates the next member instead
+        return new FuzzingCheckpoint(jsonFileName, outputFileName, interval,
+                checkpoint.getJsonObject("RunParameters"), checkpoint,
+                new CountingOutputStream(new FirstByteReplacingOutputStream(os, '{', ','), offset));
+    }
+
+    private static String getResumeFileName(String jsonFileName) {
+        Path path = Paths.get(jsonFileName);
+        return path.resolveSibling("resumed_" + path.getFileName()).toString();
+    }
+
+    /**
+     * Reads the last checkpoint of a run.
+     * @param jsonFileName The name of the json file of the run.
+     * @return The checkpoint.
+     * @throws IOException If there is no checkpoint or it cannot be read.
+     */
+    static JsonObject read(String jsonFileName) throws IOException {
+        try (InputStream is = new FileInputStream(getFileName(jsonFileName));
+             JsonReader jsonReader = Json.createReader(is)) {
+            return jsonReader.readObject();
+        }
+    }
+
+    /**
+     * @param jsonFileName The name of the json file of a run.
+     * @return The name of the checkpoint file of the run.
+     */
+    static String getFileName(String jsonFileName) {
+        return jsonFileName + ".checkpoint";
+    }
+
+    /**
+     * @return The stream to write the json file with.
+     */
+    OutputStream getOutputStream() {
+        return output;
+    }
+
+    /**
+     * @return The last checkpoint if the run is resumed, null if it is a new run.
+     */
+    JsonObject getResumed() {
+        return resumed;
+    }
+
+    /**
+     * Saves a checkpoint if enough iterations were written since the last one.
+     * @param generator The generator that writes the json file. It is flushed before the checkpoint is saved.
+     * @param nextIteration The index of the next iteration.
+     * @param original The metrics of the original program, as written at the start of the json file.
+     * @param minima The minima so far.
+     * @param paretoFront The Pareto front so far.
+     */
+    void iterationWritten(JsonGenerator generator, int nextIteration, JsonObject original, FuzzingMinima minima,
+                          ParetoFront paretoFront) {
+        iterationsSinceCheckpoint++;
+        if(interval <= 0 || iterationsSinceCheckpoint < interval) {
+            return;
+        }
+        iterationsSinceCheckpoint = 0;
+        generator.flush();
+        JsonObjectBuilder checkpoint = Json.createObjectBuilder();
+        checkpoint.add("RunParameters", runParameters);
+        checkpoint.add("OutputFile", outputFileName);
+        checkpoint.add("Offset", output.getCount());
+        checkpoint.add("NextIteration", nextIteration);
+        original.forEach(checkpoint::add);
+        minima.addToJson(checkpoint);
+        paretoFront.addToJson(checkpoint);
+        try {
+            write(checkpoint.build());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        saved = true;
+    }
+
+    private void write(JsonObject checkpoint) throws IOException {
+        Path file = Paths.get(getFileName(jsonFileName));
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream os = new BufferedOutputStream(new FileOutputStream(temporary.toFile()));
+             JsonWriter jsonWriter = Json.createWriter(os)) {
+            jsonWriter.writeObject(checkpoint);
+        }
+        FileUtils.moveReplacing(temporary, file);
+    }
+
+    /**
+     * Keeps the last checkpoint when the run is finished, because the run was stopped before all iterations were
+     * executed.
+     */
+    void runStoppedEarly() {
+        stoppedEarly = true;
+    }
+
+    /**
+     * Finishes the run after the json file is closed: moves it to its final name and deletes the file of an earlier
+     * resumed run. The checkpoint is deleted unless the run was stopped early.
+     * @throws IOException If the file cannot be moved.
+     */
+    void finish() throws IOException {
+        if(!outputFileName.equals(jsonFileName)) {
+            Files.move(Paths.get(outputFileName), Paths.get(jsonFileName), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.deleteIfExists(Paths.get(getResumeFileName(jsonFileName)));
+        if(!stoppedEarly) {
+            Files.deleteIfExists(Paths.get(getFileName(jsonFileName)));
+        } else if(saved && !outputFileName.equals(jsonFileName)) {
+            // The file the checkpoint refers to has been moved
+            JsonObjectBuilder checkpoint = Json.createObjectBuilder();
+            read(jsonFileName).forEach(checkpoint::add);
+            checkpoint.add("OutputFile", jsonFileName);
+            write(checkpoint.build());
+        }
+    }
+
+    /**
+     * Counts the bytes written through it.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out, long count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        private long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Replaces the first byte written through it.
+     */
+    private static class FirstByteReplacingOutputStream extends FilterOutputStream {
+        private final int expected;
+        private final int replacement;
+        private boolean first = true;
+
+        private FirstByteReplacingOutputStream(OutputStream out, int expected, int replacement) {
+            super(out);
+            this.expected = expected;
+            this.replacement = replacement;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if(first && len > 0) {
+                if(b[off] != expected) {
+                    throw new IOException("Unexpected start of the resumed json output.");
+                }
+                first = false;
+                out.write(replacement);
+                off++;
+                len--;
+            }
+            out.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import de.hhu.lirem101.quil_optimizer.search.Objective;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.stream.JsonGenerator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of the minimal metrics found while fuzzing optimizations and the iterations they were found in. An index
+ * of -1 means that no iteration improved the metric of the original program. If several iterations reach the same
+ * minimum, the first one is kept.
+ */
+class FuzzingMinima {
+    private int minNumberOfInstructions;
+    private int minimumInstructionsIndex = -1;
+    private int minQuantumInstructions;
+    private int minimumQuantumInstructionsIndex = -1;
+    private int minQuantumCalculationTime;
+    private int minimumQuantumCalculationTimeIndex = -1;
+    private int minWallTime;
+    private int minimumWallTimeIndex = -1;
+
+    /**
+     * Constructor for the FuzzingMinima class, initialized with the metrics of the original program.
+     * @param numberOfInstructions The number of instructions of the original program.
+     * @param quantumInstructions The number of quantum instructions of the original program.
+     * @param quantumCalculationTime The quantum calculation time of the original program.
+     * @param wallTime The wall time of the original program.
+     */
+    FuzzingMinima(int numberOfInstructions, int quantumInstructions, int quantumCalculationTime, int wallTime) {
+        this.minNumberOfInstructions = numberOfInstructions;
+        this.minQuantumInstructions = quantumInstructions;
+        this.minQuantumCalculationTime = quantumCalculationTime;
+        this.minWallTime = wallTime;
+    }
+
+    /**
+     * Creates the minima of the original program from the original metrics of a fuzzing result.
+     * @param result The fuzzing result.
+     * @return The minima of the original program.
+     */
+    static FuzzingMinima ofOriginal(JsonObject result) {
+        return new FuzzingMinima(sum(result.getJsonArray("OriginalNumberOfInstructions")),
+                sum(result.getJsonArray("OriginalNumberOfQuantumInstructions")),
+                result.getInt("OriginalQuantumCalculationTime"),
+                sum(result.getJsonArray("OriginalWallTime")));
+    }
+
+    static int sum(JsonArray array) {
+        int sum = 0;
+        for(int i = 0; i < array.size(); i++) {
+            sum += array.getInt(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Updates the minima with the metrics of an iteration. The iterations have to be given in ascending order. A
+     * metric that is null, because the iteration failed before it was calculated, is ignored.
+     * @param index The index of the iteration.
+     * @param numberOfInstructions The number of instructions after the iteration.
+     * @param quantumInstructions The number of quantum instructions after the iteration.
+     * @param quantumCalculationTime The quantum calculation time after the iteration.
+     * @param wallTime The wall time after the iteration.
+     * @return The metrics the iteration improved.
+     */
+    List<Objective> update(int index, Integer numberOfInstructions, Integer quantumInstructions,
+                           Integer quantumCalculationTime, Integer wallTime) {
+        List<Objective> improved = new ArrayList<>();
+        if(numberOfInstructions != null && numberOfInstructions < minNumberOfInstructions) {
+            minNumberOfInstructions = numberOfInstructions;
+            minimumInstructionsIndex = index;
+            improved.add(Objective.NUMBER_OF_INSTRUCTIONS);
+        }
+        if(quantumInstructions != null && quantumInstructions < minQuantumInstructions) {
+            minQuantumInstructions = quantumInstructions;
+            minimumQuantumInstructionsIndex = index;
+            improved.add(Objective.NUMBER_OF_QUANTUM_INSTRUCTIONS);
+        }
+        if(quantumCalculationTime != null && quantumCalculationTime < minQuantumCalculationTime) {
+            minQuantumCalculationTime = quantumCalculationTime;
+            minimumQuantumCalculationTimeIndex = index;
+            improved.add(Objective.QUANTUM_CALCULATION_TIME);
+        }
+        if(wallTime != null && wallTime < minWallTime) {
+            minWallTime = wallTime;
+            minimumWallTimeIndex = index;
+            improved.add(Objective.WALL_TIME);
+        }
+        return improved;
+    }
+
+    /**
+     * Updates the minima with the minima of a fuzzing result that covers later iterations than all results this
+     * object has been updated with so far.
+     * @param result The fuzzing result.
+     */
+    void update(JsonObject result) {
+        if(result.getInt("MinimumInstructionsIndex") != -1) {
+            update(result.getInt("MinimumInstructionsIndex"), result.getInt("MinimumNumberOfInstructions"), null, null, null);
+        }
+        if(result.getInt("MinimumQuantumInstructionsIndex") != -1) {
+            update(result.getInt("MinimumQuantumInstructionsIndex"), null, result.getInt("MinimumNumberOfQuantumInstructions"), null, null);
+        }
+        if(result.getInt("MinimumQuantumCalculationTimeIndex") != -1) {
+            update(result.getInt("MinimumQuantumCalculationTimeIndex"), null, null, result.getInt("MinimumQuantumCalculationTime"), null);
+        }
+        if(result.getInt("MinimumWallTimeIndex") != -1) {
+            update(result.getInt("MinimumWallTimeIndex"), null, null, null, result.getInt("MinimumWallTime"));
+        }
+    }
+
+    /**
+     * Adds the minima and their indices to a JsonObjectBuilder.
+     * @param result The JsonObjectBuilder to add the minima to.
+     */
+    void addToJson(JsonObjectBuilder result) {
+        result.add("MinimumInstructionsIndex", minimumInstructionsIndex);
+        result.add("MinimumNumberOfInstructions", minNumberOfInstructions);
+
+        result.add("MinimumQuantumInstructionsIndex", minimumQuantumInstructionsIndex);
+        result.add("MinimumNumberOfQuantumInstructions", minQuantumInstructions);
+
+        result.add("MinimumQuantumCalculationTimeIndex", minimumQuantumCalculationTimeIndex);
+        result.add("MinimumQuantumCalculationTime", minQuantumCalculationTime);
+
+        result.add("MinimumWallTimeIndex", minimumWallTimeIndex);
+        result.add("MinimumWallTime", minWallTime);
+    }
+
+    /**
+     * Writes the minima and their indices into the current object of a JsonGenerator.
+     * @param generator The JsonGenerator to write the minima with.
+     */
+    void writeToJson(JsonGenerator generator) {
+        generator.write("MinimumInstructionsIndex", minimumInstructionsIndex);
+        generator.write("MinimumNumberOfInstructions", minNumberOfInstructions);
+
+        generator.write("MinimumQuantumInstructionsIndex", minimumQuantumInstructionsIndex);
+        generator.write("MinimumNumberOfQuantumInstructions", minQuantumInstructions);
+
+        generator.write("MinimumQuantumCalculationTimeIndex", minimumQuantumCalculationTimeIndex);
+        generator.write("MinimumQuantumCalculationTime", minQuantumCalculationTime);
+
+        generator.write("MinimumWallTimeIndex", minimumWallTimeIndex);
+        generator.write("MinimumWallTime", minWallTime);
+    }
+
+    /**
+     * Prints the minima and their indices.
+     */
+    void print() {
+        System.out.println("Minimum number of instructions: " + minNumberOfInstructions + " in iteration " + minimumInstructionsIndex);
+        System.out.println("Minimum number of quantum instructions: " + minQuantumInstructions + " in iteration " + minimumQuantumInstructionsIndex);
+        System.out.println("Minimum quantum calculation time: " + minQuantumCalculationTime + " in iteration " + minimumQuantumCalculationTimeIndex);
+        System.out.println("Minimum wall time: " + minWallTime + " in iteration " + minimumWallTimeIndex);
+    }
+}
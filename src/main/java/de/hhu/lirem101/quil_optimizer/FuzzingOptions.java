@@ -0,0 +1,288 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import de.hhu.lirem101.quil_analyser.LineType;
+import de.hhu.lirem101.quil_optimizer.search.BanditSampling;
+import de.hhu.lirem101.quil_optimizer.search.BanditStatistics;
+import de.hhu.lirem101.quil_optimizer.search.BeamSearch;
+import de.hhu.lirem101.quil_optimizer.search.Objective;
+import de.hhu.lirem101.quil_optimizer.search.SearchStrategy;
+import de.hhu.lirem101.quil_optimizer.search.SimulatedAnnealing;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The options of a fuzzing run or search, see OptimizingQuil.fuzzOptimization and OptimizingQuil.searchOptimization.
+ * Every option has a default value, the setters return the options, so they can be chained. Which options a run uses
+ * is described at the method that starts it.
+ */
+public class FuzzingOptions {
+    private int iterations = 500;
+    private int numberOfOptimizations = 50;
+    private long seed = new Random().nextLong();
+    private int shard = 1;
+    private int shardCount = 1;
+    private boolean gzip = false;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long memoryBudget = OptimizingQuil.DEFAULT_MEMORY_BUDGET;
+    private String search = "random";
+    private Objective objective = Objective.WALL_TIME;
+    private int beamWidth = 0;
+    private BanditStatistics banditStatistics = new BanditStatistics();
+    private StoppingCriterion stoppingCriterion = StoppingCriterion.NONE;
+    private int checkpointInterval = 0;
+    private boolean resume = false;
+    private Verbosity verbosity = Verbosity.FULL;
+
+    /**
+     * @param iterations The number of iterations of all shards together, or the maximal number of sequences a search
+     *                   evaluates. The default is 500.
+     * @return These options.
+     */
+    public FuzzingOptions setIterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+
+    /**
+     * @param numberOfOptimizations The number of optimizations to apply in one iteration, or the maximal number of
+     *                              optimizations in a sequence of a search. The default is 50.
+     * @return These options.
+     */
+    public FuzzingOptions setNumberOfOptimizations(int numberOfOptimizations) {
+        this.numberOfOptimizations = numberOfOptimizations;
+        return this;
+    }
+
+    /**
+     * @param seed The seed the optimization steps are drawn with. The default is a random seed.
+     * @return These options.
+     */
+    public FuzzingOptions setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * @param shard The shard to run, from 1 to shardCount.
+     * @param shardCount The number of shards the iterations are split into. The default is a single shard.
+     * @return These options.
+     */
+    public FuzzingOptions setShard(int shard, int shardCount) {
+        this.shard = shard;
+        this.shardCount = shardCount;
+        return this;
+    }
+
+    /**
+     * @param gzip True if the json file should be compressed. The default is false.
+     * @return These options.
+     */
+    public FuzzingOptions setGzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    /**
+     * @param threads The number of iterations that are executed at the same time. The default is the number of
+     *                available processors.
+     * @return These options.
+     */
+    public FuzzingOptions setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * @param memoryBudget The estimated memory in bytes that may be used to memoize the states after shared prefixes
+     *                     of the optimization step sequences. Nothing is memoized if it is not positive. The default
+     *                     is DEFAULT_MEMORY_BUDGET.
+     * @return These options.
+     */
+    public FuzzingOptions setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    /**
+     * @param search The search strategy, random, beam, annealing or bandit. The default is random, i.e. fuzzing.
+     * @return These options.
+     */
+    public FuzzingOptions setSearch(String search) {
+        this.search = search;
+        return this;
+    }
+
+    /**
+     * @param objective The metric the search strategies minimize. The default is the wall time.
+     * @return These options.
+     */
+    public FuzzingOptions setObjective(Objective objective) {
+        this.objective = objective;
+        return this;
+    }
+
+    /**
+     * @param beamWidth The beam width of the beam search. The default width is derived from the number of iterations
+     *                  if it is not positive.
+     * @return These options.
+     */
+    public FuzzingOptions setBeamWidth(int beamWidth) {
+        this.beamWidth = beamWidth;
+        return this;
+    }
+
+    /**
+     * @param banditStatistics The statistics the bandit sampling learns from and updates. The default statistics are
+     *                         empty.
+     * @return These options.
+     */
+    public FuzzingOptions setBanditStatistics(BanditStatistics banditStatistics) {
+        this.banditStatistics = banditStatistics;
+        return this;
+    }
+
+    /**
+     * @param stoppingCriterion Decides whether the run is stopped before all iterations are executed. A shard that is
+     *                          stopped early cannot be merged. The default never stops a run early.
+     * @return These options.
+     */
+    public FuzzingOptions setStoppingCriterion(StoppingCriterion stoppingCriterion) {
+        this.stoppingCriterion = stoppingCriterion;
+        return this;
+    }
+
+    /**
+     * @param checkpointInterval The number of iterations between two checkpoints the run can be resumed from with
+     *                           resumeFuzzing. No checkpoints are saved if it is not positive, which is the default.
+     * @return These options.
+     */
+    public FuzzingOptions setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+        return this;
+    }
+
+    /**
+     * @param resume True if the run should be resumed from its checkpoint, if it has one. The default is false.
+     * @return These options.
+     */
+    public FuzzingOptions setResume(boolean resume) {
+        this.resume = resume;
+        return this;
+    }
+
+    /**
+     * @param verbosity How much of every iteration is written into the json file. The default is everything.
+     * @return These options.
+     */
+    public FuzzingOptions setVerbosity(Verbosity verbosity) {
+        this.verbosity = verbosity;
+        return this;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public int getNumberOfOptimizations() {
+        return numberOfOptimizations;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public BanditStatistics getBanditStatistics() {
+        return banditStatistics;
+    }
+
+    public StoppingCriterion getStoppingCriterion() {
+        return stoppingCriterion;
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public Verbosity getVerbosity() {
+        return verbosity;
+    }
+
+    /**
+     * Creates the search strategy for one program. Strategies keep state, so every program gets its own.
+     * @param classes A map with the line number as key and the line type as value.
+     * @return The search strategy, or null if the optimization steps are drawn randomly.
+     */
+    public SearchStrategy createSearchStrategy(Map<Integer, LineType> classes) {
+        List<List<String>> routines = OptimizingQuil.OPTIMIZATION_ROUTINES;
+        int maxRoutines = numberOfOptimizations / 2;
+        switch(search) {
+            case "beam":
+                int width = beamWidth > 0 ? beamWidth
+                        : BeamSearch.defaultBeamWidth(routines.size(), maxRoutines, iterations);
+                return new BeamSearch(routines, maxRoutines, width, iterations, objective);
+            case "annealing":
+                return new SimulatedAnnealing(routines, maxRoutines, iterations, objective, seed);
+            case "bandit":
+                return new BanditSampling(routines, maxRoutines, iterations, objective, seed, banditStatistics,
+                        BanditStatistics.getContext(classes, objective));
+            default:
+                return null;
+        }
+    }
+}
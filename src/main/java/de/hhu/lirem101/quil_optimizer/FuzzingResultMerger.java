@@ -0,0 +1,150 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import javax.json.*;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Merges the json files of the shards of a fuzzing run into the json file of a single run with the same seed. Files
+ * whose name ends with .gz are read and written gzip-compressed.
+ * Usage: FuzzingResultMerger &lt;merged-json-file&gt; &lt;shard-json-files&gt;
+ */
+public class FuzzingResultMerger {
+
+    private static final String[] RUN_KEYS = {"Seed", "Strategy", "Iterations", "NumberOfOptimizations", "ShardCount",
+            "OriginalNumberOfInstructions", "OriginalWallTime", "OriginalNumberOfQuantumInstructions",
+            "OriginalQuantumCalculationTime", "Encoding", "OriginalProgram", "Verbosity"};
+
+    private FuzzingResultMerger() {
+    }
+
+    /**
+     * Merges the results of all shards of a fuzzing run.
+     * @param shards The results of the shards, in any order.
+     * @return The result of the whole fuzzing run.
+     */
+    public static JsonObject merge(List<JsonObject> shards) {
+        if(shards.isEmpty()) {
+            throw new IllegalArgumentException("No shards to merge.");
+        }
+        List<JsonObject> sortedShards = new ArrayList<>(shards);
+        sortedShards.sort(Comparator.comparingInt(x -> x.getInt("Shard")));
+        JsonObject first = sortedShards.get(0);
+        int shardCount = first.getInt("ShardCount");
+        int iterations = first.getInt("Iterations");
+        for(int i = 0; i < sortedShards.size(); i++) {
+            JsonObject shard = sortedShards.get(i);
+            for(String key : RUN_KEYS) {
+                if(!Objects.equals(first.get(key), shard.get(key))) {
+                    throw new IllegalArgumentException("Shards belong to different fuzzing runs, " + key + " differs.");
+                }
+            }
+            if(shard.getInt("Shard") != i + 1) {
+                throw new IllegalArgumentException("Shard " + (i + 1) + "/" + shardCount + " is missing or duplicated.");
+            }
+        }
+        if(sortedShards.size() != shardCount) {
+            throw new IllegalArgumentException("Expected " + shardCount + " shards, got " + sortedShards.size() + ".");
+        }
+
+        JsonObjectBuilder result = Json.createObjectBuilder();
+        result.add("Seed", first.getJsonNumber("Seed"));
+        // Files written before search strategies were introduced have no strategy
+        if(first.containsKey("Strategy")) {
+            result.add("Strategy", first.getString("Strategy"));
+        }
+        result.add("Iterations", iterations);
+        result.add("NumberOfOptimizations", first.getInt("NumberOfOptimizations"));
+        result.add("Shard", 1);
+        result.add("ShardCount", 1);
+        result.add("OriginalNumberOfInstructions", first.getJsonArray("OriginalNumberOfInstructions"));
+        result.add("OriginalWallTime", first.getJsonArray("OriginalWallTime"));
+        result.add("OriginalNumberOfQuantumInstructions", first.getJsonArray("OriginalNumberOfQuantumInstructions"));
+        result.add("OriginalQuantumCalculationTime", first.getInt("OriginalQuantumCalculationTime"));
+        // Only delta encoded files contain the encoding and the original program
+        if(first.containsKey("Encoding")) {
+            result.add("Encoding", first.getString("Encoding"));
+            result.add("OriginalProgram", first.getJsonArray("OriginalProgram"));
+        }
+        if(first.containsKey("Verbosity")) {
+            result.add("Verbosity", first.getString("Verbosity"));
+        }
+
+        FuzzingMinima minima = FuzzingMinima.ofOriginal(first);
+        ParetoFront paretoFront = ParetoFront.ofOriginal(first);
+        for(JsonObject shard : sortedShards) {
+            int shardIndex = shard.getInt("Shard");
+            int firstIteration = (int) ((long) iterations * (shardIndex - 1) / shardCount);
+            int lastIteration = (int) ((long) iterations * shardIndex / shardCount);
+            for(int i = firstIteration; i < lastIteration; i++) {
+                JsonObject iteration = shard.getJsonObject("Iteration" + i);
+                if(iteration == null) {
+                    throw new IllegalArgumentException("Iteration " + i + " is missing in shard " + shardIndex + ".");
+                }
+                result.add("Iteration" + i, iteration);
+            }
+            minima.update(shard);
+            paretoFront.add(shard);
+        }
+        minima.addToJson(result);
+        minima.print();
+        // Files written before the Pareto front was introduced have none
+        if(first.containsKey("ParetoFront")) {
+            paretoFront.addToJson(result);
+            paretoFront.print();
+        }
+        return result.build();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: FuzzingResultMerger <merged-json-file> <shard-json-files>");
+            return;
+        }
+        List<JsonObject> shards = new ArrayList<>();
+        for(int i = 1; i < args.length; i++) {
+            try (InputStream is = JsonFiles.newInputStream(args[i]);
+                 JsonReader jsonReader = Json.createReader(is)) {
+                shards.add(jsonReader.readObject());
+            }
+        }
+        JsonObject result = merge(shards);
+        try (OutputStream os = JsonFiles.newOutputStream(args[0]);
+             JsonWriter jsonWriter = Json.createWriter(os)) {
+            jsonWriter.writeObject(result);
+        }
+    }
+}
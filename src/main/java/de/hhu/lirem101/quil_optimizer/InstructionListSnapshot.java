@@ -0,0 +1,134 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An immutable snapshot of instruction lists in the form they are written to the json results, i.e. one array of
+ * "LineNumber: LineContent" per non-empty list. The transformations report which lists they changed, and a new
+ * snapshot only looks at these lists and shares the arrays of all other lists with the previous snapshot, so the
+ * snapshots written after the optimization steps cost time and memory only for the changed lists. As the arrays are
+ * immutable, snapshots can be shared between copies of an OptimizingQuil object and between the memoized results of
+ * the optimization steps.
+ */
+final class InstructionListSnapshot {
+    static final InstructionListSnapshot EMPTY = new InstructionListSnapshot(Collections.emptyList());
+
+    private final List<Block> blocks;
+
+    private InstructionListSnapshot(List<Block> blocks) {
+        this.blocks = blocks;
+    }
+
+    /**
+     * Create a snapshot of the current state of instruction lists. The arrays of the lists that did not change since
+     * this snapshot was taken are reused. A changed list is compared to the list with the same index in this snapshot,
+     * and its array is reused as well if the line numbers and texts of its instructions are still the same, e.g. after
+     * a re-ordering that kept the order.
+     * @param instructions The instruction lists.
+     * @param changedLists The indices of the lists that may have changed since this snapshot was taken. Lists without
+     *                     a counterpart in this snapshot are always taken.
+     * @return The snapshot, this snapshot if no list changed.
+     */
+    InstructionListSnapshot update(ArrayList<ArrayList<InstructionNode>> instructions, BitSet changedLists) {
+        if(instructions.size() == blocks.size() && changedLists.isEmpty()) {
+            return this;
+        }
+        List<Block> updated = new ArrayList<>(blocks.subList(0, Math.min(blocks.size(), instructions.size())));
+        boolean changed = instructions.size() != blocks.size();
+        for(int i = changedLists.nextSetBit(0); i >= 0 && i < updated.size(); i = changedLists.nextSetBit(i + 1)) {
+            ArrayList<InstructionNode> instructionList = instructions.get(i);
+            if(!updated.get(i).matches(instructionList)) {
+                updated.set(i, new Block(instructionList));
+                changed = true;
+            }
+        }
+        for(int i = updated.size(); i < instructions.size(); i++) {
+            updated.add(new Block(instructions.get(i)));
+        }
+        return changed ? new InstructionListSnapshot(Collections.unmodifiableList(updated)) : this;
+    }
+
+    /**
+     * Adds the arrays of the non-empty instruction lists to a json array.
+     * @param json The json array builder to add the arrays to.
+     */
+    void addToJson(JsonArrayBuilder json) {
+        for(Block block : blocks) {
+            if(block.lines.length > 0) {
+                json.add(block.json);
+            }
+        }
+    }
+
+    /**
+     * The snapshot of one instruction list.
+     */
+    private static final class Block {
+        private final int[] lines;
+        private final String[] texts;
+        private final JsonArray json;
+
+        private Block(ArrayList<InstructionNode> instructionList) {
+            lines = new int[instructionList.size()];
+            texts = new String[instructionList.size()];
+            JsonArrayBuilder builder = Json.createArrayBuilder();
+            for(int i = 0; i < instructionList.size(); i++) {
+                InstructionNode node = instructionList.get(i);
+                lines[i] = node.getLine();
+                texts[i] = node.getLineText();
+                builder.add(node.getLine() + ": " + node.getLineText());
+            }
+            json = builder.build();
+        }
+
+        private boolean matches(ArrayList<InstructionNode> instructionList) {
+            if(instructionList.size() != lines.length) {
+                return false;
+            }
+            for(int i = 0; i < lines.length; i++) {
+                InstructionNode node = instructionList.get(i);
+                if(node.getLine() != lines[i] || !Objects.equals(node.getLineText(), texts[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -32,13 +32,18 @@ package de.hhu.lirem101.quil_optimizer;
 
 import de.hhu.lirem101.quil_analyser.DirectedGraphNode;
 import de.hhu.lirem101.quil_analyser.LineType;
+import de.hhu.lirem101.quil_analyser.MemoryAccess;
+import de.hhu.lirem101.quil_analyser.MemoryRegion;
 import de.hhu.lirem101.quil_optimizer.quil_variable.ClassicalUsage;
 import de.hhu.lirem101.quil_optimizer.quil_variable.ClassicalVariable;
 import de.hhu.lirem101.quil_optimizer.quil_variable.QuantumVariable;
+import de.hhu.lirem101.quil_optimizer.quil_variable.SymbolTable;
+import de.hhu.lirem101.quil_optimizer.quil_variable.Variable;
 import de.hhu.lirem101.quil_optimizer.quil_variable.VariableCalculator;
 import org.snt.inmemantlr.tree.ParseTreeNode;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class InstructionNode implements DirectedGraphNode<InstructionNode> {
@@ -53,6 +58,27 @@ public class InstructionNode implements DirectedGraphNode<InstructionNode> {
             copy.next.addAll(next);
             return copy;
         }
+
+        private void addToStateHash(ProgramStateHasher hasher, Map<InstructionNode, Integer> indices) {
+            addToStateHash(hasher, indices, previous);
+            addToStateHash(hasher, indices, next);
+        }
+
+        private static void addToStateHash(ProgramStateHasher hasher, Map<InstructionNode, Integer> indices,
+                                           ArrayList<InstructionNode> instructions) {
+            hasher.add(instructions.size());
+            for (InstructionNode instruction : instructions) {
+                Integer index = indices.get(instruction);
+                hasher.add(index == null ? -1 - instruction.line : index);
+            }
+        }
+
+        private ConnectedInstructions copyConnections(Map<InstructionNode, InstructionNode> copies) {
+            ConnectedInstructions copy = new ConnectedInstructions();
+            previous.forEach(x -> copy.previous.add(copies.get(x)));
+            next.forEach(x -> copy.next.add(copies.get(x)));
+            return copy;
+        }
     }
 
     private final int line;
@@ -61,8 +87,10 @@ public class InstructionNode implements DirectedGraphNode<InstructionNode> {
     private ParseTreeNode ptNode;
     private ParseTreeNode originalPtNode;
     private boolean shownToBeDead = false;
-    private final Map<QuantumVariable, ConnectedInstructions> quantumParameters = new HashMap<>();
-    private final Map<ClassicalVariable, ConnectedInstructions> classicalParameters = new HashMap<>();
+    private MemoryRegion memoryRegion = null;
+    private MemoryAccess memoryAccess = null;
+    private final Map<QuantumVariable, ConnectedInstructions> quantumParameters = new LinkedHashMap<>();
+    private final Map<ClassicalVariable, ConnectedInstructions> classicalParameters = new LinkedHashMap<>();
 
     public InstructionNode(int line, LineType type) {
         this.line = line;
@@ -79,7 +107,7 @@ public class InstructionNode implements DirectedGraphNode<InstructionNode> {
                 .values()
                 .stream()
                 .flatMap(x -> x.previous.stream())
-                .collect(Collectors.toSet());
+                .collect(Collectors.toCollection(LinkedHashSet::new));
         branches.addAll(classicalParameters
                 .values()
                 .stream()
@@ -142,12 +170,27 @@ public class InstructionNode implements DirectedGraphNode<InstructionNode> {
         return new ArrayList<>(classicalParameters.keySet());
     }
 
-    private QuantumVariable getQuantumVariable(String name) {
-        return quantumParameters.keySet().stream().filter(x -> x.getName().equals(name)).findFirst().orElse(null);
+    /**
+     * Returns the memory region declared by this instruction or null if it is no DECLARE instruction.
+     */
+    public MemoryRegion getMemoryRegion() {
+        return memoryRegion;
     }
 
-    private ClassicalVariable getClassicalVariable(String name) {
-        return classicalParameters.keySet().stream().filter(x -> x.getName().equals(name)).findFirst().orElse(null);
+    /**
+     * Returns the memory access of this instruction or null if it is no LOAD or STORE instruction.
+     */
+    public MemoryAccess getMemoryAccess() {
+        return memoryAccess;
+    }
+
+    private static <T extends Variable> T getSameVariable(Set<T> variables, Variable variable) {
+        for (T var : variables) {
+            if (var.isSameVariable(variable)) {
+                return var;
+            }
+        }
+        return null;
     }
 
     /**
@@ -159,7 +202,7 @@ public class InstructionNode implements DirectedGraphNode<InstructionNode> {
                 .values()
                 .stream()
                 .flatMap(x -> x.next.stream())
-                .collect(Collectors.toSet());
+                .collect(Collectors.toCollection(LinkedHashSet::new));
         branches.addAll(classicalParameters
                 .values()
                 .stream()
@@ -193,73 +236,132 @@ public class InstructionNode implements DirectedGraphNode<InstructionNode> {
         for (ClassicalVariable cv : classicalVariables) {
             classicalParameters.put(cv, new ConnectedInstructions());
         }
+        if (vc.getMemoryRegion() != null) {
+            memoryRegion = vc.getMemoryRegion();
+        }
+        if (vc.getMemoryAccess() != null) {
+            memoryAccess = vc.getMemoryAccess();
+        }
     }
 
     /**
-     * Sets the previous instruction node and the next instruction node for the given parameters. On the previous
-     * instruction node, the next instruction node is set to this instruction node.
-     * Changes the previous parameters such that it can be given to the next node.
-     * @param previousParameters The previous instruction nodes.
+     * Adds the elements of the memory region declared by this instruction that are referenced by the program as its
+     * parameters, ordered by their index. Elements that are never referenced do not get a parameter, so the size of
+     * the region does not matter. If the region itself is referenced, i.e. it is accessed by a LOAD or STORE, it is
+     * declared as well, see accessMemory. Does nothing if this is no DECLARE instruction.
+     * @param referencedAddresses The addresses referenced by the instructions of the program.
+     * @param symbols The symbol table of the program.
      */
-    public void setParameterLinks(Map<String, InstructionNode> previousParameters) {
-        ArrayList<String> parameters = getParameters();
-        for (String parameter : parameters) {
-            if (!previousParameters.containsKey(parameter)) {
-                // If parameter is not in the previousParameters, add it to previous Parameters
-                previousParameters.put(parameter, this);
-            } else {
-                // If parameter is in the previousParameters, set the next instruction node for the parameter
-                setPreviousInstruction(parameter, previousParameters.get(parameter));
-                setNextInstruction(parameter, previousParameters.get(parameter));
-                previousParameters.put(parameter, this);
+    public void declareReferencedElements(Collection<String> referencedAddresses, SymbolTable symbols) {
+        if (memoryRegion == null) {
+            return;
+        }
+        List<String> declared = memoryRegion.getReferencedElements(referencedAddresses);
+        if (referencedAddresses.contains(memoryRegion.getName())) {
+            declared.add(memoryRegion.getName());
+        }
+        Set<Integer> ids = classicalParameters.keySet().stream().map(symbols::idOf).collect(Collectors.toSet());
+        for (String element : declared) {
+            int id = symbols.intern(element);
+            if (ids.add(id)) {
+                ClassicalVariable variable = new ClassicalVariable(element, ClassicalUsage.DECLARE);
+                variable.setId(id);
+                classicalParameters.put(variable, new ConnectedInstructions());
             }
         }
     }
 
     /**
-     * Sets the previous instruction node for the given parameter.
-     * @param parameter The parameter to set the previous instruction node for.
-     * @param previous The previous instruction node.
+     * Adds the elements of the memory region this LOAD or STORE instruction may access as its parameters. If the index
+     * is known, only the element at the index is accessed: a LOAD uses it and a STORE assigns it. Otherwise, all
+     * elements of the region referenced by the program may be accessed: a LOAD uses all of them and a STORE uses and
+     * assigns all of them, so none of the assignments before the STORE is taken to be overwritten.
+     * An access at an unknown index also uses the region itself, a parameter named like the region, and a STORE at an
+     * unknown index assigns it. This orders these accesses among each other, also if no element of the region is
+     * referenced anywhere else. Accesses at known indices use the region as well if it is referenced, so they are
+     * ordered against the accesses at unknown indices.
+     * @param region The accessed memory region.
+     * @param referencedAddresses The addresses referenced by the program.
+     * @param index The index of the accessed element or -1 if it is not known.
      */
-    private void setPreviousInstruction(String parameter, InstructionNode previous) {
-        QuantumVariable qv = getQuantumVariable(parameter);
-        ClassicalVariable cv = getClassicalVariable(parameter);
-        if (qv != null) {
-            quantumParameters.get(qv).previous.add(previous);
-        } else if (cv != null) {
-            classicalParameters.get(cv).previous.add(previous);
-        } else {
-            throw new IllegalArgumentException("Parameter " + parameter + " not found in instruction " + line);
+    public void accessMemory(MemoryRegion region, Collection<String> referencedAddresses, int index) {
+        if (memoryAccess == null) {
+            return;
+        }
+        if (index >= 0 && index < region.getLength()) {
+            ClassicalUsage usage = memoryAccess.isStore() ? ClassicalUsage.ASSIGNMENT : ClassicalUsage.USAGE;
+            classicalParameters.put(new ClassicalVariable(region.getElementName(index), usage), new ConnectedInstructions());
+            if (referencedAddresses.contains(region.getName())) {
+                classicalParameters.put(new ClassicalVariable(region.getName(), ClassicalUsage.USAGE), new ConnectedInstructions());
+            }
+            return;
+        }
+        classicalParameters.put(new ClassicalVariable(region.getName(), ClassicalUsage.USAGE), new ConnectedInstructions());
+        if (memoryAccess.isStore()) {
+            classicalParameters.put(new ClassicalVariable(region.getName(), ClassicalUsage.ASSIGNMENT), new ConnectedInstructions());
+        }
+        for (String element : region.getReferencedElements(referencedAddresses)) {
+            classicalParameters.put(new ClassicalVariable(element, ClassicalUsage.USAGE), new ConnectedInstructions());
+            if (memoryAccess.isStore()) {
+                classicalParameters.put(new ClassicalVariable(element, ClassicalUsage.ASSIGNMENT), new ConnectedInstructions());
+            }
         }
     }
 
     /**
-     * Sets the next instruction node for the given parameter and previous instruction.
-     * @param parameter The parameter to set the next instruction node for.
-     * @param previous The previous instruction node.
+     * Gives every parameter of the instruction its id in the symbol table.
+     * @param symbols The symbol table of the program.
      */
-    private void setNextInstruction(String parameter, InstructionNode previous) {
-        QuantumVariable qv = getQuantumVariable(parameter);
-        ClassicalVariable cv = getClassicalVariable(parameter);
-        if (qv != null) {
-            QuantumVariable prevQv = previous.getQuantumVariable(parameter);
-            previous.quantumParameters.get(prevQv).next.add(this);
-        } else if (cv != null) {
-            ClassicalVariable prevCv = previous.getClassicalVariable(parameter);
-            previous.classicalParameters.get(prevCv).next.add(this);
-        } else {
-            throw new IllegalArgumentException("Parameter " + parameter + " not found in instruction " + line);
+    public void internParameters(SymbolTable symbols) {
+        quantumParameters.keySet().forEach(symbols::idOf);
+        classicalParameters.keySet().forEach(symbols::idOf);
+    }
+
+    /**
+     * Sets the previous instruction node and the next instruction node for the given parameters. On the previous
+     * instruction node, the next instruction node is set to this instruction node.
+     * Changes the previous parameters such that it can be given to the next node. The last instruction of each
+     * parameter is indexed by the parameter's id, so the parameters must have been interned, see internParameters.
+     * @param previousParameters The previous instruction nodes, indexed by the ids of the parameters.
+     */
+    public void setParameterLinks(InstructionNode[] previousParameters) {
+        for (Map.Entry<QuantumVariable, ConnectedInstructions> entry : quantumParameters.entrySet()) {
+            int id = entry.getKey().getId();
+            InstructionNode previous = previousParameters[id];
+            if (previous == this) {
+                continue;
+            }
+            if (previous != null) {
+                entry.getValue().previous.add(previous);
+                QuantumVariable prevQv = getSameVariable(previous.quantumParameters.keySet(), entry.getKey());
+                previous.quantumParameters.get(prevQv).next.add(this);
+            }
+            previousParameters[id] = this;
+        }
+        for (Map.Entry<ClassicalVariable, ConnectedInstructions> entry : classicalParameters.entrySet()) {
+            int id = entry.getKey().getId();
+            InstructionNode previous = previousParameters[id];
+            if (previous == this) {
+                continue;
+            }
+            if (previous != null) {
+                entry.getValue().previous.add(previous);
+                ClassicalVariable prevCv = getSameVariable(previous.classicalParameters.keySet(), entry.getKey());
+                previous.classicalParameters.get(prevCv).next.add(this);
+            }
+            previousParameters[id] = this;
         }
     }
 
     /**
-     * Calculates if the instruction is dead code. An instruction is dead code if it is not a control structure or
-     * measure structure and:
+     * Calculates if the instruction is dead code. An instruction is dead code if it is not a control structure, memory
+     * declaration or measure structure and:
      * - All its quantum parameters are dead and
      * - All its classical parameters that are not usage type are dead
      */
     public void calculateDeadCode() {
-        if (type == LineType.CONTROL_STRUCTURE || type == LineType.CONTROL_STRUCTURE_INFLUENCED_CLASSICAL || shownToBeDead) {
+        if (type == LineType.CONTROL_STRUCTURE || type == LineType.CONTROL_STRUCTURE_INFLUENCED_CLASSICAL || shownToBeDead
+                || memoryRegion != null) {
             return;
         }
         boolean quantumDead = quantumParameters.keySet().stream().allMatch(QuantumVariable::isShownToBeDead);
@@ -276,30 +378,26 @@ public class InstructionNode implements DirectedGraphNode<InstructionNode> {
      * @return List of previous instructions.
      */
     public Set<InstructionNode> getDependencies() {
-        Set<InstructionNode> dependencies = new HashSet<>();
+        // The instructions in the order they are found, every instruction is only visited once
+        Set<InstructionNode> visited = new LinkedHashSet<>(Collections.singletonList(this));
 
         ArrayList<InstructionNode> dependencyList = new ArrayList<>(Collections.singletonList(this));
         int index = 0;
         while(index < dependencyList.size()) {
             InstructionNode currentNode = dependencyList.get(index);
-            Set<InstructionNode> newDependencies = new HashSet<>();
             Set<QuantumVariable> quantumVariables = currentNode.quantumParameters.keySet();
             Set<ClassicalVariable> classicalVariables = currentNode.classicalParameters.keySet();
 
             for (QuantumVariable qv : quantumVariables) {
-                newDependencies.addAll(currentNode.quantumParameters.get(qv).previous);
+                currentNode.quantumParameters.get(qv).previous.stream().filter(visited::add).forEach(dependencyList::add);
             }
             for (ClassicalVariable cv : classicalVariables) {
-                newDependencies.addAll(currentNode.classicalParameters.get(cv).previous);
+                currentNode.classicalParameters.get(cv).previous.stream().filter(visited::add).forEach(dependencyList::add);
             }
-
-            newDependencies.removeAll(dependencies);
-            dependencyList.addAll(newDependencies);
             index++;
         }
-        dependencyList.remove(this);
-        dependencies.addAll(dependencyList);
-        return dependencies;
+        visited.remove(this);
+        return visited;
     }
 
     /**
@@ -322,12 +420,12 @@ public class InstructionNode implements DirectedGraphNode<InstructionNode> {
         ArrayList<InstructionNode> prevNodes = ci.previous;
         ArrayList<InstructionNode> nextNodes = ci.next;
         for(InstructionNode prevNode : prevNodes){
-            QuantumVariable var = prevNode.getQuantumVariable(qv.getName());
+            QuantumVariable var = getSameVariable(prevNode.quantumParameters.keySet(), qv);
             prevNode.quantumParameters.get(var).next.remove(this);
             prevNode.quantumParameters.get(var).next.addAll(nextNodes);
         }
         for(InstructionNode nextNode : nextNodes){
-            QuantumVariable var = nextNode.getQuantumVariable(qv.getName());
+            QuantumVariable var = getSameVariable(nextNode.quantumParameters.keySet(), qv);
             nextNode.quantumParameters.get(var).previous.remove(this);
             nextNode.quantumParameters.get(var).previous.addAll(prevNodes);
         }
@@ -339,18 +437,136 @@ public class InstructionNode implements DirectedGraphNode<InstructionNode> {
         ArrayList<InstructionNode> prevNodes = ci.previous;
         ArrayList<InstructionNode> nextNodes = ci.next;
         for(InstructionNode prevNode : prevNodes){
-            ClassicalVariable var = prevNode.getClassicalVariable(cv.getName());
+            ClassicalVariable var = getSameVariable(prevNode.classicalParameters.keySet(), cv);
             prevNode.classicalParameters.get(var).next.remove(this);
             prevNode.classicalParameters.get(var).next.addAll(nextNodes);
         }
         for(InstructionNode nextNode : nextNodes){
-            ClassicalVariable var = nextNode.getClassicalVariable(cv.getName());
+            ClassicalVariable var = getSameVariable(nextNode.classicalParameters.keySet(), cv);
             nextNode.classicalParameters.get(var).previous.remove(this);
             nextNode.classicalParameters.get(var).previous.addAll(prevNodes);
         }
         classicalParameters.remove(cv);
     }
 
+    /**
+     * Add the state of the instruction to a hash: its line, type, text, parse tree, whether it is dead and its
+     * parameters with their state and the instructions they are connected to.
+     * @param hasher The hasher to add the state to.
+     * @param indices The indices of the instructions the connections are hashed with. Connected instructions without an
+     *                index are hashed with their line.
+     */
+    void addToStateHash(ProgramStateHasher hasher, Map<InstructionNode, Integer> indices) {
+        hasher.add(line).add(type).add(lineText).add(shownToBeDead);
+        addParseTreeToStateHash(hasher, ptNode);
+        hasher.add(quantumParameters.size());
+        for (Map.Entry<QuantumVariable, ConnectedInstructions> entry : quantumParameters.entrySet()) {
+            QuantumVariable qv = entry.getKey();
+            hasher.add(qv.getName()).add(qv.getUsage()).add(qv.isShownToBeDead())
+                    .add(qv.getCliffordStateBeforeGate()).add(qv.getCliffordStateAfterGate());
+            entry.getValue().addToStateHash(hasher, indices);
+        }
+        hasher.add(classicalParameters.size());
+        for (Map.Entry<ClassicalVariable, ConnectedInstructions> entry : classicalParameters.entrySet()) {
+            ClassicalVariable cv = entry.getKey();
+            hasher.add(cv.getName()).add(cv.getUsage()).add(cv.isShownToBeDead()).add(cv.isConstant());
+            if(cv.isConstant()) {
+                hasher.add(cv.getValue().real()).add(cv.getValue().imag());
+            }
+            entry.getValue().addToStateHash(hasher, indices);
+        }
+    }
+
+    private static void addParseTreeToStateHash(ProgramStateHasher hasher, ParseTreeNode root) {
+        if(root == null) {
+            hasher.add(-1L);
+            return;
+        }
+        ArrayDeque<ParseTreeNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while(!stack.isEmpty()) {
+            ParseTreeNode node = stack.pop();
+            hasher.add(node.getRule()).add(node.getLabel()).add(node.getChildren().size());
+            for(int i = node.getChildren().size() - 1; i >= 0; i--) {
+                stack.push(node.getChildren().get(i));
+            }
+        }
+    }
+
+    /**
+     * Copy instruction nodes together with all instruction nodes they are connected to. The copies are connected to
+     * each other in the same way as the originals, and their variables are independent of the originals.
+     * @param nodes The instruction nodes to copy.
+     * @param parseTreeNodes Maps the parse tree nodes of the originals to the parse tree nodes of the copies.
+     * @return A map from the originals to their copies.
+     */
+    static Map<InstructionNode, InstructionNode> copyInstructions(Collection<InstructionNode> nodes,
+                                                                  Function<ParseTreeNode, ParseTreeNode> parseTreeNodes) {
+        Map<InstructionNode, InstructionNode> copies = new IdentityHashMap<>();
+        ArrayDeque<InstructionNode> queue = new ArrayDeque<>(nodes);
+        ArrayList<InstructionNode> originals = new ArrayList<>();
+        while(!queue.isEmpty()) {
+            InstructionNode node = queue.poll();
+            if(copies.containsKey(node)) {
+                continue;
+            }
+            InstructionNode copy = new InstructionNode(node.line, node.type);
+            copy.lineText = node.lineText;
+            copy.ptNode = parseTreeNodes.apply(node.ptNode);
+            copy.originalPtNode = parseTreeNodes.apply(node.originalPtNode);
+            copy.shownToBeDead = node.shownToBeDead;
+            copy.memoryRegion = node.memoryRegion;
+            copy.memoryAccess = node.memoryAccess;
+            copies.put(node, copy);
+            originals.add(node);
+            for (ConnectedInstructions ci : node.quantumParameters.values()) {
+                queue.addAll(ci.previous);
+                queue.addAll(ci.next);
+            }
+            for (ConnectedInstructions ci : node.classicalParameters.values()) {
+                queue.addAll(ci.previous);
+                queue.addAll(ci.next);
+            }
+        }
+        for (InstructionNode node : originals) {
+            InstructionNode copy = copies.get(node);
+            for (Map.Entry<QuantumVariable, ConnectedInstructions> entry : node.quantumParameters.entrySet()) {
+                copy.quantumParameters.put(entry.getKey().copyQVWithState(), entry.getValue().copyConnections(copies));
+            }
+            for (Map.Entry<ClassicalVariable, ConnectedInstructions> entry : node.classicalParameters.entrySet()) {
+                copy.classicalParameters.put(entry.getKey().copyCV(), entry.getValue().copyConnections(copies));
+            }
+        }
+        return copies;
+    }
+
+    /**
+     * Replace the parse tree nodes of instruction nodes and of all instruction nodes they are connected to.
+     * @param nodes The instruction nodes to replace the parse tree nodes of.
+     * @param parseTreeNodes Maps the current parse tree nodes to the new ones.
+     */
+    static void replaceParseTreeNodes(Collection<InstructionNode> nodes,
+                                      Function<ParseTreeNode, ParseTreeNode> parseTreeNodes) {
+        Set<InstructionNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<InstructionNode> queue = new ArrayDeque<>(nodes);
+        while(!queue.isEmpty()) {
+            InstructionNode node = queue.poll();
+            if(!visited.add(node)) {
+                continue;
+            }
+            node.ptNode = parseTreeNodes.apply(node.ptNode);
+            node.originalPtNode = parseTreeNodes.apply(node.originalPtNode);
+            for (ConnectedInstructions ci : node.quantumParameters.values()) {
+                queue.addAll(ci.previous);
+                queue.addAll(ci.next);
+            }
+            for (ConnectedInstructions ci : node.classicalParameters.values()) {
+                queue.addAll(ci.previous);
+                queue.addAll(ci.next);
+            }
+        }
+    }
+
     /**
      * Copy the instruction node.
      * @return The copied instruction node.
@@ -360,6 +576,8 @@ public class InstructionNode implements DirectedGraphNode<InstructionNode> {
         copy.lineText = lineText;
         copy.ptNode = originalPtNode;
         copy.shownToBeDead = shownToBeDead;
+        copy.memoryRegion = memoryRegion;
+        copy.memoryAccess = memoryAccess;
         for (QuantumVariable qv : quantumParameters.keySet()) {
             copy.quantumParameters.put(qv.copyQV(), quantumParameters.get(qv).copyConnections());
         }
@@ -0,0 +1,220 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Schedules the instructions of a block so that no instruction is scheduled before the instructions it depends on.
+ * An instruction can be scheduled if the lines of all its previous instructions are executed. For every instruction,
+ * the scheduler counts the previous instructions that are not executed yet, so an instruction is ready as soon as its
+ * counter drops to zero and the block is not scanned again for every scheduled instruction.
+ * The scheduled order is the one of repeated scans over the candidates: every scan adds the ready candidates in the
+ * order of the block, a candidate can follow the candidates added earlier in the same scan.
+ */
+public class InstructionScheduler {
+    private final List<InstructionNode> instructions;
+    private final Map<InstructionNode, Integer> indices = new HashMap<>();
+    // The indices of the instructions that depend on the instruction with the same index
+    private final List<List<Integer>> nextInstructions = new ArrayList<>();
+    // The number of previous instructions that are not executed, -1 if one of them is not part of the block
+    private final int[] missingPrevious;
+    private final boolean[] executed;
+    // Only used while scheduling
+    private final boolean[] candidate;
+    private final int[] scans;
+
+    /**
+     * Constructor for the InstructionScheduler class.
+     * @param instructions The instructions of the block in their current order.
+     * @param executed The instructions that are already executed. Their lines count as executed even if they are not
+     *                 part of the block.
+     */
+    public InstructionScheduler(List<InstructionNode> instructions, Collection<InstructionNode> executed) {
+        this.instructions = instructions;
+        this.missingPrevious = new int[instructions.size()];
+        this.executed = new boolean[instructions.size()];
+        this.candidate = new boolean[instructions.size()];
+        this.scans = new int[instructions.size()];
+        Set<InstructionNode> executedNodes = new HashSet<>(executed);
+        Set<Integer> executedLines = new HashSet<>();
+        executed.forEach(x -> executedLines.add(x.getLine()));
+        Map<Integer, Integer> indexOfLine = new HashMap<>();
+        for(int i = 0; i < instructions.size(); i++) {
+            indices.putIfAbsent(instructions.get(i), i);
+            indexOfLine.putIfAbsent(instructions.get(i).getLine(), i);
+            nextInstructions.add(new ArrayList<>());
+            this.executed[i] = executedNodes.contains(instructions.get(i));
+        }
+        for(int i = 0; i < instructions.size(); i++) {
+            Set<Integer> previousLines = new HashSet<>();
+            for(InstructionNode previous : instructions.get(i).getBranches()) {
+                int line = previous.getLine();
+                if(executedLines.contains(line) || !previousLines.add(line) || missingPrevious[i] < 0) {
+                    continue;
+                }
+                Integer index = indexOfLine.get(line);
+                if(index == null || index == i) {
+                    missingPrevious[i] = -1;
+                } else {
+                    nextInstructions.get(index).add(i);
+                    missingPrevious[i]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark an instruction of the block as executed without scheduling it.
+     * @param node The instruction.
+     */
+    public void executed(InstructionNode node) {
+        Integer index = indices.get(node);
+        if(index != null && !executed[index]) {
+            execute(index);
+        }
+    }
+
+    /**
+     * @param node An instruction of the block.
+     * @return True if the instruction is executed.
+     */
+    public boolean isExecuted(InstructionNode node) {
+        Integer index = indices.get(node);
+        return index != null && executed[index];
+    }
+
+    /**
+     * Schedule all candidates that can be executed. They are marked as executed.
+     * @param candidates The instructions of the block to schedule, in the order of the block.
+     * @return The scheduled candidates in their order.
+     */
+    public ArrayList<InstructionNode> schedule(List<InstructionNode> candidates) {
+        return schedule(candidates, Long.MAX_VALUE);
+    }
+
+    /**
+     * Schedule the first candidates that can be executed. They are marked as executed.
+     * @param candidates The instructions of the block to schedule, in the order of the block.
+     * @param limit The maximal number of candidates to schedule.
+     * @return The scheduled candidates in their order.
+     */
+    public ArrayList<InstructionNode> schedule(List<InstructionNode> candidates, long limit) {
+        ArrayList<InstructionNode> order = new ArrayList<>();
+        scheduleCandidates(candidates, limit, Integer.MAX_VALUE).forEach(x -> order.add(instructions.get(x)));
+        return order;
+    }
+
+    /**
+     * Get the candidates that can be executed now, i.e. the candidates of the first scan. They are not marked as
+     * executed.
+     * @param candidates The instructions of the block to look at, in the order of the block.
+     * @return The executable candidates in their order.
+     */
+    public ArrayList<InstructionNode> getExecutableInstructions(List<InstructionNode> candidates) {
+        List<Integer> scheduled = scheduleCandidates(candidates, Long.MAX_VALUE, 1);
+        ArrayList<InstructionNode> executable = new ArrayList<>();
+        scheduled.forEach(x -> executable.add(instructions.get(x)));
+        for(int i = scheduled.size() - 1; i >= 0; i--) {
+            int index = scheduled.get(i);
+            executed[index] = false;
+            for(int following : nextInstructions.get(index)) {
+                if(missingPrevious[following] >= 0) {
+                    missingPrevious[following]++;
+                }
+            }
+        }
+        return executable;
+    }
+
+    private List<Integer> scheduleCandidates(List<InstructionNode> candidates, long limit, int maxScan) {
+        List<Integer> candidateIndices = new ArrayList<>();
+        for(InstructionNode node : candidates) {
+            Integer index = indices.get(node);
+            if(index != null && !executed[index] && !candidate[index]) {
+                candidate[index] = true;
+                candidateIndices.add(index);
+            }
+        }
+        // The ready candidates ordered by their scan and their index in the block. A candidate that becomes ready is
+        // never ordered before the candidate that made it ready, so they are taken in the order of the scans.
+        PriorityQueue<Long> ready = new PriorityQueue<>();
+        for(int index : candidateIndices) {
+            scans[index] = 1;
+            if(missingPrevious[index] == 0) {
+                ready.add(key(1, index));
+            }
+        }
+        List<Integer> scheduled = new ArrayList<>();
+        while(!ready.isEmpty() && scheduled.size() < limit) {
+            long next = ready.poll();
+            int scan = (int) (next >>> 32);
+            int index = (int) next;
+            if(scan > maxScan) {
+                break;
+            }
+            scheduled.add(index);
+            execute(index);
+            for(int following : nextInstructions.get(index)) {
+                if(!candidate[following]) {
+                    continue;
+                }
+                // A candidate before its previous instruction is only reached by the next scan
+                scans[following] = Math.max(scans[following], index < following ? scan : scan + 1);
+                if(missingPrevious[following] == 0) {
+                    ready.add(key(scans[following], following));
+                }
+            }
+        }
+        candidateIndices.forEach(x -> candidate[x] = false);
+        return scheduled;
+    }
+
+    private void execute(int index) {
+        executed[index] = true;
+        for(int following : nextInstructions.get(index)) {
+            if(missingPrevious[following] > 0) {
+                missingPrevious[following]--;
+            }
+        }
+    }
+
+    private static long key(int scan, int index) {
+        return ((long) scan << 32) | index;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import java.io.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Opens the json files of the optimization fuzzing. Files whose name ends with .gz are gzip-compressed.
+ */
+public class JsonFiles {
+
+    private JsonFiles() {
+    }
+
+    /**
+     * Opens a buffered stream to write a json file, compressed if the file name ends with .gz. Flushing the stream
+     * also flushes the compressed data, so the file can be read up to the flushed position.
+     * @param fileName The name of the file.
+     * @return The stream to write the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static OutputStream newOutputStream(String fileName) throws IOException {
+        OutputStream os = new FileOutputStream(fileName);
+        if(fileName.endsWith(".gz")) {
+            return new GZIPOutputStream(new BufferedOutputStream(os), 1 << 16, true);
+        }
+        return new BufferedOutputStream(os, 1 << 16);
+    }
+
+    /**
+     * Opens a buffered stream to read a json file, decompressed if the file name ends with .gz.
+     * @param fileName The name of the file.
+     * @return The stream to read the file.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static InputStream newInputStream(String fileName) throws IOException {
+        InputStream is = new FileInputStream(fileName);
+        if(fileName.endsWith(".gz")) {
+            return new GZIPInputStream(new BufferedInputStream(is), 1 << 16);
+        }
+        return new BufferedInputStream(is, 1 << 16);
+    }
+}
@@ -0,0 +1,356 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import javax.json.JsonObject;
+import java.util.*;
+
+/**
+ * Memoizes the states of an OptimizingQuil object after prefixes of optimization step sequences. Fuzzing iterations
+ * often start with the same optimization steps, so an iteration can continue from the state after the longest
+ * memoized prefix instead of applying all its steps to the original program.
+ * The prefixes are saved in a trie with one node per optimization step. A node gets a snapshot of the state after its
+ * step when it is visited the second time, i.e. only prefixes that are actually shared are memoized. If the estimated
+ * memory of the trie exceeds the memory budget, the least recently used nodes are removed.
+ * Besides the prefixes, the trie remembers the optimization steps that did not change the state they were applied to,
+ * identified by the hash of the state. Such a step does not have to be applied again to the same state, its result is
+ * taken from the trie. These no-op steps share the memory budget with the nodes. The hashes of all states reached are
+ * counted to report how many distinct programs were explored. The count does not depend on the memory budget, it is
+ * estimated in constant memory once there are too many states to count them exactly.
+ * All methods can be called by the threads that execute the iterations at the same time.
+ */
+class OptimizationTrie {
+    // Rough estimates of the memory a trie node needs and the memory one instruction of a snapshot needs, including
+    // its parse tree nodes and variables, and the memory of one instruction in the json of a step result.
+    private static final long BYTES_PER_NODE = 128;
+    private static final long BYTES_PER_INSTRUCTION = 2048;
+    private static final long BYTES_PER_RESULT_INSTRUCTION = 256;
+
+    private final OptimizingQuil start;
+    private final long memoryBudget;
+    private final Node root = new Node(null, null);
+    private final Map<NoOpStep, NoOpStep> noOpSteps = new HashMap<>();
+    private final DistinctCounter reachedStates = new DistinctCounter();
+    // All nodes except the root and all no-op steps, the least recently used one first. A path is used from its last
+    // node up to the root, so a node is always used more recently than its descendants and the least recently used
+    // node is a leaf.
+    private final LinkedHashMap<Entry, Entry> leastRecentlyUsed = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedMemory = 0;
+    private long appliedSteps = 0;
+    private long reusedSteps = 0;
+    private long skippedSteps = 0;
+
+    /**
+     * An entry of the trie that can be removed if the memory budget is exceeded.
+     */
+    private abstract static class Entry {
+        protected long size = BYTES_PER_NODE;
+
+        /**
+         * Remove the entry from the trie.
+         * @param trie The trie the entry belongs to.
+         */
+        protected abstract void remove(OptimizationTrie trie);
+    }
+
+    /**
+     * An optimization step that did not change the state with the given hash.
+     */
+    private static class NoOpStep extends Entry {
+        private final long stateHash;
+        private final String step;
+        private JsonObject stepResult = null;
+
+        private NoOpStep(long stateHash, String step) {
+            this.stateHash = stateHash;
+            this.step = step;
+        }
+
+        @Override
+        protected void remove(OptimizationTrie trie) {
+            trie.noOpSteps.remove(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof NoOpStep)) {
+                return false;
+            }
+            NoOpStep other = (NoOpStep) o;
+            return stateHash == other.stateHash && step.equals(other.step);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(stateHash) * 31 + step.hashCode();
+        }
+    }
+
+    /**
+     * A node of the trie, i.e. a prefix of an optimization step sequence.
+     */
+    static class Node extends Entry {
+        private final Node parent;
+        private final String step;
+        private final Map<String, Node> children = new HashMap<>();
+        private int visits = 0;
+        private boolean removed = false;
+        // The snapshot of the state after the prefix and the results of its steps, null if not memoized
+        private OptimizingQuil snapshot = null;
+        private List<JsonObject> stepResults = null;
+
+        private Node(Node parent, String step) {
+            this.parent = parent;
+            this.step = step;
+        }
+
+        @Override
+        protected void remove(OptimizationTrie trie) {
+            parent.children.remove(step);
+            removed = true;
+            snapshot = null;
+            stepResults = null;
+        }
+    }
+
+    /**
+     * The longest memoized prefix of an optimization step sequence.
+     */
+    static class Prefix {
+        private final Node[] nodes;
+        private final int length;
+        private final OptimizingQuil state;
+        private final List<JsonObject> stepResults;
+
+        private Prefix(Node[] nodes, int length, OptimizingQuil state, List<JsonObject> stepResults) {
+            this.nodes = nodes;
+            this.length = length;
+            this.state = state;
+            this.stepResults = stepResults;
+        }
+
+        /**
+         * @return The number of optimization steps of the prefix.
+         */
+        int getLength() {
+            return length;
+        }
+
+        /**
+         * @return A copy of the state after the prefix that can be changed by the caller.
+         */
+        OptimizingQuil copyState() {
+            return state.copy();
+        }
+
+        /**
+         * @return The results of the optimization steps of the prefix.
+         */
+        List<JsonObject> getStepResults() {
+            return stepResults;
+        }
+
+        /**
+         * @param step The index of an optimization step in the sequence.
+         * @return The trie node of the prefix that ends with this step.
+         */
+        Node getNode(int step) {
+            return nodes[step];
+        }
+    }
+
+    /**
+     * Constructor for the OptimizationTrie.
+     * @param start The state before any optimization step is applied. It is not changed.
+     * @param memoryBudget The estimated memory in bytes the trie may use. If it is not positive, nothing is memoized.
+     */
+    OptimizationTrie(OptimizingQuil start, long memoryBudget) {
+        this.start = start;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Find the longest memoized prefix of an optimization step sequence. The nodes of the sequence are added to the
+     * trie if they do not exist yet.
+     * @param steps The optimization step sequence.
+     * @return The longest memoized prefix, which is empty if none is memoized.
+     */
+    synchronized Prefix findLongestPrefix(List<String> steps) {
+        Node[] nodes = new Node[steps.size()];
+        if(!isEnabled()) {
+            return new Prefix(nodes, 0, start, Collections.emptyList());
+        }
+        Node current = root;
+        for(int i = 0; i < steps.size(); i++) {
+            Node child = current.children.get(steps.get(i));
+            if(child == null) {
+                child = new Node(current, steps.get(i));
+                current.children.put(steps.get(i), child);
+                usedMemory += BYTES_PER_NODE;
+            }
+            child.visits++;
+            nodes[i] = child;
+            current = child;
+        }
+        for(int i = nodes.length - 1; i >= 0; i--) {
+            leastRecentlyUsed.put(nodes[i], nodes[i]);
+        }
+        Prefix prefix = new Prefix(nodes, 0, start, Collections.emptyList());
+        for(int i = nodes.length - 1; i >= 0; i--) {
+            if(nodes[i].snapshot != null) {
+                prefix = new Prefix(nodes, i + 1, nodes[i].snapshot, nodes[i].stepResults);
+                break;
+            }
+        }
+        reusedSteps += prefix.length;
+        removeLeastRecentlyUsed();
+        return prefix;
+    }
+
+    /**
+     * Report that an optimization step was applied to a state. A snapshot of the state is memoized if the prefix that
+     * ends with this step has been visited before.
+     * @param node The trie node of the prefix that ends with the applied step.
+     * @param stepResults The results of all optimization steps of the prefix.
+     * @param state The state after the applied step. It is not changed.
+     */
+    void stepApplied(Node node, List<JsonObject> stepResults, OptimizingQuil state) {
+        synchronized (this) {
+            appliedSteps++;
+        }
+        memoize(node, stepResults, state);
+    }
+
+    /**
+     * Memoize a snapshot of a state if the prefix that leads to it has been visited before.
+     * @param node The trie node of the prefix.
+     * @param stepResults The results of all optimization steps of the prefix.
+     * @param state The state after the prefix. It is not changed.
+     */
+    void memoize(Node node, List<JsonObject> stepResults, OptimizingQuil state) {
+        synchronized (this) {
+            if(node == null || node.removed || node.snapshot != null || node.visits < 2) {
+                return;
+            }
+        }
+        OptimizingQuil snapshot = state.copy();
+        int instructions = snapshot.getNumberOfInstructions();
+        long size = instructions * (BYTES_PER_INSTRUCTION + stepResults.size() * BYTES_PER_RESULT_INSTRUCTION);
+        synchronized (this) {
+            if(node.removed || node.snapshot != null) {
+                return;
+            }
+            node.snapshot = snapshot;
+            node.stepResults = new ArrayList<>(stepResults);
+            node.size += size;
+            usedMemory += size;
+            removeLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Report that a state was reached.
+     * @param stateHash The hash of the state.
+     */
+    synchronized void stateReached(long stateHash) {
+        reachedStates.add(stateHash);
+    }
+
+    /**
+     * Find the result of an optimization step that is known to not change the state it is applied to.
+     * @param stateHash The hash of the state.
+     * @param step The optimization step.
+     * @return The result of the step, or null if it is not known to not change the state.
+     */
+    synchronized JsonObject findNoOpStep(long stateHash, String step) {
+        NoOpStep noOpStep = noOpSteps.get(new NoOpStep(stateHash, step));
+        if(noOpStep == null) {
+            return null;
+        }
+        leastRecentlyUsed.get(noOpStep);
+        skippedSteps++;
+        return noOpStep.stepResult;
+    }
+
+    /**
+     * Report that an optimization step did not change the state it was applied to.
+     * @param stateHash The hash of the state.
+     * @param step The optimization step.
+     * @param stepResult The result of the step.
+     * @param instructions The number of instructions of the state.
+     */
+    synchronized void noOpStepApplied(long stateHash, String step, JsonObject stepResult, int instructions) {
+        if(!isEnabled()) {
+            return;
+        }
+        NoOpStep noOpStep = new NoOpStep(stateHash, step);
+        if(noOpSteps.containsKey(noOpStep)) {
+            return;
+        }
+        noOpStep.stepResult = stepResult;
+        noOpStep.size += instructions * BYTES_PER_RESULT_INSTRUCTION;
+        noOpSteps.put(noOpStep, noOpStep);
+        leastRecentlyUsed.put(noOpStep, noOpStep);
+        usedMemory += noOpStep.size;
+        removeLeastRecentlyUsed();
+    }
+
+    private boolean isEnabled() {
+        return memoryBudget > 0;
+    }
+
+    /**
+     * Remove the least recently used nodes until the estimated memory is within the memory budget.
+     */
+    private void removeLeastRecentlyUsed() {
+        Iterator<Entry> iterator = leastRecentlyUsed.keySet().iterator();
+        while(usedMemory > memoryBudget && iterator.hasNext()) {
+            Entry entry = iterator.next();
+            iterator.remove();
+            entry.remove(this);
+            usedMemory -= entry.size;
+        }
+    }
+
+    /**
+     * Print how many optimization steps were reused from memoized prefixes or skipped, and how many distinct programs
+     * were reached.
+     */
+    synchronized void print() {
+        System.out.println("Distinct programs explored: " + (reachedStates.isExact() ? "" : "about ")
+                + reachedStates.count());
+        if(!isEnabled()) {
+            return;
+        }
+        System.out.println("Memoized prefixes: " + reusedSteps + " optimization steps reused, " + skippedSteps
+                + " skipped without changing the program, " + appliedSteps + " applied.");
+    }
+}
@@ -32,30 +32,80 @@ package de.hhu.lirem101.quil_optimizer;
 
 import de.hhu.lirem101.quil_analyser.ControlFlowBlock;
 import de.hhu.lirem101.quil_analyser.LineType;
+import de.hhu.lirem101.quil_analyser.MemoryAccess;
+import de.hhu.lirem101.quil_analyser.MemoryRegion;
 import de.hhu.lirem101.quil_optimizer.analysis.ConstantPropagator;
 import de.hhu.lirem101.quil_optimizer.analysis.DeadCodeAnalyser;
 import de.hhu.lirem101.quil_optimizer.analysis.FindHybridDependencies;
 import de.hhu.lirem101.quil_optimizer.analysis.LiveVariableAnalyser;
+import de.hhu.lirem101.quil_optimizer.quil_variable.ClassicalUsage;
+import de.hhu.lirem101.quil_optimizer.quil_variable.ClassicalVariable;
+import de.hhu.lirem101.quil_optimizer.quil_variable.SymbolTable;
+import de.hhu.lirem101.quil_optimizer.search.Objective;
+import de.hhu.lirem101.quil_optimizer.search.SearchStrategy;
+import de.hhu.lirem101.quil_optimizer.search.SequenceListSearch;
+import de.hhu.lirem101.quil_optimizer.search.SequenceResult;
 import de.hhu.lirem101.quil_optimizer.transformation.ConstantFolder;
 import de.hhu.lirem101.quil_optimizer.transformation.DeadCodeEliminator;
 import de.hhu.lirem101.quil_optimizer.transformation.LatestPossibleQuantumExecuter;
 import de.hhu.lirem101.quil_optimizer.transformation.ReOrdererForHybridExecution;
+import org.apache.commons.numbers.complex.Complex;
 import org.snt.inmemantlr.tree.ParseTreeNode;
 
 import javax.json.*;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import javax.json.stream.JsonGenerator;
+import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 import static de.hhu.lirem101.quil_optimizer.ControlStructureRemover.removeControlStructures;
 
 public class OptimizingQuil {
+    /**
+     * The optimization routines the optimization steps are drawn in: pairs of an analysis and the transformation
+     * using it.
+     */
+    public static final List<List<String>> OPTIMIZATION_ROUTINES = Collections.unmodifiableList(Arrays.asList(
+            Collections.unmodifiableList(Arrays.asList("LiveVariableAnalysis", "DeadCodeElimination")),
+            Collections.unmodifiableList(Arrays.asList("ConstantPropagation", "ConstantFolding")),
+            Collections.unmodifiableList(Arrays.asList("HybridDependencies", "ReOrdering")),
+            Collections.unmodifiableList(Arrays.asList("HybridDependencies", "LastPossibleQuantumExecution"))));
+    static final Set<String> TRANSFORMATIONS = Collections.unmodifiableSet(new HashSet<>(
+            Arrays.asList("DeadCodeElimination", "ReOrdering", "ConstantFolding")));
+    /**
+     * The default estimated memory in bytes that is used to memoize prefixes of optimization step sequences.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = Runtime.getRuntime().maxMemory() / 4;
+    // The result of an optimization step whose result is not created
+    private static final JsonObject SKIPPED_STEP_RESULT = Json.createObjectBuilder().build();
     private final ArrayList<ArrayList<InstructionNode>> instructions;
     private ArrayList<ArrayList<InstructionNode>> currentOrder = new ArrayList<>();
     private final ArrayList<Set<Integer>> indexToJumpTo = new ArrayList<>();
     private final Set<String> readoutParams = new HashSet<>();
+    // The ids of the qubits and memory cells of the program, shared by all copies of this object
+    private final SymbolTable symbols;
+    // The result of the last HybridDependencies step, it is not changed by the steps that use it
+    private ArrayList<LinkedHashMap<Integer, Set<Integer>>> hybridDependencies = new ArrayList<>();
+    // True if the parse tree nodes of the instructions may be shared with a copy of this object
+    private volatile boolean parseTreeShared = false;
+    // The snapshot of the instructions, which are not changed by the optimization steps, and the last snapshot of the
+    // current order written to the json results
+    private final InstructionListSnapshot instructionsSnapshot;
+    private InstructionListSnapshot currentOrderSnapshot = InstructionListSnapshot.EMPTY;
+    // The indices of the lists of the current order the transformations changed since currentOrderSnapshot was taken
+    private final BitSet changedLists;
+    // False if the fuzzing iterations applied to copies of this object only need the metrics of the optimized program
+    private boolean createStepResults = true;
+    // The results of the analyses that are still valid for the current program
+    private AnalysisCache analysisCache = new AnalysisCache();
 
 
     /**
@@ -68,12 +118,14 @@ public class OptimizingQuil {
      * @param quilCode The Quil code as an array of strings.
      */
     public OptimizingQuil(ControlFlowBlock block, Map<Integer, LineType> classes, ParseTreeNode root, Set<String> readoutParams, String[] quilCode) {
+        this.symbols = new SymbolTable();
         InstructionListCreator ilc = new InstructionListCreator(block, classes);
         SortingNodesToLines snl = new SortingNodesToLines(root);
         Map<Integer, ParseTreeNode> sortedNodes = snl.getSortedNodes();
         SortNodesIntoInstructions sorter = new SortNodesIntoInstructions(sortedNodes);
         ArrayList<ArrayList<InstructionNode>> instructionsWithControlStructures = ilc.getInstructions();
         sorter.appendNodeToInstructions(instructionsWithControlStructures);
+        declareReferencedMemory(instructionsWithControlStructures, readoutParams);
         createLinksOfInstructions(instructionsWithControlStructures);
         ArrayList<ArrayList<Integer>> linesToJumpTo = ilc.getLinesToJumpTo();
         replaceLinesByIndex(indexToJumpTo, linesToJumpTo, instructionsWithControlStructures);
@@ -81,11 +133,124 @@ public class OptimizingQuil {
         this.instructions = removeControlStructures(instructionsWithControlStructures);
         addQuilTextToInstructions(this.instructions, quilCode);
         createListsForOrderedInstructions(this.instructions);
+        this.instructionsSnapshot = InstructionListSnapshot.EMPTY.update(this.instructions, new BitSet());
+        this.changedLists = new BitSet();
+    }
+
+
+    /**
+     * Copy constructor. The instructions and their variables are copied, so optimization steps applied to the copy do
+     * not change the original and vice versa. The parse tree nodes the instructions refer to are shared until the copy
+     * or the original applies a step that changes them, see unshareParseTree.
+     * @param original The OptimizingQuil object to copy.
+     */
+    private OptimizingQuil(OptimizingQuil original) {
+        ArrayList<InstructionNode> nodes = new ArrayList<>();
+        original.instructions.forEach(nodes::addAll);
+        original.currentOrder.forEach(nodes::addAll);
+        Map<InstructionNode, InstructionNode> copies = InstructionNode.copyInstructions(nodes, x -> x);
+        original.parseTreeShared = true;
+        this.parseTreeShared = true;
+        this.instructions = copyInstructionLists(original.instructions, copies);
+        this.currentOrder = copyInstructionLists(original.currentOrder, copies);
+        this.indexToJumpTo.addAll(original.indexToJumpTo);
+        this.readoutParams.addAll(original.readoutParams);
+        this.symbols = original.symbols;
+        this.hybridDependencies = original.hybridDependencies;
+        this.instructionsSnapshot = original.instructionsSnapshot;
+        this.currentOrderSnapshot = original.currentOrderSnapshot;
+        this.changedLists = (BitSet) original.changedLists.clone();
+        this.createStepResults = original.createStepResults;
+        this.analysisCache = original.analysisCache.copy();
+    }
+
+
+    /**
+     * Create an independent copy of this OptimizingQuil object, see the copy constructor.
+     * @return The copy.
+     */
+    public OptimizingQuil copy() {
+        return new OptimizingQuil(this);
+    }
+
+
+    /**
+     * Give the instructions their own copy of the parse tree nodes they refer to, if the nodes may be shared with
+     * another OptimizingQuil object. Must be called before a step that changes the parse tree, i.e. the constant
+     * folding.
+     */
+    private void unshareParseTree() {
+        if(!parseTreeShared) {
+            return;
+        }
+        ParseTreeCopier parseTreeCopier = new ParseTreeCopier();
+        ArrayList<InstructionNode> nodes = new ArrayList<>();
+        instructions.forEach(nodes::addAll);
+        currentOrder.forEach(nodes::addAll);
+        InstructionNode.replaceParseTreeNodes(nodes, parseTreeCopier::getCopy);
+        parseTreeShared = false;
+    }
+
+
+    private static ArrayList<ArrayList<InstructionNode>> copyInstructionLists(
+            ArrayList<ArrayList<InstructionNode>> instructionLists, Map<InstructionNode, InstructionNode> copies) {
+        ArrayList<ArrayList<InstructionNode>> copiedLists = new ArrayList<>();
+        for (ArrayList<InstructionNode> instructionList : instructionLists) {
+            ArrayList<InstructionNode> copiedList = new ArrayList<>();
+            instructionList.forEach(x -> copiedList.add(copies.get(x)));
+            copiedLists.add(copiedList);
+        }
+        return copiedLists;
+    }
+
+
+    /**
+     * Calculate a structural hash of the current state of the program. It covers the text, order, types and parse
+     * trees of the instructions, the state of their variables and the links between them, and the last hybrid
+     * dependencies. Two states with the same hash give the same results for all further optimization steps.
+     * @return The hash of the current state.
+     */
+    public long getStateHash() {
+        Map<InstructionNode, Integer> indices = new IdentityHashMap<>();
+        currentOrder.forEach(block -> block.forEach(x -> indices.putIfAbsent(x, indices.size())));
+        instructions.forEach(block -> block.forEach(x -> indices.putIfAbsent(x, indices.size())));
+        ProgramStateHasher hasher = new ProgramStateHasher();
+        addToStateHash(hasher, indices, currentOrder);
+        // The instructions of the current order are connected to the original instructions
+        addToStateHash(hasher, indices, instructions);
+        hasher.add(hybridDependencies.size());
+        for (LinkedHashMap<Integer, Set<Integer>> dependencies : hybridDependencies) {
+            hasher.add(dependencies.size());
+            for (Map.Entry<Integer, Set<Integer>> entry : dependencies.entrySet()) {
+                hasher.add(entry.getKey()).add(entry.getValue().size());
+                entry.getValue().forEach(hasher::add);
+            }
+        }
+        return hasher.getHash();
+    }
+
+
+    private static void addToStateHash(ProgramStateHasher hasher, Map<InstructionNode, Integer> indices,
+                                       ArrayList<ArrayList<InstructionNode>> instructionLists) {
+        hasher.add(instructionLists.size());
+        for (ArrayList<InstructionNode> instructionList : instructionLists) {
+            hasher.add(instructionList.size());
+            instructionList.forEach(x -> x.addToStateHash(hasher, indices));
+        }
+    }
+
+
+    /**
+     * @return The number of instructions in the current order.
+     */
+    int getNumberOfInstructions() {
+        return currentOrder.stream().mapToInt(ArrayList::size).sum();
     }
 
 
     /**
-     * Fuzz optimization steps and save in a json file. If an error is thrown, save this as well.
+     * Fuzz optimization steps and save in a json file. If an error is thrown, save this as well. A random seed is used,
+     * it is saved in the json file to be able to reproduce the run.
      * @param jsonFileName The name of the json file to save the results in.
      * @param iterations The number of iterations.
      * @param numberOfOptimizations The number of optimizations to apply in one iteration.
@@ -99,30 +264,177 @@ public class OptimizingQuil {
     public static void fuzzOptimization(String jsonFileName, int iterations, int numberOfOptimizations,
                                         ControlFlowBlock block, Map<Integer, LineType> classes, ParseTreeNode root,
                                         Set<String> readoutParams, String[] quilCode) {
-        List<List<String>> optimizationSteps = new ArrayList<>();
-        optimizationSteps.add(Arrays.asList("LiveVariableAnalysis", "DeadCodeElimination"));
-        optimizationSteps.add(Arrays.asList("ConstantPropagation", "ConstantFolding"));
-        optimizationSteps.add(Arrays.asList("HybridDependencies", "ReOrdering"));
-        optimizationSteps.add(Arrays.asList("HybridDependencies", "LastPossibleQuantumExecution"));
-        Random random = new Random();
+        fuzzOptimization(jsonFileName,
+                new FuzzingOptions().setIterations(iterations).setNumberOfOptimizations(numberOfOptimizations), block,
+                classes, root, readoutParams, quilCode);
+    }
+
+
+    /**
+     * Fuzz optimization steps and save in a json file. If an error is thrown, save this as well. The optimization steps
+     * of iteration i only depend on the seed and i, so the iterations can be split into shards that are run
+     * independently and merged afterward with the FuzzingResultMerger. The best program for every metric is written
+     * into a Quil file as soon as it is found, see BestPrograms.
+     * @param jsonFileName The name of the json file to save the results in.
+     * @param options The options of the run. The iterations, number of optimizations, seed, shard, threads, memory
+     *                budget, stopping criterion, checkpoint interval and verbosity are used.
+     * @param block The control flow block to create the instructions from.
+     * @param classes A map with the line number as key and the line type as value.
+     * @param root The root node of the parse tree.
+     * @param readoutParams The classical params whose values are read out at the end of the program, i.e. that will not
+     *                      be dead.
+     * @param quilCode The Quil code as an array of strings.
+     */
+    public static void fuzzOptimization(String jsonFileName, FuzzingOptions options, ControlFlowBlock block,
+                                        Map<Integer, LineType> classes, ParseTreeNode root,
+                                        Set<String> readoutParams, String[] quilCode) {
+        int iterations = options.getIterations();
+        int numberOfOptimizations = options.getNumberOfOptimizations();
+        long seed = options.getSeed();
+        int shard = options.getShard();
+        int shardCount = options.getShardCount();
+        if(shardCount < 1 || shard < 1 || shard > shardCount) {
+            throw new IllegalArgumentException("Shard " + shard + "/" + shardCount + " does not exist.");
+        }
+        int firstIteration = (int) ((long) iterations * (shard - 1) / shardCount);
+        int lastIteration = (int) ((long) iterations * shard / shardCount);
         ArrayList<ArrayList<String>> optimizations = new ArrayList<>();
+        for(int i = firstIteration; i < lastIteration; i++) {
+            optimizations.add(drawOptimizations(seed, i, numberOfOptimizations));
+        }
+        System.out.println("Fuzzing iterations " + firstIteration + " to " + (lastIteration - 1) + " with seed " + seed);
+        writeFuzzingFile(jsonFileName, new SequenceListSearch("Random", optimizations),
+                createRunParameters(seed, "Random", iterations, numberOfOptimizations, shard, shardCount,
+                        options.getVerbosity()),
+                firstIteration, options.getThreads(), options.getMemoryBudget(), options.getStoppingCriterion(),
+                options.getCheckpointInterval(), false, block, classes, root, readoutParams, quilCode);
+    }
 
-        int optimizationBlocks = numberOfOptimizations/2;
-        for(int i = 0; i < iterations; i++) {
-            ArrayList<String> iterationOptimizations = new ArrayList<>();
-            for(int j = 0; j < optimizationBlocks; j++) {
-                int randomIndex = random.nextInt(optimizationSteps.size());
-                iterationOptimizations.addAll(optimizationSteps.get(randomIndex));
-            }
-            optimizations.add(iterationOptimizations);
+
+    /**
+     * Check whether a fuzzing run can be resumed, i.e. whether it saved a checkpoint and did not finish.
+     * @param jsonFileName The name of the json file of the run.
+     * @return True if the run has a checkpoint.
+     */
+    public static boolean canResume(String jsonFileName) {
+        return new File(FuzzingCheckpoint.getFileName(jsonFileName)).exists();
+    }
+
+
+    /**
+     * Resume a fuzzing run from its last checkpoint, see fuzzOptimization. The run continues with the same seed,
+     * number of iterations, shard and encoding, the iterations that are finished are not executed again.
+     * @param jsonFileName The name of the json file of the run.
+     * @param options The options of the resumed run. Only the threads, memory budget, stopping criterion and checkpoint
+     *                interval are used, the other options are taken from the checkpoint.
+     * @param block The control flow block to create the instructions from.
+     * @param classes A map with the line number as key and the line type as value.
+     * @param root The root node of the parse tree.
+     * @param readoutParams The classical params whose values are read out at the end of the program, i.e. that will not
+     *                      be dead.
+     * @param quilCode The Quil code as an array of strings.
+     * @throws IOException If there is no checkpoint of the run or it cannot be read.
+     */
+    public static void resumeFuzzing(String jsonFileName, FuzzingOptions options, ControlFlowBlock block,
+                                     Map<Integer, LineType> classes, ParseTreeNode root, Set<String> readoutParams,
+                                     String[] quilCode) throws IOException {
+        JsonObject checkpoint = FuzzingCheckpoint.read(jsonFileName);
+        JsonObject runParameters = checkpoint.getJsonObject("RunParameters");
+        long seed = runParameters.getJsonNumber("Seed").longValue();
+        int iterations = runParameters.getInt("Iterations");
+        int numberOfOptimizations = runParameters.getInt("NumberOfOptimizations");
+        int shard = runParameters.getInt("Shard");
+        int shardCount = runParameters.getInt("ShardCount");
+        int firstIteration = checkpoint.getInt("NextIteration");
+        int lastIteration = (int) ((long) iterations * shard / shardCount);
+        ArrayList<ArrayList<String>> optimizations = new ArrayList<>();
+        for(int i = firstIteration; i < lastIteration; i++) {
+            optimizations.add(drawOptimizations(seed, i, numberOfOptimizations));
         }
-        JsonObject result = fuzzOptimization(optimizations, block, classes, root, readoutParams, quilCode);
+        System.out.println("Resuming iterations " + firstIteration + " to " + (lastIteration - 1) + " with seed " + seed);
+        writeFuzzingFile(jsonFileName, new SequenceListSearch("Random", optimizations), runParameters,
+                firstIteration, options.getThreads(), options.getMemoryBudget(), options.getStoppingCriterion(),
+                options.getCheckpointInterval(), true, block, classes, root, readoutParams, quilCode);
+    }
 
-        try (OutputStream os = new FileOutputStream(jsonFileName);
-             JsonWriter jsonWriter = Json.createWriter(os)) {
-            jsonWriter.writeObject(result);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(e);
+
+    /**
+     * Search for good sequences of optimization steps with a search strategy and save the results in a json file in
+     * the same format as the results of the fuzzing. Every evaluated sequence is saved as an iteration. The best
+     * program for every metric is written into a Quil file as soon as it is found, see BestPrograms.
+     * @param jsonFileName The name of the json file to save the results in.
+     * @param strategy The search strategy, see FuzzingOptions.createSearchStrategy.
+     * @param options The options of the search. The iterations, number of optimizations and seed the strategy was
+     *                created with are saved with the results. The threads, memory budget, stopping criterion and
+     *                verbosity are used, no checkpoints are saved.
+     * @param block The control flow block to create the instructions from.
+     * @param classes A map with the line number as key and the line type as value.
+     * @param root The root node of the parse tree.
+     * @param readoutParams The classical params whose values are read out at the end of the program, i.e. that will not
+     *                      be dead.
+     * @param quilCode The Quil code as an array of strings.
+     */
+    public static void searchOptimization(String jsonFileName, SearchStrategy strategy, FuzzingOptions options,
+                                          ControlFlowBlock block, Map<Integer, LineType> classes, ParseTreeNode root,
+                                          Set<String> readoutParams, String[] quilCode) {
+        System.out.println("Searching with " + strategy.getName() + " and seed " + options.getSeed());
+        writeFuzzingFile(jsonFileName, strategy,
+                createRunParameters(options.getSeed(), strategy.getName(), options.getIterations(),
+                        options.getNumberOfOptimizations(), 1, 1, options.getVerbosity()), 0,
+                options.getThreads(), options.getMemoryBudget(), options.getStoppingCriterion(), 0, false, block,
+                classes, root, readoutParams, quilCode);
+    }
+
+
+    private static JsonObject createRunParameters(long seed, String strategy, int iterations,
+                                                  int numberOfOptimizations, int shard, int shardCount,
+                                                  Verbosity verbosity) {
+        JsonObjectBuilder runParameters = Json.createObjectBuilder()
+                .add("Seed", seed)
+                .add("Strategy", strategy)
+                .add("Iterations", iterations)
+                .add("NumberOfOptimizations", numberOfOptimizations)
+                .add("Shard", shard)
+                .add("ShardCount", shardCount);
+        // Files with the full verbosity have neither of these, like the files written before they were introduced
+        if(verbosity == Verbosity.DELTA) {
+            runParameters.add("Encoding", DeltaEncoding.ENCODING);
+        } else if(verbosity == Verbosity.SUMMARY) {
+            runParameters.add("Verbosity", verbosity.getName());
+        }
+        return runParameters.build();
+    }
+
+
+    private static Verbosity getVerbosity(JsonObject runParameters) {
+        if(DeltaEncoding.ENCODING.equals(runParameters.getString("Encoding", null))) {
+            return Verbosity.DELTA;
+        }
+        return Verbosity.fromName(runParameters.getString("Verbosity", Verbosity.FULL.getName()));
+    }
+
+
+    private static void writeFuzzingFile(String jsonFileName, SearchStrategy strategy, JsonObject runParameters,
+                                         int firstIteration, int threads, long memoryBudget,
+                                         StoppingCriterion stoppingCriterion, int checkpointInterval, boolean resume,
+                                         ControlFlowBlock block, Map<Integer, LineType> classes, ParseTreeNode root,
+                                         Set<String> readoutParams, String[] quilCode) {
+        try {
+            FuzzingCheckpoint checkpoint = resume ? FuzzingCheckpoint.resume(jsonFileName, checkpointInterval)
+                    : FuzzingCheckpoint.start(jsonFileName, checkpointInterval, runParameters);
+            // The results are written while the iterations are running, so they do not have to be kept in memory
+            try (JsonGenerator generator = Json.createGenerator(checkpoint.getOutputStream())) {
+                generator.writeStartObject();
+                if(!resume) {
+                    runParameters.forEach(generator::write);
+                }
+                writeFuzzingResult(generator, strategy, firstIteration, block, classes, root, readoutParams, quilCode,
+                        threads, memoryBudget, stoppingCriterion,
+                        getVerbosity(runParameters),
+                        new BestPrograms(jsonFileName), checkpoint);
+                generator.writeEnd();
+            }
+            checkpoint.finish();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -130,7 +442,43 @@ public class OptimizingQuil {
 
 
     /**
-     * Fuzz optimization steps and save in a json file. If an error is thrown, save this as well.
+     * Draws the optimization steps of a fuzzing iteration. The steps are drawn in pairs of an analysis and the
+     * transformation using it. The result only depends on the seed and the iteration.
+     * @param seed The seed of the fuzzing run.
+     * @param iteration The index of the iteration.
+     * @param numberOfOptimizations The number of optimizations to apply in one iteration.
+     * @return The optimization steps of the iteration.
+     */
+    public static ArrayList<String> drawOptimizations(long seed, int iteration, int numberOfOptimizations) {
+        Random random = new Random(iterationSeed(seed, iteration));
+        ArrayList<String> iterationOptimizations = new ArrayList<>();
+        int optimizationBlocks = numberOfOptimizations/2;
+        for(int j = 0; j < optimizationBlocks; j++) {
+            int randomIndex = random.nextInt(OPTIMIZATION_ROUTINES.size());
+            iterationOptimizations.addAll(OPTIMIZATION_ROUTINES.get(randomIndex));
+        }
+        return iterationOptimizations;
+    }
+
+
+    /**
+     * Derives the seed of an iteration from the seed of the fuzzing run. The values are mixed (SplitMix64), as
+     * java.util.Random draws correlated first values for neighbouring seeds.
+     * @param seed The seed of the fuzzing run.
+     * @param iteration The index of the iteration.
+     * @return The seed of the iteration.
+     */
+    private static long iterationSeed(long seed, int iteration) {
+        long z = seed + (iteration + 1L) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+
+    /**
+     * Fuzz optimization steps and save in a json file. If an error is thrown, save this as well. The iterations are
+     * executed in parallel on all available processors.
      * @param optimizations The list of lists of optimization steps to apply.
      * @param block The control flow block to create the instructions from.
      * @param classes A map with the line number as key and the line type as value.
@@ -143,8 +491,99 @@ public class OptimizingQuil {
     public static JsonObject fuzzOptimization(ArrayList<ArrayList<String>> optimizations, ControlFlowBlock block,
                                               Map<Integer, LineType> classes, ParseTreeNode root,
                                               Set<String> readoutParams, String[] quilCode) {
-        JsonObjectBuilder result = Json.createObjectBuilder();
+        return fuzzOptimization(optimizations, new FuzzingOptions(), block, classes, root, readoutParams, quilCode);
+    }
+
+
+    /**
+     * Fuzz optimization steps and save in a json file. If an error is thrown, save this as well. The iterations are
+     * independent of each other and are executed in parallel. Their results are combined in the order of the
+     * iterations, so the result is the same as for a sequential execution. The states after prefixes of the
+     * optimization step sequences that are shared by several iterations are memoized, the result does not depend on
+     * the memory budget.
+     * @param optimizations The list of lists of optimization steps to apply.
+     * @param options The options of the run. Only the threads and the memory budget are used.
+     * @param block The control flow block to create the instructions from.
+     * @param classes A map with the line number as key and the line type as value.
+     * @param root The root node of the parse tree.
+     * @param readoutParams The classical params whose values are read out at the end of the program, i.e. that will not
+     *                      be dead.
+     * @param quilCode The Quil code as an array of strings.
+     * @return The JsonObject with the results of the optimizations.
+     */
+    public static JsonObject fuzzOptimization(ArrayList<ArrayList<String>> optimizations, FuzzingOptions options,
+                                              ControlFlowBlock block, Map<Integer, LineType> classes,
+                                              ParseTreeNode root, Set<String> readoutParams, String[] quilCode) {
+        return searchOptimization(new SequenceListSearch("List", optimizations), options, block, classes, root,
+                readoutParams, quilCode);
+    }
+
+
+    /**
+     * Search for good sequences of optimization steps with a search strategy. Every evaluated sequence is saved as an
+     * iteration, in the same format as the results of the fuzzing.
+     * @param strategy The search strategy.
+     * @param options The options of the search. Only the threads and the memory budget are used.
+     * @param block The control flow block to create the instructions from.
+     * @param classes A map with the line number as key and the line type as value.
+     * @param root The root node of the parse tree.
+     * @param readoutParams The classical params whose values are read out at the end of the program, i.e. that will not
+     *                      be dead.
+     * @param quilCode The Quil code as an array of strings.
+     * @return The JsonObject with the results of the evaluated sequences.
+     */
+    public static JsonObject searchOptimization(SearchStrategy strategy, FuzzingOptions options,
+                                                ControlFlowBlock block, Map<Integer, LineType> classes,
+                                                ParseTreeNode root, Set<String> readoutParams, String[] quilCode) {
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = Json.createGenerator(writer)) {
+            generator.writeStartObject();
+            writeFuzzingResult(generator, strategy, 0, block, classes, root, readoutParams, quilCode,
+                    options.getThreads(), options.getMemoryBudget(), StoppingCriterion.NONE, Verbosity.FULL, null,
+                    null);
+            generator.writeEnd();
+        }
+        try (JsonReader reader = Json.createReader(new StringReader(writer.toString()))) {
+            return reader.readObject();
+        }
+    }
+
+
+    /**
+     * Evaluate the sequences of optimization steps proposed by a search strategy and write the results into the
+     * current object of a JsonGenerator. Every iteration is written as soon as it and all iterations before it are
+     * finished. The sequences of one round of the strategy are evaluated in parallel. If the run is stopped early, the
+     * reason is saved as StoppedEarly.
+     * @param generator The JsonGenerator to write the results with.
+     * @param strategy The search strategy that proposes the sequences of optimization steps.
+     * @param firstIteration The index of the first iteration, if only a part of the iterations of a run is executed.
+     * @param block The control flow block to create the instructions from.
+     * @param classes A map with the line number as key and the line type as value.
+     * @param root The root node of the parse tree.
+     * @param readoutParams The classical params whose values are read out at the end of the program, i.e. that will not
+     *                      be dead.
+     * @param quilCode The Quil code as an array of strings.
+     * @param threads The number of iterations that are executed at the same time.
+     * @param memoryBudget The estimated memory in bytes that may be used to memoize states.
+     * @param stoppingCriterion Decides whether the run is stopped before the strategy is finished.
+     * @param verbosity How much of every iteration is written. With the delta verbosity, the original program is
+     *                  written once at the start.
+     * @param bestPrograms Writes the best program for every metric, null if they should not be written.
+     * @param checkpoint The checkpoints of the run, null if no checkpoints are saved. If the run is resumed, the
+     *                   start of the json file is not written again.
+     */
+    private static void writeFuzzingResult(JsonGenerator generator, SearchStrategy strategy,
+                                           int firstIteration, ControlFlowBlock block, Map<Integer, LineType> classes,
+                                           ParseTreeNode root, Set<String> readoutParams, String[] quilCode,
+                                           int threads, long memoryBudget, StoppingCriterion stoppingCriterion,
+                                           Verbosity verbosity, BestPrograms bestPrograms,
+                                           FuzzingCheckpoint checkpoint) {
+        StoppingCriterion.Progress progress = stoppingCriterion.start();
+        if(threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive.");
+        }
         OptimizingQuil oQuil = new OptimizingQuil(block, classes, root, readoutParams, quilCode);
+        oQuil.createStepResults = verbosity != Verbosity.SUMMARY;
 
         JsonArrayBuilder numberOfInstructionsBuilder = Json.createArrayBuilder();
         JsonArrayBuilder numberOfQuantumInstructionsBuilder = Json.createArrayBuilder();
@@ -157,104 +596,275 @@ public class OptimizingQuil {
         numberOfQuantumInstr.forEach(numberOfQuantumInstructionsBuilder::add);
         wallTime.forEach(wallTimeBuilder::add);
 
-        int minNumberOfInstructions = numberOfInstr.stream().mapToInt(x -> x).sum();
-        int minimumInstructionsIndex = -1;
-        int minQuantumInstructions = numberOfQuantumInstr.stream().mapToInt(x -> x).sum();
-        int minimumQuantumInstructionsIndex = -1;
-        int minQuantumCalculationTime = oQuil.getAmountOfInstructionsBetweenFirstAndLastQuantumInstruction();
-        int minimumQuantumCalculationTimeIndex = -1;
-        int minWallTime = wallTime.stream().mapToInt(x -> x).sum();
-        int minimumWallTimeIndex = -1;
-
-        result.add("OriginalNumberOfInstructions", numberOfInstructionsBuilder);
-        result.add("OriginalWallTime", wallTimeBuilder);
-        result.add("OriginalNumberOfQuantumInstructions", numberOfQuantumInstructionsBuilder);
-        result.add("OriginalQuantumCalculationTime", minQuantumCalculationTime);
-        for(int i = 0; i < optimizations.size(); i++) {
-            if(i != 0) {
-                oQuil = new OptimizingQuil(block, classes, root, readoutParams, quilCode);
+        JsonObject original = Json.createObjectBuilder()
+                .add("OriginalNumberOfInstructions", numberOfInstructionsBuilder)
+                .add("OriginalWallTime", wallTimeBuilder)
+                .add("OriginalNumberOfQuantumInstructions", numberOfQuantumInstructionsBuilder)
+                .add("OriginalQuantumCalculationTime",
+                        oQuil.getAmountOfInstructionsBetweenFirstAndLastQuantumInstruction())
+                .build();
+        JsonObject resumed = checkpoint == null ? null : checkpoint.getResumed();
+        FuzzingMinima minima = FuzzingMinima.ofOriginal(original);
+        ParetoFront paretoFront = ParetoFront.ofOriginal(original);
+        List<String> definitions = getDefinitions(oQuil.instructions, quilCode);
+        if(resumed != null) {
+            minima.update(resumed);
+            paretoFront.add(resumed);
+        } else {
+            original.forEach(generator::write);
+        }
+        JsonArrayBuilder originalProgramBuilder = Json.createArrayBuilder();
+        oQuil.addInstructionsToJson(originalProgramBuilder, oQuil.instructions);
+        JsonArray originalProgramJson = originalProgramBuilder.build();
+        if(verbosity == Verbosity.DELTA && resumed == null) {
+            generator.write("OriginalProgram", originalProgramJson);
+        }
+        if(bestPrograms != null && resumed == null) {
+            List<String> originalProgram = getProgram(oQuil.currentOrder);
+            for(Objective metric : Objective.values()) {
+                bestPrograms.write(metric, -1, definitions, originalProgram);
+            }
+        }
+
+        // The iterations start from copies of this object, so the parse tree is not changed by them
+        OptimizationTrie trie = new OptimizationTrie(oQuil, memoryBudget);
+        trie.stateReached(oQuil.getStateHash());
+        int nextIteration = firstIteration;
+        List<ArrayList<String>> sequences;
+        while(!progress.isStopped() && !(sequences = strategy.nextSequences()).isEmpty()) {
+            List<SequenceResult> results = new ArrayList<>();
+            runIterations(sequences, nextIteration, trie, threads, progress::isStopped,
+                    iteration -> {
+                        int i = iteration.index;
+                        List<Objective> improved = minima.update(i, iteration.numberOfInstructions,
+                                iteration.numberOfQuantumInstructions, iteration.quantumCalculationTime,
+                                iteration.wallTime);
+                        if(bestPrograms != null) {
+                            improved.forEach(x -> bestPrograms.write(x, i, definitions, iteration.program));
+                        }
+                        progress.iterationFinished(!improved.isEmpty());
+                        if(!iteration.failed) {
+                            paretoFront.add(i, iteration.numberOfInstructions, iteration.numberOfQuantumInstructions,
+                                    iteration.quantumCalculationTime, iteration.wallTime);
+                        }
+                        if(iteration.failed) {
+                            System.err.println("Error in iteration " + i);
+                        }
+                        generator.write("Iteration" + i, verbosity == Verbosity.DELTA
+                                ? DeltaEncoding.encodeIteration(iteration.json, originalProgramJson) : iteration.json);
+                        if(checkpoint != null) {
+                            checkpoint.iterationWritten(generator, i + 1, original, minima, paretoFront);
+                        }
+                        results.add(new SequenceResult(iteration.optimizationSteps, iteration.numberOfInstructions,
+                                iteration.numberOfQuantumInstructions, iteration.quantumCalculationTime,
+                                iteration.wallTime, iteration.stateHash));
+                    });
+            nextIteration += results.size();
+            if(progress.isStopped()) {
+                break;
+            }
+            strategy.sequencesEvaluated(results);
+        }
+        if(progress.getReason() != null) {
+            if(checkpoint != null) {
+                checkpoint.runStoppedEarly();
+            }
+            generator.write("StoppedEarly", progress.getReason());
+            System.out.println("Stopped early after " + (nextIteration - firstIteration) + " iterations: "
+                    + progress.getReason());
+        }
+        minima.writeToJson(generator);
+        paretoFront.writeToJson(generator);
+        minima.print();
+        paretoFront.print();
+        trie.print();
+        oQuil.analysisCache.print();
+    }
+
+
+    /**
+     * Executes the fuzzing iterations on a pool of threads. Every iteration works on its own copy of an OptimizingQuil
+     * object. The results are handed to the consumer in the order of the iterations. Only a few iterations are executed
+     * ahead of the next one to hand over, so the memory needed does not grow with the number of iterations.
+     * @param optimizations The list of lists of optimization steps to apply.
+     * @param firstIteration The index of the first iteration.
+     * @param trie The trie with the memoized states the iterations start from.
+     * @param threads The number of iterations that are executed at the same time.
+     * @param consumer The consumer of the results of the iterations.
+     */
+    private static void runIterations(List<ArrayList<String>> optimizations, int firstIteration,
+                                      OptimizationTrie trie, int threads, BooleanSupplier stopped,
+                                      Consumer<FuzzingIteration> consumer) {
+        if(threads == 1 || optimizations.size() <= 1) {
+            for(int i = 0; i < optimizations.size() && !stopped.getAsBoolean(); i++) {
+                consumer.accept(new FuzzingIteration(firstIteration + i, optimizations.get(i), trie));
             }
+            return;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, optimizations.size()));
+        int maxPending = 2 * threads;
+        try {
+            ArrayDeque<Future<FuzzingIteration>> pending = new ArrayDeque<>();
+            int next = 0;
+            while(next < optimizations.size() || !pending.isEmpty()) {
+                // Iterations that are already running when the run is stopped are discarded
+                if(stopped.getAsBoolean()) {
+                    break;
+                }
+                while(next < optimizations.size() && pending.size() < maxPending) {
+                    final int index = next;
+                    pending.add(pool.submit(() -> new FuzzingIteration(firstIteration + index,
+                            optimizations.get(index), trie)));
+                    next++;
+                }
+                consumer.accept(pending.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+
+    /**
+     * The result of a single fuzzing iteration: the json of the iteration and the metrics of the optimized program.
+     */
+    private static class FuzzingIteration {
+        private final int index;
+        private final ArrayList<String> optimizationSteps;
+        private final JsonObject json;
+        private boolean failed = false;
+        private long stateHash;
+        private List<String> program = null;
+        // A metric is null if the iteration failed before it was calculated
+        private Integer numberOfInstructions = null;
+        private Integer numberOfQuantumInstructions = null;
+        private Integer quantumCalculationTime = null;
+        private Integer wallTime = null;
+
+        /**
+         * Applies the optimization steps of one iteration. The iteration continues from a copy of the state after the
+         * longest memoized prefix of its optimization steps and reports every applied step to the trie. Steps that are
+         * known to not change the current state are not applied again.
+         * @param index The index of the iteration.
+         * @param optimizationSteps The optimization steps of the iteration.
+         * @param trie The trie with the memoized states.
+         */
+        private FuzzingIteration(int index, ArrayList<String> optimizationSteps, OptimizationTrie trie) {
+            this.index = index;
+            this.optimizationSteps = optimizationSteps;
+            OptimizationTrie.Prefix prefix = trie.findLongestPrefix(optimizationSteps);
+            OptimizingQuil oQuil = prefix.copyState();
 
             JsonObjectBuilder iterationBuilder = Json.createObjectBuilder();
-            iterationBuilder.add("Iteration", i);
+            iterationBuilder.add("Iteration", index);
             JsonArrayBuilder appliedOptBuilder = Json.createArrayBuilder();
-            optimizations.get(i).forEach(appliedOptBuilder::add);
+            optimizationSteps.forEach(appliedOptBuilder::add);
             iterationBuilder.add("AppliedOptimizations", appliedOptBuilder);
             try {
-                JsonObjectBuilder resultJson = oQuil.applyOptimizationSteps(optimizations.get(i));
-                numberOfInstr = numberOfInstructions(oQuil.currentOrder);
+                ArrayList<JsonObject> stepResults = new ArrayList<>(prefix.getStepResults());
+                stateHash = oQuil.getStateHash();
+                for(int i = prefix.getLength(); i < optimizationSteps.size(); i++) {
+                    String step = optimizationSteps.get(i);
+                    JsonObject stepResult = trie.findNoOpStep(stateHash, step);
+                    if(stepResult != null) {
+                        stepResults.add(stepResult);
+                        trie.memoize(prefix.getNode(i), stepResults, oQuil);
+                        continue;
+                    }
+                    stepResult = oQuil.applyOptimizationStep(step, oQuil.createStepResults);
+                    stepResults.add(stepResult);
+                    long nextStateHash = oQuil.getStateHash();
+                    if(nextStateHash == stateHash) {
+                        trie.noOpStepApplied(stateHash, step, stepResult, oQuil.getNumberOfInstructions());
+                    } else {
+                        trie.stateReached(nextStateHash);
+                        stateHash = nextStateHash;
+                    }
+                    trie.stepApplied(prefix.getNode(i), stepResults, oQuil);
+                }
+                ArrayList<Integer> numberOfInstr = numberOfInstructions(oQuil.currentOrder);
                 JsonArrayBuilder noOfInstructionsBuilder = Json.createArrayBuilder();
                 numberOfInstr.forEach(noOfInstructionsBuilder::add);
                 iterationBuilder.add("FinalNumberOfInstructions", noOfInstructionsBuilder);
-                int totalNumberOfInstructions = numberOfInstr.stream().mapToInt(x -> x).sum();
-                if(totalNumberOfInstructions < minNumberOfInstructions) {
-                    minNumberOfInstructions = totalNumberOfInstructions;
-                    minimumInstructionsIndex = i;
-                }
+                numberOfInstructions = numberOfInstr.stream().mapToInt(x -> x).sum();
 
-                numberOfQuantumInstr = numberOfQuantumInstructions(oQuil.currentOrder);
+                ArrayList<Integer> numberOfQuantumInstr = numberOfQuantumInstructions(oQuil.currentOrder);
                 JsonArrayBuilder noOfQuantumInstructionsBuilder = Json.createArrayBuilder();
                 numberOfQuantumInstr.forEach(noOfQuantumInstructionsBuilder::add);
                 iterationBuilder.add("FinalNumberOfQuantumInstructions", noOfQuantumInstructionsBuilder);
-                int totalQuantumInstructions = numberOfQuantumInstr.stream().mapToInt(x -> x).sum();
-                if(totalQuantumInstructions < minQuantumInstructions) {
-                    minQuantumInstructions = totalQuantumInstructions;
-                    minimumQuantumInstructionsIndex = i;
-                }
+                numberOfQuantumInstructions = numberOfQuantumInstr.stream().mapToInt(x -> x).sum();
 
-                int difference = oQuil.getAmountOfInstructionsBetweenFirstAndLastQuantumInstruction();
-                if(difference < minQuantumCalculationTime) {
-                    minQuantumCalculationTime = difference;
-                    minimumQuantumCalculationTimeIndex = i;
-                }
+                quantumCalculationTime = oQuil.getAmountOfInstructionsBetweenFirstAndLastQuantumInstruction();
 
-                wallTime = numberOfWalltimes(oQuil.currentOrder);
+                ArrayList<Integer> wallTimes = numberOfWalltimes(oQuil.currentOrder);
                 JsonArrayBuilder wallTimeBuilderIteration = Json.createArrayBuilder();
-                wallTime.forEach(wallTimeBuilderIteration::add);
+                wallTimes.forEach(wallTimeBuilderIteration::add);
                 iterationBuilder.add("FinalWallTime", wallTimeBuilderIteration);
-                int wallT = wallTime.stream().mapToInt(x -> x).sum();
-                if(wallT < minWallTime) {
-                    minWallTime = wallT;
-                    minimumWallTimeIndex = i;
-                }
+                wallTime = wallTimes.stream().mapToInt(x -> x).sum();
 
-                iterationBuilder.add("DifferenceBetweenFirstAndLastQuantumInstruction", difference);
-                iterationBuilder.add("Optimizations", resultJson);
+                iterationBuilder.add("DifferenceBetweenFirstAndLastQuantumInstruction", quantumCalculationTime);
+                if(oQuil.createStepResults) {
+                    iterationBuilder.add("Optimizations", oQuil.createResultJson(stepResults));
+                }
+                program = getProgram(oQuil.currentOrder);
 
             } catch (Exception e) {
                 JsonObjectBuilder errorBuilder = Json.createObjectBuilder();
                 JsonArrayBuilder stackTraceBuilder = Json.createArrayBuilder();
                 errorBuilder.add("Error", e.getMessage());
-                // Add stack trace to stackTraceBuilder
+                // Add stack trace to stackTraceBuilder. It ends with the optimization step that failed, so it does not
+                // depend on whether the iterations are executed in parallel or continue from a memoized state.
                 for (StackTraceElement element : e.getStackTrace()) {
                     stackTraceBuilder.add(element.toString());
+                    if(element.getClassName().equals(OptimizingQuil.class.getName())
+                            && element.getMethodName().equals("applyOptimizationStep")) {
+                        break;
+                    }
                 }
                 errorBuilder.add("StackTrace", stackTraceBuilder);
                 iterationBuilder.add("Error", errorBuilder);
-                System.err.println("Error in iteration " + i);
+                failed = true;
             }
-            result.add("Iteration" + i, iterationBuilder);
+            json = iterationBuilder.build();
         }
-        result.add("MinimumInstructionsIndex", minimumInstructionsIndex);
-        result.add("MinimumNumberOfInstructions", minNumberOfInstructions);
-
-        result.add("MinimumQuantumInstructionsIndex", minimumQuantumInstructionsIndex);
-        result.add("MinimumNumberOfQuantumInstructions", minQuantumInstructions);
-
-        result.add("MinimumQuantumCalculationTimeIndex", minimumQuantumCalculationTimeIndex);
-        result.add("MinimumQuantumCalculationTime", minQuantumCalculationTime);
-
-        result.add("MinimumWallTimeIndex", minimumWallTimeIndex);
-        result.add("MinimumWallTime", minWallTime);
-
-        System.out.println("Minimum number of instructions: " + minNumberOfInstructions + " in iteration " + minimumInstructionsIndex);
-        System.out.println("Minimum number of quantum instructions: " + minQuantumInstructions + " in iteration " + minimumQuantumInstructionsIndex);
-        System.out.println("Minimum quantum calculation time: " + minQuantumCalculationTime + " in iteration " + minimumQuantumCalculationTimeIndex);
-        System.out.println("Minimum wall time: " + minWallTime + " in iteration " + minimumWallTimeIndex);
+    }
 
-        JsonObject json = result.build();
+    /**
+     * Get the lines of the Quil code that are not part of an instruction and are not optimized, like gate
+     * definitions. Empty lines and comments are left out.
+     * @param instructions The original instructions of the program.
+     * @param quilCode The Quil code as an array of strings.
+     * @return The lines in their original order.
+     */
+    private static List<String> getDefinitions(ArrayList<ArrayList<InstructionNode>> instructions,
+                                               String[] quilCode) {
+        Set<Integer> instructionLines = new HashSet<>();
+        instructions.forEach(x -> x.forEach(node -> instructionLines.add(node.getLine())));
+        List<String> definitions = new ArrayList<>();
+        for(int i = 0; i < quilCode.length; i++) {
+            String line = quilCode[i];
+            if(!instructionLines.contains(i + 1) && !line.trim().isEmpty() && !line.trim().startsWith("#")) {
+                definitions.add(line);
+            }
+        }
+        return definitions;
+    }
 
-        return json;
+    /**
+     * Get the lines of a program.
+     * @param instructions The instructions of the program.
+     * @return The Quil code of the instructions in their order.
+     */
+    private static List<String> getProgram(ArrayList<ArrayList<InstructionNode>> instructions) {
+        List<String> program = new ArrayList<>();
+        instructions.forEach(x -> x.forEach(node -> program.add(node.getLineText())));
+        return program;
     }
 
     /**
@@ -265,95 +875,319 @@ public class OptimizingQuil {
      * optimizations.
      */
     public JsonObjectBuilder applyOptimizationSteps(ArrayList<String> optimizationSteps){
+        ArrayList<JsonObject> stepResults = new ArrayList<>();
+        for(String optimizationStep : optimizationSteps) {
+            stepResults.add(applyOptimizationStep(optimizationStep));
+        }
+        return createResultJson(stepResults);
+    }
+
+
+    /**
+     * Create a JsonObjectBuilder with the original instructions, the optimized instructions and the results of the
+     * applied optimizations.
+     * @param stepResults The results of the applied optimization steps.
+     * @return The JsonObjectBuilder with the original instructions, the optimized instructions and the applied
+     * optimizations.
+     */
+    private JsonObjectBuilder createResultJson(List<JsonObject> stepResults) {
         JsonObjectBuilder jsonBuilder = Json.createObjectBuilder();
         JsonArrayBuilder startBuilder = Json.createArrayBuilder();
-        addInstructionsToJson(startBuilder, instructions);
+        instructionsSnapshot.addToJson(startBuilder);
         jsonBuilder.add("Start", startBuilder);
+        JsonArrayBuilder optimizationStepsBuilder = Json.createArrayBuilder();
+        stepResults.forEach(optimizationStepsBuilder::add);
+        jsonBuilder.add("Optimizations", optimizationStepsBuilder);
+        JsonArrayBuilder finalResult = Json.createArrayBuilder();
+        addCurrentOrderToJson(finalResult);
+        jsonBuilder.add("FinalResult", finalResult);
+        return jsonBuilder;
+    }
 
-        Set<Integer> indizesOfDeadLineBlocks = new HashSet<>();
-        ArrayList<Set<Integer>> deadLines = new ArrayList<>();
-        ArrayList<LinkedHashMap<Integer, Set<Integer>>> hybridDependencies = new ArrayList<>();
 
-        JsonArrayBuilder optimizationStepsBuilder = Json.createArrayBuilder();
+    /**
+     * Apply one optimization step to the instructions. Save the optimized instructions in currentOrder. The result of
+     * a HybridDependencies step is kept for the following ReOrdering and LastPossibleQuantumExecution steps. An analysis
+     * is not executed again if no transformation changed the program since its last execution in a way that
+     * invalidates its result, see AnalysisCache. Its last result is returned then.
+     * @param optimizationStep The optimization step to apply.
+     * @return The JsonObject with the result of the optimization step.
+     */
+    public JsonObject applyOptimizationStep(String optimizationStep) {
+        return applyOptimizationStep(optimizationStep, true);
+    }
 
-        for(String optimizationStep : optimizationSteps) {
-            JsonObjectBuilder appliedSteps = Json.createObjectBuilder();
+
+    /**
+     * Apply one optimization step to the instructions, see applyOptimizationStep(String).
+     * @param optimizationStep The optimization step to apply.
+     * @param createResult False if the result of the step is not needed. No json is created for it then.
+     * @return The JsonObject with the result of the optimization step, an empty JsonObject if it is not created.
+     */
+    private JsonObject applyOptimizationStep(String optimizationStep, boolean createResult) {
+        boolean cachedAnalysis = AnalysisCache.isCached(optimizationStep);
+        if(cachedAnalysis) {
+            JsonObject cachedResult = analysisCache.findResult(optimizationStep, createResult);
+            if(cachedResult != null) {
+                return createResult ? cachedResult : SKIPPED_STEP_RESULT;
+            }
+        }
+        JsonObjectBuilder appliedSteps = createResult ? Json.createObjectBuilder() : null;
+        if(createResult) {
             appliedSteps.add("Optimization", optimizationStep);
-            switch (optimizationStep) {
-                case "LiveVariableAnalysis":
-                    LiveVariableAnalyser lva = new LiveVariableAnalyser(currentOrder, readoutParams, getHaltIndex());
+        }
+        switch (optimizationStep) {
+            case "LiveVariableAnalysis":
+                LiveVariableAnalyser lva = new LiveVariableAnalyser(currentOrder, readoutParams, getHaltIndex(), symbols);
+                lva.findDeadVariables();
+                if(createResult) {
                     appliedSteps.add("Result", lva.addDeadVariablesToJson());
-                    break;
-                case "ConstantPropagation":
-                    ConstantPropagator cp = new ConstantPropagator(currentOrder);
+                }
+                break;
+            case "ConstantPropagation":
+                ConstantPropagator cp = new ConstantPropagator(currentOrder, symbols);
+                cp.propagateConstants();
+                if(createResult) {
                     appliedSteps.add("Result", cp.addConstantVariablesToJson());
-                    break;
-                case "HybridDependencies":
-                    FindHybridDependencies fhd = new FindHybridDependencies(currentOrder);
-                    hybridDependencies = fhd.getHybridDependencies();
+                }
+                break;
+            case "HybridDependencies":
+                FindHybridDependencies fhd = new FindHybridDependencies(currentOrder);
+                hybridDependencies = fhd.getHybridDependencies();
+                if(createResult) {
                     appliedSteps.add("Result", fhd.addDeadVariablesToJson());
-                    break;
-                case "DeadCodeElimination":
-                    DeadCodeAnalyser dca = new DeadCodeAnalyser(currentOrder, indexToJumpTo);
-                    indizesOfDeadLineBlocks = dca.getIndizesOfDeadLines();
-                    deadLines = dca.getDeadLines();
-                    JsonArrayBuilder resultDeadCodeElimination = Json.createArrayBuilder();
+                }
+                break;
+            case "DeadCodeElimination":
+                DeadCodeAnalyser dca = new DeadCodeAnalyser(currentOrder, indexToJumpTo);
+                Set<Integer> indizesOfDeadLineBlocks = dca.getIndizesOfDeadLines();
+                ArrayList<Set<Integer>> deadLines = dca.getDeadLines();
+                JsonArrayBuilder resultDeadCodeElimination = createResult ? Json.createArrayBuilder() : null;
+                if(createResult) {
                     resultDeadCodeElimination.add(dca.addDeadVariablesToJson());
-                    if(!deadLines.isEmpty()) {
-                        DeadCodeEliminator dce = new DeadCodeEliminator(currentOrder, deadLines, indizesOfDeadLineBlocks);
+                }
+                if(!deadLines.isEmpty()) {
+                    DeadCodeEliminator dce = new DeadCodeEliminator(currentOrder, deadLines, indizesOfDeadLineBlocks);
+                    dce.eliminateDeadCode();
+                    indizesOfDeadLineBlocks.forEach(changedLists::set);
+                    for(int i = 0; i < deadLines.size(); i++) {
+                        if(!deadLines.get(i).isEmpty()) {
+                            changedLists.set(i);
+                        }
+                    }
+                    if(!indizesOfDeadLineBlocks.isEmpty() || deadLines.stream().anyMatch(x -> !x.isEmpty())) {
+                        analysisCache.programChanged(optimizationStep);
+                    }
+                    if(createResult) {
                         resultDeadCodeElimination.add(dce.addDeadVariablesToJson());
                     }
+                }
+                if(createResult) {
                     appliedSteps.add("Result", resultDeadCodeElimination);
-                    break;
-                case "ReOrdering":
-                    if(!hybridDependencies.isEmpty()) {
-                        ReOrdererForHybridExecution rofhe = new ReOrdererForHybridExecution(currentOrder, hybridDependencies);
-                        currentOrder = rofhe.reOrderInstructions();
+                }
+                break;
+            case "ReOrdering":
+                if(!hybridDependencies.isEmpty()) {
+                    ReOrdererForHybridExecution rofhe = new ReOrdererForHybridExecution(currentOrder, hybridDependencies);
+                    currentOrder = rofhe.reOrderInstructions();
+                    changedLists.set(0, currentOrder.size());
+                }
+                break;
+            case "ConstantFolding":
+                unshareParseTree();
+                ConstantFolder cf = new ConstantFolder(currentOrder);
+                ArrayList<ArrayList<Integer>> changedLines = cf.getAdaptedLines();
+                for(int i = 0; i < changedLines.size(); i++) {
+                    if(!changedLines.get(i).isEmpty()) {
+                        changedLists.set(i);
                     }
-                    break;
-                case "ConstantFolding":
-                    ConstantFolder cf = new ConstantFolder(currentOrder);
-                    ArrayList<ArrayList<Integer>> changedLines = cf.getAdaptedLines();
+                }
+                analysisCache.programChanged(optimizationStep);
+                if(createResult) {
                     JsonArrayBuilder constantFolderBuilder = Json.createArrayBuilder();
                     addLinesToJson(constantFolderBuilder, currentOrder, changedLines);
                     appliedSteps.add("ChangedLines", constantFolderBuilder);
-                    break;
-                case "LastPossibleQuantumExecution":
-                    if (!hybridDependencies.isEmpty()) {
-                        LatestPossibleQuantumExecuter jqe = new LatestPossibleQuantumExecuter(hybridDependencies.get(0), currentOrder.get(0));
-                        ArrayList<InstructionNode> reOrdered = jqe.reorderInstructions();
+                }
+                break;
+            case "LastPossibleQuantumExecution":
+                if (!hybridDependencies.isEmpty()) {
+                    LatestPossibleQuantumExecuter jqe = new LatestPossibleQuantumExecuter(hybridDependencies.get(0), currentOrder.get(0));
+                    ArrayList<InstructionNode> reOrdered = jqe.reorderInstructions();
+                    if(createResult) {
                         JsonArrayBuilder latestPossibleQuantumExecutorJson = Json.createArrayBuilder();
                         addInstructionsToJson(latestPossibleQuantumExecutorJson, new ArrayList<>(Collections.singletonList(reOrdered)));
                         appliedSteps.add("Result", latestPossibleQuantumExecutorJson);
-                        if(!reOrdered.isEmpty()) {
-                            currentOrder.set(0, reOrdered);
-                        }
                     }
-                    break;
-            }
-            Set<String> transformations = new HashSet<>(Arrays.asList("DeadCodeElimination", "ReOrdering", "ConstantFolding"));
-            if(transformations.contains(optimizationStep)) {
+                    if(!reOrdered.isEmpty()) {
+                        currentOrder.set(0, reOrdered);
+                        changedLists.set(0);
+                    }
+                }
+                break;
+        }
+        JsonObject result = SKIPPED_STEP_RESULT;
+        if(createResult) {
+            if(TRANSFORMATIONS.contains(optimizationStep)) {
                 JsonArrayBuilder currentOrd = Json.createArrayBuilder();
-                addInstructionsToJson(currentOrd, currentOrder);
+                addCurrentOrderToJson(currentOrd);
                 appliedSteps.add("Result", currentOrd);
             }
-            optimizationStepsBuilder.add(appliedSteps);
+            result = appliedSteps.build();
         }
-        jsonBuilder.add("Optimizations", optimizationStepsBuilder);
-        JsonArrayBuilder finalResult = Json.createArrayBuilder();
-        addInstructionsToJson(finalResult, currentOrder);
-        jsonBuilder.add("FinalResult", finalResult);
-        return jsonBuilder;
+        if(cachedAnalysis) {
+            analysisCache.analysisApplied(optimizationStep, result);
+        }
+        return result;
     }
 
 
+    /**
+     * Add the elements of the declared memory regions that are referenced by the program to the DECLARE instructions,
+     * so each referenced element depends on its declaration, and to the LOAD and STORE instructions accessing them.
+     * The index of a LOAD or STORE is taken from the constant propagation. If it is not constant, or the index is read
+     * from a region that is written by a STORE, which the propagation does not follow, the instruction may access all
+     * referenced elements of the region. A region accessed at an unknown index is declared as a parameter of its own,
+     * which all accesses to the region use, see InstructionNode.accessMemory.
+     * Regions that share their memory (DECLARE y REAL[4] SHARING x) are not independent. An access through a region
+     * that shares the memory of another one is taken to be an access at an unknown index to all regions that share
+     * the memory, so it depends on every access to them.
+     * @param instructionList The instructions of the program.
+     * @param readoutParams The classical params whose values are read out at the end of the program.
+     */
+    private void declareReferencedMemory(ArrayList<ArrayList<InstructionNode>> instructionList, Set<String> readoutParams) {
+        Map<String, MemoryRegion> regions = new HashMap<>();
+        Set<String> storedRegions = new HashSet<>();
+        Set<String> referencedAddresses = new HashSet<>(readoutParams);
+        for (ArrayList<InstructionNode> list : instructionList) {
+            for (InstructionNode node : list) {
+                if (node.getMemoryRegion() != null) {
+                    regions.put(node.getMemoryRegion().getName(), node.getMemoryRegion());
+                }
+                if (node.getMemoryAccess() != null && node.getMemoryAccess().isStore()) {
+                    storedRegions.add(node.getMemoryAccess().getRegion());
+                }
+                node.getClassicalParameters().forEach(cv -> referencedAddresses.add(cv.getName()));
+            }
+        }
+        Map<String, List<MemoryRegion>> sharedMemory = getRegionsSharingMemory(regions);
+        for (String stored : new ArrayList<>(storedRegions)) {
+            sharedMemory.getOrDefault(stored, Collections.emptyList()).forEach(x -> storedRegions.add(x.getName()));
+        }
+
+        ConstantPropagator cp = new ConstantPropagator(instructionList, symbols);
+        cp.determineClassicalValues();
+        Map<InstructionNode, Integer> indices = new HashMap<>();
+        for (ArrayList<InstructionNode> list : instructionList) {
+            for (InstructionNode node : list) {
+                MemoryAccess access = node.getMemoryAccess();
+                MemoryRegion region = access == null ? null : regions.get(access.getRegion());
+                if (region == null) {
+                    continue;
+                }
+                if (region.getSharedRegion() != null) {
+                    // The elements of the region are elements of other regions as well, so the index does not tell
+                    // which parameter is accessed
+                    sharedMemory.get(region.getName()).forEach(x -> referencedAddresses.add(x.getName()));
+                    indices.put(node, -1);
+                    continue;
+                }
+                int index = getConstantIndex(node, access, cp, regions, storedRegions);
+                if (index >= 0 && index < region.getLength()) {
+                    referencedAddresses.add(region.getElementName(index));
+                } else {
+                    referencedAddresses.add(region.getName());
+                }
+                indices.put(node, index);
+            }
+        }
+
+        for (ArrayList<InstructionNode> list : instructionList) {
+            for (InstructionNode node : list) {
+                node.declareReferencedElements(referencedAddresses, symbols);
+                if (!indices.containsKey(node)) {
+                    continue;
+                }
+                MemoryRegion region = regions.get(node.getMemoryAccess().getRegion());
+                if (region.getSharedRegion() != null) {
+                    sharedMemory.get(region.getName()).forEach(x -> node.accessMemory(x, referencedAddresses, -1));
+                } else {
+                    node.accessMemory(region, referencedAddresses, indices.get(node));
+                }
+            }
+        }
+    }
+
+    /**
+     * Group the declared memory regions that share their memory. A region that shares the memory of another one
+     * belongs to the group of the region whose memory it shares, so the group of a region contains the region at the
+     * root of the SHARING declarations and all regions that directly or indirectly share its memory.
+     * @param regions The declared memory regions by their name.
+     * @return The regions of the group of every region that shares memory with another one, by the name of the region.
+     * Regions that share no memory are not contained.
+     */
+    private static Map<String, List<MemoryRegion>> getRegionsSharingMemory(Map<String, MemoryRegion> regions) {
+        Map<String, List<MemoryRegion>> groups = new HashMap<>();
+        for (MemoryRegion region : regions.values()) {
+            if (region.getSharedRegion() == null) {
+                continue;
+            }
+            MemoryRegion root = region;
+            Set<String> visited = new HashSet<>();
+            while (root.getSharedRegion() != null && regions.containsKey(root.getSharedRegion())
+                    && visited.add(root.getName())) {
+                root = regions.get(root.getSharedRegion());
+            }
+            groups.computeIfAbsent(root.getName(), x -> new ArrayList<>()).add(region);
+        }
+        Map<String, List<MemoryRegion>> sharedMemory = new HashMap<>();
+        for (Map.Entry<String, List<MemoryRegion>> group : groups.entrySet()) {
+            List<MemoryRegion> members = group.getValue();
+            if (!members.contains(regions.get(group.getKey()))) {
+                members.add(0, regions.get(group.getKey()));
+            }
+            members.forEach(x -> sharedMemory.put(x.getName(), members));
+        }
+        return sharedMemory;
+    }
+
+    /**
+     * Get the index of the element a LOAD or STORE instruction accesses.
+     * @param node The LOAD or STORE instruction.
+     * @param access The memory access of the instruction.
+     * @param cp The constant propagator that determined the classical values of the program.
+     * @param regions The declared memory regions by their name.
+     * @param storedRegions The names of the regions written by a STORE.
+     * @return The index or -1 if it is not known.
+     */
+    private static int getConstantIndex(InstructionNode node, MemoryAccess access, ConstantPropagator cp,
+                                        Map<String, MemoryRegion> regions, Set<String> storedRegions) {
+        String indexAddress = access.getIndexAddress();
+        boolean indexIsStored = storedRegions.stream()
+                .filter(regions::containsKey)
+                .anyMatch(region -> regions.get(region).getIndexOfElement(indexAddress) >= 0);
+        if (indexIsStored) {
+            return -1;
+        }
+        ClassicalVariable indexVariable = node.getClassicalParameters().stream()
+                .filter(cv -> cv.getUsage() == ClassicalUsage.USAGE && cv.getName().equals(indexAddress))
+                .findFirst()
+                .orElse(null);
+        Complex value = indexVariable == null ? null : cp.getConstantValue(indexVariable);
+        if (value == null || value.imag() != 0 || value.real() < 0 || value.real() != Math.rint(value.real())
+                || value.real() > Integer.MAX_VALUE) {
+            return -1;
+        }
+        return (int) value.real();
+    }
+
     /**
      * Let instructions create their linking.
      * @param instructionList Instruction lists that need parameter links.
      */
     private void createLinksOfInstructions(ArrayList<ArrayList<InstructionNode>> instructionList) {
+        instructionList.forEach(list -> list.forEach(node -> node.internParameters(symbols)));
         for (ArrayList<InstructionNode> instruction : instructionList) {
-            Map<String, InstructionNode> lastInstructionOfParams = new HashMap<>();
+            InstructionNode[] lastInstructionOfParams = new InstructionNode[symbols.size()];
             for (InstructionNode node : instruction) {
                 node.setParameterLinks(lastInstructionOfParams);
             }
@@ -414,6 +1248,17 @@ public class OptimizingQuil {
         }
     }
 
+    /**
+     * Adds the current order of the instructions to a json array in the form of addInstructionsToJson. The arrays of
+     * instruction lists that did not change since the last call are shared with the earlier results.
+     * @param json The jsonArrayBuilder to add the instructions to.
+     */
+    private void addCurrentOrderToJson(JsonArrayBuilder json) {
+        currentOrderSnapshot = currentOrderSnapshot.update(currentOrder, changedLists);
+        changedLists.clear();
+        currentOrderSnapshot.addToJson(json);
+    }
+
     /**
      * Adds the quil code to the instructions.
      */
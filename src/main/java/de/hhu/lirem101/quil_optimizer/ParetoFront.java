@@ -0,0 +1,213 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.stream.JsonGenerator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Pareto front of the programs found while fuzzing optimizations: the programs that are not dominated by another
+ * program in all four metrics (number of instructions, number of quantum instructions, quantum calculation time and
+ * wall time). A program dominates another one if it is not worse in any metric. So of several programs with the same
+ * metrics, only the first one is kept. The original program is part of the front with the index -1.
+ * The programs are kept sorted lexicographically by their metrics. A program can only be dominated by programs before
+ * it and only dominate programs after it, so only these have to be compared with it.
+ */
+public class ParetoFront {
+    private static final int METRICS = 4;
+
+    private final List<int[]> points = new ArrayList<>();
+    private final List<Integer> indices = new ArrayList<>();
+
+    /**
+     * Constructor for the ParetoFront class, initialized with the metrics of the original program.
+     * @param numberOfInstructions The number of instructions of the original program.
+     * @param quantumInstructions The number of quantum instructions of the original program.
+     * @param quantumCalculationTime The quantum calculation time of the original program.
+     * @param wallTime The wall time of the original program.
+     */
+    public ParetoFront(int numberOfInstructions, int quantumInstructions, int quantumCalculationTime, int wallTime) {
+        add(-1, numberOfInstructions, quantumInstructions, quantumCalculationTime, wallTime);
+    }
+
+    /**
+     * Creates the front of the original program from the original metrics of a fuzzing result.
+     * @param result The fuzzing result.
+     * @return The front with only the original program.
+     */
+    static ParetoFront ofOriginal(JsonObject result) {
+        return new ParetoFront(FuzzingMinima.sum(result.getJsonArray("OriginalNumberOfInstructions")),
+                FuzzingMinima.sum(result.getJsonArray("OriginalNumberOfQuantumInstructions")),
+                result.getInt("OriginalQuantumCalculationTime"),
+                FuzzingMinima.sum(result.getJsonArray("OriginalWallTime")));
+    }
+
+    /**
+     * Adds the metrics of an iteration to the front. The iterations have to be given in ascending order. An iteration
+     * with a metric that is null, because the iteration failed before it was calculated, is ignored.
+     * @param index The index of the iteration.
+     * @param numberOfInstructions The number of instructions after the iteration.
+     * @param quantumInstructions The number of quantum instructions after the iteration.
+     * @param quantumCalculationTime The quantum calculation time after the iteration.
+     * @param wallTime The wall time after the iteration.
+     * @return True if the iteration is part of the front, i.e. not dominated by an earlier iteration.
+     */
+    public boolean add(int index, Integer numberOfInstructions, Integer quantumInstructions,
+                       Integer quantumCalculationTime, Integer wallTime) {
+        if(numberOfInstructions == null || quantumInstructions == null || quantumCalculationTime == null
+                || wallTime == null) {
+            return false;
+        }
+        int[] point = {numberOfInstructions, quantumInstructions, quantumCalculationTime, wallTime};
+        int position = findPosition(point);
+        for(int i = 0; i < position; i++) {
+            if(dominates(points.get(i), point)) {
+                return false;
+            }
+        }
+        if(position < points.size() && Arrays.equals(points.get(position), point)) {
+            return false;
+        }
+        int kept = position;
+        for(int i = position; i < points.size(); i++) {
+            if(!dominates(point, points.get(i))) {
+                points.set(kept, points.get(i));
+                indices.set(kept, indices.get(i));
+                kept++;
+            }
+        }
+        points.subList(kept, points.size()).clear();
+        indices.subList(kept, indices.size()).clear();
+        points.add(position, point);
+        indices.add(position, index);
+        return true;
+    }
+
+    /**
+     * Adds the front of a fuzzing result that covers later iterations than all iterations added so far.
+     * @param result The fuzzing result.
+     */
+    void add(JsonObject result) {
+        JsonArray front = result.getJsonArray("ParetoFront");
+        if(front == null) {
+            return;
+        }
+        for(int i = 0; i < front.size(); i++) {
+            JsonObject point = front.getJsonObject(i);
+            add(point.getInt("Iteration"), point.getInt("NumberOfInstructions"),
+                    point.getInt("NumberOfQuantumInstructions"), point.getInt("QuantumCalculationTime"),
+                    point.getInt("WallTime"));
+        }
+    }
+
+    private int findPosition(int[] point) {
+        int low = 0;
+        int high = points.size();
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(compare(points.get(middle), point) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int compare(int[] a, int[] b) {
+        for(int i = 0; i < METRICS; i++) {
+            if(a[i] != b[i]) {
+                return Integer.compare(a[i], b[i]);
+            }
+        }
+        return 0;
+    }
+
+    private static boolean dominates(int[] a, int[] b) {
+        for(int i = 0; i < METRICS; i++) {
+            if(a[i] > b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The indices of the iterations in the front, sorted lexicographically by their metrics.
+     */
+    public List<Integer> getIndices() {
+        return new ArrayList<>(indices);
+    }
+
+    private JsonArrayBuilder createJsonArray() {
+        JsonArrayBuilder front = Json.createArrayBuilder();
+        for(int i = 0; i < points.size(); i++) {
+            int[] point = points.get(i);
+            front.add(Json.createObjectBuilder()
+                    .add("Iteration", indices.get(i))
+                    .add("NumberOfInstructions", point[0])
+                    .add("NumberOfQuantumInstructions", point[1])
+                    .add("QuantumCalculationTime", point[2])
+                    .add("WallTime", point[3]));
+        }
+        return front;
+    }
+
+    /**
+     * Adds the front to a JsonObjectBuilder.
+     * @param result The JsonObjectBuilder to add the front to.
+     */
+    void addToJson(JsonObjectBuilder result) {
+        result.add("ParetoFront", createJsonArray());
+    }
+
+    /**
+     * Writes the front into the current object of a JsonGenerator.
+     * @param generator The JsonGenerator to write the front with.
+     */
+    void writeToJson(JsonGenerator generator) {
+        generator.write("ParetoFront", createJsonArray().build());
+    }
+
+    /**
+     * Prints the size of the front.
+     */
+    void print() {
+        System.out.println("Pareto front: " + points.size() + " non-dominated programs");
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+import org.snt.inmemantlr.tree.ParseTree;
+import org.snt.inmemantlr.tree.ParseTreeNode;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Copies the parse tree nodes an OptimizingQuil object refers to. Transformations like the constant folding change
+ * the parse tree of the instructions they adapt, so an independent copy of an OptimizingQuil object needs its own parse
+ * tree. Nodes that were created by a transformation have a parent in the parse tree, but are not a child of it. They
+ * are copied the same way, i.e. the copy has the copied parent but is not a child of it.
+ */
+class ParseTreeCopier {
+    private final ParseTree tree = new ParseTree("copy", "copy");
+    private final Map<ParseTreeNode, ParseTreeNode> copies = new IdentityHashMap<>();
+
+    /**
+     * Get the copy of a parse tree node. The tree the node belongs to is copied on the first call.
+     * @param node The node to get the copy of.
+     * @return The copy of the node, null if the node is null.
+     */
+    ParseTreeNode getCopy(ParseTreeNode node) {
+        if(node == null) {
+            return null;
+        }
+        ParseTreeNode copy = copies.get(node);
+        if(copy == null) {
+            copySubtree(getRootOfSubtree(node));
+            copy = copies.get(node);
+        }
+        return copy;
+    }
+
+    /**
+     * Get the root of the subtree the node belongs to. This is either the root of the parse tree or a node that is not
+     * a child of its parent.
+     * @param node The node to get the root of its subtree for.
+     * @return The root of the subtree.
+     */
+    private static ParseTreeNode getRootOfSubtree(ParseTreeNode node) {
+        while(node.getParent() != null && isChildOfParent(node)) {
+            node = node.getParent();
+        }
+        return node;
+    }
+
+    private static boolean isChildOfParent(ParseTreeNode node) {
+        for(ParseTreeNode child : node.getParent().getChildren()) {
+            if(child == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy a subtree. The parent of its root is copied first, if it has not been copied yet.
+     * @param root The root of the subtree.
+     */
+    private void copySubtree(ParseTreeNode root) {
+        ParseTreeNode parentCopy = getCopy(root.getParent());
+        copies.put(root, copyNode(root, parentCopy));
+        ArrayDeque<ParseTreeNode> queue = new ArrayDeque<>();
+        queue.add(root);
+        while(!queue.isEmpty()) {
+            ParseTreeNode node = queue.poll();
+            ParseTreeNode copy = copies.get(node);
+            for(ParseTreeNode child : node.getChildren()) {
+                ParseTreeNode childCopy = copyNode(child, copy);
+                copy.addChild(childCopy);
+                copies.put(child, childCopy);
+                queue.add(child);
+            }
+        }
+    }
+
+    private ParseTreeNode copyNode(ParseTreeNode node, ParseTreeNode parentCopy) {
+        return tree.newNode(parentCopy, node.getRule(), node.getLabel(), node.getSidx(), node.getEidx(),
+                node.getLine(), node.getCharPositionInLine());
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+/**
+ * Calculates a 64-bit hash over a sequence of values. The values are combined in the FNV-1a way and the result is
+ * mixed at the end, so that states which only differ slightly get very different hashes.
+ */
+class ProgramStateHasher {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private long hash = FNV_OFFSET_BASIS;
+
+    ProgramStateHasher add(long value) {
+        hash = (hash ^ value) * FNV_PRIME;
+        return this;
+    }
+
+    ProgramStateHasher add(boolean value) {
+        return add(value ? 1 : 0);
+    }
+
+    ProgramStateHasher add(double value) {
+        return add(Double.doubleToLongBits(value));
+    }
+
+    /**
+     * Add a string. Its length is added as well, so that consecutive strings cannot be shifted into each other. Null
+     * is distinguished from all strings.
+     * @param value The string to add.
+     * @return This hasher.
+     */
+    ProgramStateHasher add(String value) {
+        if(value == null) {
+            return add(-1L);
+        }
+        add(value.length());
+        for(int i = 0; i < value.length(); i++) {
+            add(value.charAt(i));
+        }
+        return this;
+    }
+
+    ProgramStateHasher add(Enum<?> value) {
+        return add(value == null ? null : value.name());
+    }
+
+    /**
+     * @return The mixed hash of all values added so far.
+     */
+    long getHash() {
+        long z = hash;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
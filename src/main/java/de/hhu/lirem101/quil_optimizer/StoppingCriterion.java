@@ -0,0 +1,103 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+/**
+ * Decides when a fuzzing run or search is stopped before all iterations are executed: when a time budget is used up
+ * or when the last iterations did not improve any of the four metrics. The iteration that is running when the run is
+ * stopped is finished, later iterations are not executed. The results of the executed iterations are saved as usual.
+ */
+public class StoppingCriterion {
+    /**
+     * Never stops a run early.
+     */
+    public static final StoppingCriterion NONE = new StoppingCriterion(0, 0);
+
+    private final long timeBudgetMillis;
+    private final int patience;
+
+    /**
+     * Constructor for the StoppingCriterion class.
+     * @param timeBudgetMillis The time in milliseconds after which no further iteration is started. There is no time
+     *                         limit if it is not positive.
+     * @param patience The number of iterations in a row without improvement of any metric after which the run is
+     *                 stopped. Runs are not stopped for missing improvements if it is not positive.
+     */
+    public StoppingCriterion(long timeBudgetMillis, int patience) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.patience = patience;
+    }
+
+    /**
+     * Starts the time budget of a run.
+     * @return The progress of the run.
+     */
+    Progress start() {
+        return new Progress();
+    }
+
+    /**
+     * The progress of one run, updated after every iteration.
+     */
+    class Progress {
+        private final long deadline = System.nanoTime() + timeBudgetMillis * 1000000;
+        private int iterationsWithoutImprovement = 0;
+        private String reason = null;
+
+        /**
+         * Counts a finished iteration.
+         * @param improved True if the iteration improved at least one metric.
+         */
+        void iterationFinished(boolean improved) {
+            iterationsWithoutImprovement = improved ? 0 : iterationsWithoutImprovement + 1;
+            if(patience > 0 && iterationsWithoutImprovement >= patience && reason == null) {
+                reason = "No improvement in the last " + patience + " iterations";
+            }
+        }
+
+        /**
+         * @return True if no further iteration should be started.
+         */
+        boolean isStopped() {
+            if(reason == null && timeBudgetMillis > 0 && System.nanoTime() - deadline >= 0) {
+                reason = "Time budget of " + timeBudgetMillis + " ms used up";
+            }
+            return reason != null;
+        }
+
+        /**
+         * @return Why the run was stopped early, null if it was not stopped.
+         */
+        String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer;
+
+/**
+ * How much of every iteration is written into the json file of a fuzzing run.
+ */
+public enum Verbosity {
+    /**
+     * Only the applied optimization steps and the metrics of the optimized program. The results of the single steps
+     * are not created at all.
+     */
+    SUMMARY("summary"),
+    /**
+     * The results of all steps, with the programs after the transformations as differences, see DeltaEncoding.
+     */
+    DELTA("delta"),
+    /**
+     * The results of all steps, with the whole program after every transformation.
+     */
+    FULL("full");
+
+    private final String name;
+
+    Verbosity(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The name of the verbosity on the command line.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the verbosity with the given name.
+     * @param name The name of the verbosity on the command line.
+     * @return The verbosity.
+     */
+    public static Verbosity fromName(String name) {
+        for (Verbosity verbosity : values()) {
+            if (verbosity.name.equals(name)) {
+                return verbosity;
+            }
+        }
+        throw new IllegalArgumentException("Unknown verbosity " + name + ".");
+    }
+}
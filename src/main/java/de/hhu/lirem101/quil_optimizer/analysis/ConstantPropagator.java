@@ -35,6 +35,7 @@ import de.hhu.lirem101.quil_optimizer.quil_variable.ClassicalUsage;
 import de.hhu.lirem101.quil_optimizer.quil_variable.ClassicalVariable;
 import de.hhu.lirem101.quil_optimizer.quil_variable.QuantumCliffordState;
 import de.hhu.lirem101.quil_optimizer.quil_variable.QuantumVariable;
+import de.hhu.lirem101.quil_optimizer.quil_variable.SymbolTable;
 import org.apache.commons.numbers.complex.Complex;
 import org.snt.inmemantlr.tree.ParseTreeNode;
 
@@ -51,13 +52,20 @@ public class ConstantPropagator {
 
     private final ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>();
     private final ArrayList<ArrayList<BoxedVariableProperties>> newConstantValues = new ArrayList<>();
+    private final SymbolTable symbols;
+    // The values found by determineClassicalValues, which does not save them in the Variable objects
+    private final Map<ClassicalVariable, Complex> unsavedValues = new IdentityHashMap<>();
+    private boolean saveValues = true;
     boolean calculated = false;
 
     /**
      * A class to propagate constant values through the instructions.
      * @param instructions The instructions to propagate the constant values through as list of lists.
+     * @param symbols The symbol table of the program, the propagation keeps its state indexed by the ids of the
+     *                variables.
      */
-    public ConstantPropagator(ArrayList<ArrayList<InstructionNode>> instructions) {
+    public ConstantPropagator(ArrayList<ArrayList<InstructionNode>> instructions, SymbolTable symbols) {
+        this.symbols = symbols;
         this.instructions.addAll(instructions);
         for(ArrayList<InstructionNode> i : instructions) {
             newConstantValues.add(new ArrayList<>());
@@ -118,10 +126,59 @@ public class ConstantPropagator {
      */
     public void propagateConstants() {
         calculated = true;
+        internVariables();
         propagateClassicalValues();
         propagateQuantumValues();
     }
 
+    /**
+     * Determine the constant values of the classical variables like propagateConstants, but without saving them in the
+     * Variable objects, so the program is not changed. The values can be fetched with getConstantValue.
+     */
+    public void determineClassicalValues() {
+        calculated = true;
+        saveValues = false;
+        internVariables();
+        propagateClassicalValues();
+    }
+
+    /**
+     * Returns the constant value of a classical variable of the instructions.
+     * @param variable The classical variable.
+     * @return The constant value or null if the variable is not known to be constant.
+     */
+    public Complex getConstantValue(ClassicalVariable variable) {
+        if(!calculated) {
+            propagateConstants();
+        }
+        return isConstant(variable) ? getValue(variable) : null;
+    }
+
+    private void internVariables() {
+        for(ArrayList<InstructionNode> instructionList : instructions) {
+            for(InstructionNode instruction : instructionList) {
+                instruction.getQuantumParameters().forEach(symbols::idOf);
+                instruction.getClassicalParameters().forEach(symbols::idOf);
+            }
+        }
+    }
+
+    private boolean isConstant(ClassicalVariable variable) {
+        return variable.isConstant() || unsavedValues.containsKey(variable);
+    }
+
+    private Complex getValue(ClassicalVariable variable) {
+        return variable.isConstant() ? variable.getValue() : unsavedValues.get(variable);
+    }
+
+    private void setValue(ClassicalVariable variable, Complex value) {
+        if(saveValues) {
+            variable.setValue(value);
+        } else {
+            unsavedValues.put(variable, value);
+        }
+    }
+
     /**
      * Propagate quantum constant values through the instructions. Used values are constant if they are used for the
      * first time (they get assigned X positive) or if they have been used before and had a constant value after the
@@ -131,8 +188,8 @@ public class ConstantPropagator {
         if(instructions.isEmpty()) {
             return;
         }
-        ArrayList<Set<String>> qubitsInUse = calculateQubitsInUse();
-        ArrayList<Set<String>> qubitsUsedOnlyInOneBlock = calculateQubitsOnlyInOneBlock(qubitsInUse);
+        ArrayList<BitSet> qubitsInUse = calculateQubitsInUse();
+        ArrayList<BitSet> qubitsUsedOnlyInOneBlock = calculateQubitsOnlyInOneBlock(qubitsInUse);
 
         calculateConstantQubits(instructions.get(0), qubitsInUse.get(0), newConstantValues.get(0));
 
@@ -145,30 +202,30 @@ public class ConstantPropagator {
     /**
      * Calculates which qubits are constant in the given instructions.
      * @param instructionList The list of instructions to calculate the constant qubits for.
-     * @param newQuantumVars The quantum variables that should be considered in this method.
+     * @param newQuantumVars The ids of the quantum variables that should be considered in this method.
      * @param foundConstantValues The list of constant values that have been found so far.
      */
-    private void calculateConstantQubits(ArrayList<InstructionNode> instructionList, Set<String> newQuantumVars, ArrayList<BoxedVariableProperties> foundConstantValues) {
-        Map<String, QuantumCliffordState> qubitStates = new HashMap<>();
-        Set<String> unknownQubits = new HashSet<>();
+    private void calculateConstantQubits(ArrayList<InstructionNode> instructionList, BitSet newQuantumVars, ArrayList<BoxedVariableProperties> foundConstantValues) {
+        QuantumCliffordState[] qubitStates = new QuantumCliffordState[symbols.size()];
+        BitSet unknownQubits = new BitSet();
         for (InstructionNode instruction : instructionList) {
-            ArrayList<QuantumVariable> quantumVariables = instruction.getQuantumParameters().stream()
-                    .filter(variable -> newQuantumVars.contains(variable.getName()))
-                    .collect(Collectors.toCollection(ArrayList::new));
-            for (QuantumVariable variable : quantumVariables) {
-                String variableName = variable.getName();
+            for (QuantumVariable variable : instruction.getQuantumParameters()) {
+                int id = variable.getId();
+                if(!newQuantumVars.get(id)) {
+                    continue;
+                }
                 QuantumCliffordState stateBeforeGate = variable.getCliffordStateBeforeGate();
                 QuantumCliffordState stateAfterGate = variable.getCliffordStateBeforeGate();
-                if(stateBeforeGate == null && !unknownQubits.contains(variableName)) {
-                    QuantumCliffordState newState = qubitStates.getOrDefault(variableName, QuantumCliffordState.X_POSITIVE);
+                if(stateBeforeGate == null && !unknownQubits.get(id)) {
+                    QuantumCliffordState newState = qubitStates[id] != null ? qubitStates[id] : QuantumCliffordState.X_POSITIVE;
                     variable.setCliffordStateBeforeGate(newState);
-                    qubitStates.remove(variableName);
-                    foundConstantValues.add(new BoxedVariableProperties(variableName, instruction.getLine(), newState));
+                    qubitStates[id] = null;
+                    foundConstantValues.add(new BoxedVariableProperties(variable.getName(), instruction.getLine(), newState));
                 }
                 if(stateAfterGate != null) {
-                    qubitStates.put(variableName, stateAfterGate);
+                    qubitStates[id] = stateAfterGate;
                 } else {
-                    unknownQubits.add(variableName);
+                    unknownQubits.set(id);
                 }
             }
         }
@@ -181,7 +238,7 @@ public class ConstantPropagator {
      */
     private void propagateClassicalValues() {
         for(int i = 0; i < instructions.size(); i++) {
-            Map<String, Complex> variableValues = new HashMap<>();
+            Complex[] variableValues = new Complex[symbols.size()];
             for(InstructionNode instruction : instructions.get(i)) {
                 checkIfClassicalValuesAreConstant(instruction, variableValues, newConstantValues.get(i));
             }
@@ -191,10 +248,10 @@ public class ConstantPropagator {
     /**
      * Check if the classical values are constant and save the new constant values in the newConstantValues list.
      * @param instruction The instruction to check.
-     * @param variableValues The values of the variables that are known to be constant.
+     * @param variableValues The values of the variables that are known to be constant, indexed by their ids.
      * @param foundConstantValues The list of constant values that have been found so far.
      */
-    private void checkIfClassicalValuesAreConstant(InstructionNode instruction, Map<String, Complex> variableValues, ArrayList<BoxedVariableProperties> foundConstantValues) {
+    private void checkIfClassicalValuesAreConstant(InstructionNode instruction, Complex[] variableValues, ArrayList<BoxedVariableProperties> foundConstantValues) {
         ArrayList<ClassicalVariable> classicalVariables = instruction.getClassicalParameters();
         ParseTreeNode ptNode = instruction.getParseTreeNode();
         ParseTreeNode moveNode = getMoveNode(ptNode);
@@ -202,16 +259,16 @@ public class ConstantPropagator {
             handleMoveNode(classicalVariables, moveNode, variableValues, foundConstantValues);
         }
         for(ClassicalVariable variable : classicalVariables) {
-            String variableName = variable.getName();
-            if(variable.isConstant()) {
-                variableValues.put(variableName, variable.getValue());
-            } else if(variable.getUsage() == ClassicalUsage.USAGE && variableValues.containsKey(variableName)) {
-                variable.setValue(variableValues.get(variableName));
+            int id = variable.getId();
+            if(isConstant(variable)) {
+                variableValues[id] = getValue(variable);
+            } else if(variable.getUsage() == ClassicalUsage.USAGE && variableValues[id] != null) {
+                setValue(variable, variableValues[id]);
                 boolean assignment = variable.getUsage() == ClassicalUsage.ASSIGNMENT;
-                BoxedVariableProperties boxedVariable = new BoxedVariableProperties(variableName, instruction.getLine(), variableValues.get(variableName), assignment);
+                BoxedVariableProperties boxedVariable = new BoxedVariableProperties(variable.getName(), instruction.getLine(), variableValues[id], assignment);
                 foundConstantValues.add(boxedVariable);
             } else if(variable.getUsage() == ClassicalUsage.ASSIGNMENT) {
-                variableValues.remove(variableName);
+                variableValues[id] = null;
             }
         }
     }
@@ -220,10 +277,10 @@ public class ConstantPropagator {
      * Handle the MOVE node. If the value is a constant, the variable is set to this constant value.
      * @param classicalVariables The classical variables that have constant values.
      * @param moveNode The MOVE node.
-     * @param variableValues The values of the variables that are known to be constant.
+     * @param variableValues The values of the variables that are known to be constant, indexed by their ids.
      * @param foundConstantValues The list of constant values that have been found so far.
      */
-    private void handleMoveNode(ArrayList<ClassicalVariable> classicalVariables, ParseTreeNode moveNode, Map<String, Complex> variableValues, ArrayList<BoxedVariableProperties> foundConstantValues) {
+    private void handleMoveNode(ArrayList<ClassicalVariable> classicalVariables, ParseTreeNode moveNode, Complex[] variableValues, ArrayList<BoxedVariableProperties> foundConstantValues) {
         ClassicalVariable assignedVariable = classicalVariables.get(0);
         ParseTreeNode numberVar = moveNode.getChildren().get(1);
         Complex value = Complex.ofCartesian(0, 0);
@@ -231,8 +288,8 @@ public class ConstantPropagator {
 
         if(numberVar.getRule().equals("addr")) {
             ClassicalVariable usedVariable = classicalVariables.get(1);
-            if(usedVariable.isConstant()) {
-                value = usedVariable.getValue();
+            if(isConstant(usedVariable)) {
+                value = getValue(usedVariable);
                 foundValue = true;
             }
         } else if(numberVar.getRule().equals("number")) {
@@ -250,10 +307,10 @@ public class ConstantPropagator {
             foundValue = true;
         }
         if(foundValue) {
-            assignedVariable.setValue(value);
+            setValue(assignedVariable, value);
             BoxedVariableProperties boxedVariable = new BoxedVariableProperties(assignedVariable.getName(), moveNode.getLine(), value, true);
             foundConstantValues.add(boxedVariable);
-            variableValues.put(assignedVariable.getName(), value);
+            variableValues[assignedVariable.getId()] = value;
         }
     }
 
@@ -277,14 +334,14 @@ public class ConstantPropagator {
 
     /**
      * Calculate which qubits are used in which instruction blocks.
-     * @return A list of sets of qubits that are used in each instruction block.
+     * @return A list of sets of the ids of the qubits that are used in each instruction block.
      */
-    private ArrayList<Set<String>> calculateQubitsInUse() {
-        ArrayList<Set<String>> qubitsInUse = new ArrayList<>();
+    private ArrayList<BitSet> calculateQubitsInUse() {
+        ArrayList<BitSet> qubitsInUse = new ArrayList<>();
         for (ArrayList<InstructionNode> instructionList : instructions) {
-            Set<String> qubits = new HashSet<>();
+            BitSet qubits = new BitSet();
             for (InstructionNode instruction : instructionList) {
-                qubits.addAll(instruction.getQuantumParameters().stream().map(QuantumVariable::getName).collect(Collectors.toSet()));
+                instruction.getQuantumParameters().forEach(qv -> qubits.set(qv.getId()));
             }
             qubitsInUse.add(qubits);
         }
@@ -293,24 +350,24 @@ public class ConstantPropagator {
 
     /**
      * Calculate which qubits are only used in one instruction block.
-     * @param qubitsInUse The qubits that are used in each instruction block.
-     * @return A list of sets of qubits that are only used in the respective instruction block.
+     * @param qubitsInUse The ids of the qubits that are used in each instruction block.
+     * @return A list of sets of the ids of the qubits that are only used in the respective instruction block.
      */
-    private ArrayList<Set<String>> calculateQubitsOnlyInOneBlock(ArrayList<Set<String>> qubitsInUse) {
-        ArrayList<String> allQubits = new ArrayList<>();
-        for(Set<String> qubits : qubitsInUse) {
-            allQubits.addAll(qubits);
+    private ArrayList<BitSet> calculateQubitsOnlyInOneBlock(ArrayList<BitSet> qubitsInUse) {
+        BitSet usedOnce = new BitSet();
+        BitSet usedMoreThanOnce = new BitSet();
+        for(BitSet qubits : qubitsInUse) {
+            BitSet usedBefore = (BitSet) qubits.clone();
+            usedBefore.and(usedOnce);
+            usedMoreThanOnce.or(usedBefore);
+            usedOnce.or(qubits);
         }
-        Set<String> qubitsUsedOnce = allQubits.stream()
-                .filter(qubit -> Collections.frequency(allQubits, qubit) == 1)
-                .collect(Collectors.toSet());
-        ArrayList<Set<String>> qubitsInOnlyOneBlock = new ArrayList<>();
-        for(Set<String> qubitsInUseSet : qubitsInUse) {
-            qubitsInOnlyOneBlock.add(new HashSet<>());
-            Set<String> onceUsedQubitsInThisBlock = qubitsInUseSet.stream()
-                    .filter(qubitsUsedOnce::contains)
-                    .collect(Collectors.toSet());
-            qubitsInOnlyOneBlock.get(qubitsInOnlyOneBlock.size() - 1).addAll(onceUsedQubitsInThisBlock);
+        usedOnce.andNot(usedMoreThanOnce);
+        ArrayList<BitSet> qubitsInOnlyOneBlock = new ArrayList<>();
+        for(BitSet qubitsInUseSet : qubitsInUse) {
+            BitSet onceUsedQubitsInThisBlock = (BitSet) qubitsInUseSet.clone();
+            onceUsedQubitsInThisBlock.and(usedOnce);
+            qubitsInOnlyOneBlock.add(onceUsedQubitsInThisBlock);
         }
         return qubitsInOnlyOneBlock;
     }
@@ -31,6 +31,7 @@
 package de.hhu.lirem101.quil_optimizer.analysis;
 
 import de.hhu.lirem101.quil_analyser.LineType;
+import de.hhu.lirem101.quil_optimizer.DependencyIndex;
 import de.hhu.lirem101.quil_optimizer.InstructionNode;
 
 import javax.json.Json;
@@ -56,23 +57,25 @@ public class FindHybridDependencies {
     }
 
     /**
-     * Saves hybrid Nodes in hybrid Dependencies.
+     * Saves hybrid Nodes in hybrid Dependencies. A hybrid node gets the lines it depends on that no previous hybrid
+     * node depends on.
      */
     private void findHybridNodes() {
         for (ArrayList<InstructionNode> instructionList : instructions) {
             LinkedHashMap<Integer, Set<Integer>> hybridDependencies = new LinkedHashMap<>();
-            Set<Integer> handledLines = new HashSet<>();
+            DependencyIndex dependencyIndex = new DependencyIndex(instructionList);
+            BitSet handledInstructions = new BitSet();
             ArrayList<InstructionNode> hybridNodes = (ArrayList<InstructionNode>) instructionList.stream()
                     .filter(instruction -> instruction.getLineType() != LineType.CLASSICAL && instruction.getLineType() != LineType.QUANTUM)
                     .collect(java.util.stream.Collectors.toList());
             for (InstructionNode hybridNode : hybridNodes) {
                 int line = hybridNode.getCodelines().get(0);
-                Set<InstructionNode> dep = hybridNode.getDependencies();
-                Set<Integer> dependentLines = dep.stream()
-                        .flatMap(x -> x.getCodelines().stream())
-                        .filter(x -> !handledLines.contains(x))
-                        .collect(java.util.stream.Collectors.toCollection(HashSet::new));
-                handledLines.addAll(dependentLines);
+                BitSet dep = dependencyIndex.getDependencies(hybridNode);
+                dep.andNot(handledInstructions);
+                handledInstructions.or(dep);
+                // Sorted, as the order of the dependencies would otherwise change from run to run
+                Set<Integer> dependentLines = new TreeSet<>();
+                dep.stream().forEach(x -> dependentLines.addAll(dependencyIndex.getInstruction(x).getCodelines()));
                 hybridDependencies.put(line, dependentLines);
             }
 
@@ -57,6 +57,7 @@ public class LiveVariableAnalyser {
     private final ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>();
     private final ArrayList<ArrayList<BoxedVariableProperties>> variablesSetToDead = new ArrayList<>();
     private final int haltIndex;
+    private final SymbolTable symbols;
     boolean calculated = false;
 
     /**
@@ -64,8 +65,10 @@ public class LiveVariableAnalyser {
      * @param instructions The list of lists of instructions of the program.
      * @param readoutVariables The list of readout variables of the program.
      * @param HaltIndex The index in the list of lists of the halt list of instructions.
+     * @param symbols The symbol table of the program, the analysis keeps its state indexed by the ids of the variables.
      */
-    public LiveVariableAnalyser(ArrayList<ArrayList<InstructionNode>> instructions, Set<String> readoutVariables, int HaltIndex) {
+    public LiveVariableAnalyser(ArrayList<ArrayList<InstructionNode>> instructions, Set<String> readoutVariables, int HaltIndex, SymbolTable symbols) {
+        this.symbols = symbols;
         this.instructions.addAll(instructions);
         this.readoutVariables.addAll(readoutVariables);
         for(ArrayList<InstructionNode> i : instructions) {
@@ -123,13 +126,18 @@ public class LiveVariableAnalyser {
             return;
         }
         calculated = true;
-        HashMap<String, Variables> variables = new HashMap<>();
-        for(String readoutVariable : readoutVariables) {
-            variables.put(readoutVariable, Variables.READOUT);
+        ArrayList<InstructionNode> haltInstructions = instructions.get(haltIndex);
+        int[] readoutIds = readoutVariables.stream().mapToInt(symbols::intern).toArray();
+        for(InstructionNode instruction : haltInstructions) {
+            instruction.getQuantumParameters().forEach(symbols::idOf);
+            instruction.getClassicalParameters().forEach(symbols::idOf);
         }
-        for(int i = instructions.get(haltIndex).size() - 1; i >= 0; i--) {
-            InstructionNode instruction = instructions.get(haltIndex).get(i);
-            ArrayList<ClassicalVariable> classicalVariables = instruction.getClassicalParameters();
+        Variables[] variables = new Variables[symbols.size()];
+        for(int readoutId : readoutIds) {
+            variables[readoutId] = Variables.READOUT;
+        }
+        for(int i = haltInstructions.size() - 1; i >= 0; i--) {
+            InstructionNode instruction = haltInstructions.get(i);
             // If the quantum variable is measured, it gets the measured type in the variables map
             // If there is a single qubit gate and the quantum variable will not be measured or in a multi-gate, it
             // is dead.
@@ -145,22 +153,23 @@ public class LiveVariableAnalyser {
 
     /**
      * Check if quantum variables are dead.
-     * @param variables The hashmap containing variables that have already been handled in previous instructions.
+     * @param variables The types of the variables that have already been handled in previous instructions, indexed by
+     *                  their ids.
      * @param instruction The instruction we look at.
      * @param setToDeadVariables The variables that are set to dead in the current instruction.
      */
-    private void checkQuantumVariables(HashMap<String, Variables> variables, InstructionNode instruction, ArrayList<BoxedVariableProperties> setToDeadVariables) {
+    private void checkQuantumVariables(Variables[] variables, InstructionNode instruction, ArrayList<BoxedVariableProperties> setToDeadVariables) {
         ArrayList<QuantumVariable> quantumVariables = instruction.getQuantumParameters();
         boolean allDead = true;
         boolean multiGate = false;
         for(QuantumVariable quantumVariable : quantumVariables) {
-            String name = quantumVariable.getName();
+            int id = quantumVariable.getId();
             QuantumUsage type = quantumVariable.getUsage();
             boolean isDead = quantumVariable.isShownToBeDead();
             if(!isDead && type == QuantumUsage.MEASURE) {
                 allDead = false;
-                variables.put(name, Variables.MEASURED);
-            } else if(!isDead && variables.containsKey(name)) {
+                variables[id] = Variables.MEASURED;
+            } else if(!isDead && variables[id] != null) {
                 allDead = false;
                 if(type == QuantumUsage.MULTI_GATE) {
                     multiGate = true;
@@ -168,23 +177,23 @@ public class LiveVariableAnalyser {
             }
         }
         for(QuantumVariable quantumVariable : quantumVariables) {
-            String name = quantumVariable.getName();
             if(allDead) {
                 quantumVariable.setDead();
-                setToDeadVariables.add(new BoxedVariableProperties(name, instruction.getLine(), true, true));
+                setToDeadVariables.add(new BoxedVariableProperties(quantumVariable.getName(), instruction.getLine(), true, true));
             } else if(multiGate) {
-                variables.put(name, Variables.USED_MULTI_QUBIT);
+                variables[quantumVariable.getId()] = Variables.USED_MULTI_QUBIT;
             }
         }
     }
 
     /**
      * Check if classical variables are dead.
-     * @param variables The hashmap containing variables that have already been handled in previous instructions.
+     * @param variables The types of the variables that have already been handled in previous instructions, indexed by
+     *                  their ids.
      * @param instruction The instruction we look at.
      * @param setToDeadVariables The variables that are set to dead in the current instruction.
      */
-    private void checkClassicalVariables(HashMap<String, Variables> variables, InstructionNode instruction, ArrayList<BoxedVariableProperties> setToDeadVariables) {
+    private void checkClassicalVariables(Variables[] variables, InstructionNode instruction, ArrayList<BoxedVariableProperties> setToDeadVariables) {
         ArrayList<ClassicalVariable> classicalVariables = instruction.getClassicalParameters();
         List<ClassicalVariable> usedVariables = classicalVariables
                 .stream()
@@ -195,18 +204,16 @@ public class LiveVariableAnalyser {
                 .filter(x -> x.getUsage() == ClassicalUsage.ASSIGNMENT)
                 .collect(Collectors.toList());
         for(ClassicalVariable var : assignedVariables) {
-            String name = var.getName();
-            if(!variables.containsKey(name)) {
+            if(variables[var.getId()] == null) {
                 var.setDead();
-                setToDeadVariables.add(new BoxedVariableProperties(name, instruction.getLine(), false, true));
+                setToDeadVariables.add(new BoxedVariableProperties(var.getName(), instruction.getLine(), false, true));
             } else {
-                variables.remove(name);
+                variables[var.getId()] = null;
             }
         }
         for(ClassicalVariable var : usedVariables) {
-            String name = var.getName();
             if(!var.isShownToBeDead()) {
-                variables.put(name, Variables.USED);
+                variables[var.getId()] = Variables.USED;
             }
         }
     }
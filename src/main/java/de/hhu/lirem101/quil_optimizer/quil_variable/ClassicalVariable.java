@@ -34,6 +34,7 @@ import org.apache.commons.numbers.complex.Complex;
 
 public class ClassicalVariable implements Variable {
     private final String name;
+    private int id = -1;
     private boolean shownToBeDead = false;
     private boolean isConstant = false;
     private final ClassicalUsage usage;
@@ -49,6 +50,16 @@ public class ClassicalVariable implements Variable {
         return name;
     }
 
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(int id) {
+        this.id = id;
+    }
+
     @Override
     public boolean isShownToBeDead() {
         return shownToBeDead;
@@ -88,6 +99,7 @@ public class ClassicalVariable implements Variable {
 
     public ClassicalVariable copyCV() {
         ClassicalVariable cv = new ClassicalVariable(name, usage);
+        cv.id = id;
         cv.shownToBeDead = shownToBeDead;
         cv.isConstant = isConstant;
         cv.value = value;
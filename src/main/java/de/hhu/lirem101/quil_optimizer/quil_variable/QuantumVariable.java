@@ -34,6 +34,7 @@ import de.hhu.lirem101.quil_optimizer.quantum_gates.QuantumCliffordGate;
 
 public class QuantumVariable implements Variable {
     private final String name;
+    private int id = -1;
     private boolean shownToBeDead = false;
     private QuantumCliffordState cliffordStateBeforeGate = null;
     private QuantumCliffordState cliffordStateAfterGate = null;
@@ -57,6 +58,16 @@ public class QuantumVariable implements Variable {
         return name;
     }
 
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(int id) {
+        this.id = id;
+    }
+
     @Override
     public boolean isShownToBeDead() {
         return shownToBeDead;
@@ -88,8 +99,19 @@ public class QuantumVariable implements Variable {
         return cliffordStateAfterGate;
     }
 
+    /**
+     * Copy the variable including whether it is shown to be dead, i.e. an exact copy of its current state.
+     * @return The copied variable.
+     */
+    public QuantumVariable copyQVWithState() {
+        QuantumVariable qv = copyQV();
+        qv.shownToBeDead = shownToBeDead;
+        return qv;
+    }
+
     public QuantumVariable copyQV() {
         QuantumVariable qv = new QuantumVariable(name, usage);
+        qv.id = id;
         qv.cliffordStateBeforeGate = cliffordStateBeforeGate;
         qv.cliffordStateAfterGate = cliffordStateAfterGate;
         return qv;
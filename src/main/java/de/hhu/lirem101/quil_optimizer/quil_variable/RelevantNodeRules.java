@@ -47,6 +47,9 @@ public class RelevantNodeRules {
         gateUsage.put("exchange", Arrays.asList(ClassicalUsage.USAGE_ASSIGNMENT, ClassicalUsage.USAGE_ASSIGNMENT));
         gateUsage.put("convert", Arrays.asList(ClassicalUsage.ASSIGNMENT, ClassicalUsage.USAGE));
         gateUsage.put("classicalComparison", Arrays.asList(ClassicalUsage.ASSIGNMENT, ClassicalUsage.USAGE, ClassicalUsage.USAGE));
+        // The accessed memory region of LOAD and STORE is no address, see MemoryAccess
+        gateUsage.put("load", Arrays.asList(ClassicalUsage.ASSIGNMENT, ClassicalUsage.USAGE));
+        gateUsage.put("store", Arrays.asList(ClassicalUsage.USAGE, ClassicalUsage.USAGE));
         return gateUsage;
     }
 
@@ -0,0 +1,92 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer.quil_variable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interns the names of the qubits and memory cells of a program to dense integer ids, so analyses and the links
+ * between instructions can work on int-indexed arrays and bitsets. Names are only needed again at the I/O boundary.
+ * The table is shared by all copies of a program and only ever grows, so an id never changes its meaning.
+ */
+public class SymbolTable {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+
+    /**
+     * Get the id of a name, adding the name to the table if it is not known yet.
+     * @param name The name of the qubit or memory cell.
+     * @return The id of the name.
+     */
+    public synchronized int intern(String name) {
+        Integer id = ids.get(name);
+        if(id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    /**
+     * Get the id of a variable. Variables that have no id yet, e.g. because a transformation created them, are
+     * interned and keep the id from then on.
+     * @param variable The variable to get the id of.
+     * @return The id of the variable.
+     */
+    public int idOf(Variable variable) {
+        int id = variable.getId();
+        if(id < 0) {
+            id = intern(variable.getName());
+            variable.setId(id);
+        }
+        return id;
+    }
+
+    /**
+     * Get the name belonging to an id.
+     * @param id The id of the name.
+     * @return The name.
+     */
+    public synchronized String getName(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * Get the number of interned names. All ids are smaller than this number.
+     * @return The number of interned names.
+     */
+    public synchronized int size() {
+        return names.size();
+    }
+}
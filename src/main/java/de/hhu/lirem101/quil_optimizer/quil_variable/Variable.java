@@ -35,5 +35,19 @@ public interface Variable {
     public boolean isShownToBeDead();
     public void setDead();
     public boolean isConstant();
+    public int getId();
+    public void setId(int id);
 
+    /**
+     * Check whether this variable and the other one refer to the same qubit or memory cell. Uses the ids of the
+     * variables if both have been interned, the names otherwise.
+     * @param other The other variable.
+     * @return True if both variables refer to the same qubit or memory cell.
+     */
+    default boolean isSameVariable(Variable other) {
+        if(getId() >= 0 && other.getId() >= 0) {
+            return getId() == other.getId();
+        }
+        return getName().equals(other.getName());
+    }
 }
@@ -30,6 +30,8 @@
 
 package de.hhu.lirem101.quil_optimizer.quil_variable;
 
+import de.hhu.lirem101.quil_analyser.MemoryAccess;
+import de.hhu.lirem101.quil_analyser.MemoryRegion;
 import de.hhu.lirem101.quil_optimizer.InstructionNode;
 import org.snt.inmemantlr.tree.ParseTreeNode;
 
@@ -38,8 +40,10 @@ import java.util.*;
 public class VariableCalculator {
 
     private final ParseTreeNode root;
-    private final Set<QuantumVariable> quantumVariables = new HashSet<>();
-    private final Set<ClassicalVariable> classicalVariables = new HashSet<>();
+    private final Set<QuantumVariable> quantumVariables = new LinkedHashSet<>();
+    private final Set<ClassicalVariable> classicalVariables = new LinkedHashSet<>();
+    private MemoryRegion memoryRegion = null;
+    private MemoryAccess memoryAccess = null;
     private boolean calculated = false;
 
     /**
@@ -72,6 +76,30 @@ public class VariableCalculator {
         return classicalVariables;
     }
 
+    /**
+     * Returns the memory region declared by this Quil instruction or null if it is no DECLARE instruction. The
+     * elements of the region are not part of the classical variables.
+     */
+    public MemoryRegion getMemoryRegion() {
+        if (!calculated) {
+            calculateVariables();
+            calculated = true;
+        }
+        return memoryRegion;
+    }
+
+    /**
+     * Returns the memory access of this Quil instruction or null if it is no LOAD or STORE instruction. The accessed
+     * elements are not part of the classical variables, as they depend on the value of the index.
+     */
+    public MemoryAccess getMemoryAccess() {
+        if (!calculated) {
+            calculateVariables();
+            calculated = true;
+        }
+        return memoryAccess;
+    }
+
     /**
      * Calculates the quantum and classical variables of this Quil instruction. Goes through the ParseTree and saves
      * all variables. Additionally, with respect to the relevant nodes (see RelevantNodeRules), it decides the usage
@@ -100,6 +128,16 @@ public class VariableCalculator {
                 classicalNode[0] = nodeRule;
             }
 
+            // Check if the node declares a memory region
+            if(nodeRule.equals("memoryDescriptor")) {
+                memoryRegion = MemoryRegion.fromLabel(currentNode.getLabel());
+            }
+
+            // Check if the node accesses a memory region
+            if(nodeRule.equals("load") || nodeRule.equals("store")) {
+                memoryAccess = MemoryAccess.fromParseTreeNode(currentNode);
+            }
+
             // Check if the node holds a variable
             ArrayList<String> classicalVariable = checkForClassicalVariable(currentNode);
             String quantumVariable = checkForQuantumVariable(currentNode);
@@ -133,20 +171,6 @@ public class VariableCalculator {
             case "addr":
                 classicalVariables.add(node.getLabel());
                 break;
-            case "memoryDescriptor":
-                String param = node.getLabel();
-                // Remove 'DECLARE' in the front
-                param = param.substring(7);
-                // Remove BIT, FLOAT, INTEGER, OCTET or REAL in the middle
-                param = param.replaceAll("[BIT|FLOAT|INTEGER|OCTET|REAL]", "");
-                // Replace "[1]" with "[0]"
-                // TODO: Make this work for all numbers
-                String param_prefix = param.split("\\[")[0];
-                int param_number = Integer.parseInt(param.split("\\[")[1].split("\\]")[0]);
-                for (int i = 1; i <= param_number; i++) {
-                    String finalParam = param_prefix + "[" + (i - 1) + "]";
-                    classicalVariables.add(finalParam);
-                }
         }
         return classicalVariables;
     }
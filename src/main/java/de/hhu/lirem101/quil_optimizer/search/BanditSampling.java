@@ -0,0 +1,177 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer.search;
+
+import java.util.*;
+
+/**
+ * Draws sequences of optimization routines like the random fuzzing, but learns which routines pay off. Every routine
+ * after a previous routine is an arm of a bandit, rated by how often sequences containing it improved the program
+ * compared to the unoptimized program. The routines are drawn by Thompson sampling: for every position, a success
+ * rate is sampled from the beta distribution of every arm and the routine with the highest sample is chosen. The
+ * statistics can be shared with other programs of the same context, see BanditStatistics.
+ */
+public class BanditSampling implements SearchStrategy {
+    private static final int SEQUENCES_PER_ROUND = 8;
+    private static final String START = "Start";
+
+    private final List<List<String>> routines;
+    private final List<String> routineNames = new ArrayList<>();
+    private final int maxRoutines;
+    private final int maxEvaluations;
+    private final Objective objective;
+    private final Random random;
+    private final BanditStatistics statistics;
+    private final String context;
+    private final List<List<Integer>> proposed = new ArrayList<>();
+    private double originalValue = Double.NaN;
+    private int evaluations = 0;
+
+    /**
+     * Constructor for the BanditSampling class.
+     * @param routines The optimization routines a sequence is made of. Each routine is a list of optimization steps.
+     * @param maxRoutines The number of routines in a sequence.
+     * @param maxEvaluations The maximal number of sequences to evaluate.
+     * @param objective The metric to minimize.
+     * @param seed The seed of the random decisions.
+     * @param statistics The statistics of the arms, updated with the results of this search.
+     * @param context The context of the program, see BanditStatistics.getContext.
+     */
+    public BanditSampling(List<List<String>> routines, int maxRoutines, int maxEvaluations, Objective objective,
+                          long seed, BanditStatistics statistics, String context) {
+        this.routines = routines;
+        this.maxRoutines = maxRoutines;
+        this.maxEvaluations = maxEvaluations;
+        this.objective = objective;
+        this.random = new Random(seed);
+        this.statistics = statistics;
+        this.context = context;
+        routines.forEach(x -> routineNames.add(String.join("+", x)));
+    }
+
+    @Override
+    public String getName() {
+        return "BanditSampling";
+    }
+
+    @Override
+    public List<ArrayList<String>> nextSequences() {
+        proposed.clear();
+        if(evaluations >= maxEvaluations || maxRoutines < 1) {
+            return Collections.emptyList();
+        }
+        if(Double.isNaN(originalValue)) {
+            // The unoptimized program is evaluated first, the arms are rated by whether they improve it
+            proposed.add(Collections.emptyList());
+        } else {
+            int sequences = Math.min(SEQUENCES_PER_ROUND, maxEvaluations - evaluations);
+            for(int i = 0; i < sequences; i++) {
+                proposed.add(drawSequence());
+            }
+        }
+        evaluations += proposed.size();
+        List<ArrayList<String>> sequences = new ArrayList<>();
+        for(List<Integer> sequence : proposed) {
+            ArrayList<String> steps = new ArrayList<>();
+            sequence.forEach(x -> steps.addAll(routines.get(x)));
+            sequences.add(steps);
+        }
+        return sequences;
+    }
+
+    private List<Integer> drawSequence() {
+        List<Integer> sequence = new ArrayList<>();
+        String previous = START;
+        for(int i = 0; i < maxRoutines; i++) {
+            int best = 0;
+            double bestSample = -1;
+            for(int routine = 0; routine < routines.size(); routine++) {
+                int[] counts = statistics.getCounts(context, getArm(previous, routine));
+                double sample = sampleBeta(counts[0] + 1, counts[1] + 1);
+                if(sample > bestSample) {
+                    best = routine;
+                    bestSample = sample;
+                }
+            }
+            sequence.add(best);
+            previous = routineNames.get(best);
+        }
+        return sequence;
+    }
+
+    private String getArm(String previous, int routine) {
+        return previous + "->" + routineNames.get(routine);
+    }
+
+    @Override
+    public void sequencesEvaluated(List<SequenceResult> results) {
+        if(Double.isNaN(originalValue)) {
+            originalValue = results.isEmpty() ? Double.POSITIVE_INFINITY : objective.getValue(results.get(0));
+            return;
+        }
+        for(int i = 0; i < results.size(); i++) {
+            boolean success = objective.getValue(results.get(i)) < originalValue;
+            // Every arm of a sequence is counted once, however often it occurs in the sequence
+            Set<String> arms = new HashSet<>();
+            String previous = START;
+            for(int routine : proposed.get(i)) {
+                arms.add(getArm(previous, routine));
+                previous = routineNames.get(routine);
+            }
+            arms.forEach(x -> statistics.update(context, x, success));
+        }
+    }
+
+    private double sampleBeta(int alpha, int beta) {
+        double x = sampleGamma(alpha);
+        return x / (x + sampleGamma(beta));
+    }
+
+    /**
+     * Sample the gamma distribution with the given shape and scale 1 (Marsaglia and Tsang).
+     */
+    private double sampleGamma(double shape) {
+        double d = shape - 1.0 / 3;
+        double c = 1 / Math.sqrt(9 * d);
+        while(true) {
+            double x = random.nextGaussian();
+            double v = 1 + c * x;
+            if(v <= 0) {
+                continue;
+            }
+            v = v * v * v;
+            double u = random.nextDouble();
+            if(Math.log(u) < 0.5 * x * x + d - d * v + d * Math.log(v)) {
+                return d * v;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer.search;
+
+import de.hhu.lirem101.quil_analyser.LineType;
+import de.hhu.lirem101.quil_optimizer.JsonFiles;
+
+import javax.json.*;
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics of how often an optimization routine improved a program, for the bandit sampling of routines. The
+ * statistics are kept per context, a coarse description of the program by its number of instructions and its number
+ * of hybrid instructions, and per objective. They can be saved in a json file and loaded again, so that later runs
+ * start from what earlier runs learned. The statistics are thread-safe and can be shared by the runs of several
+ * files.
+ */
+public class BanditStatistics {
+    private final Map<String, Map<String, int[]>> contexts = new TreeMap<>();
+
+    /**
+     * The context of a program: the bit lengths of its number of instructions and of its number of hybrid
+     * instructions, i.e. instructions where quantum and classical values influence each other.
+     * @param classes A map with the line number as key and the line type as value.
+     * @param objective The objective the routines are rated by.
+     * @return The context.
+     */
+    public static String getContext(Map<Integer, LineType> classes, Objective objective) {
+        int hybrid = (int) classes.values().stream()
+                .filter(x -> x == LineType.QUANTUM_INFLUENCES_CLASSICAL || x == LineType.CLASSICAL_INFLUENCES_QUANTUM)
+                .count();
+        return objective.getName() + ",instructions<" + (1L << bitLength(classes.size()))
+                + ",hybrid<" + (1L << bitLength(hybrid));
+    }
+
+    private static int bitLength(int n) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(n);
+    }
+
+    /**
+     * Get how often an arm improved the program and how often it did not.
+     * @param context The context of the program.
+     * @param arm The arm, a routine after a previous routine.
+     * @return The number of successes and the number of failures.
+     */
+    public synchronized int[] getCounts(String context, String arm) {
+        int[] counts = contexts.getOrDefault(context, new HashMap<>()).get(arm);
+        return counts == null ? new int[2] : counts.clone();
+    }
+
+    /**
+     * Count whether an arm improved the program.
+     * @param context The context of the program.
+     * @param arm The arm, a routine after a previous routine.
+     * @param success True if the program was improved.
+     */
+    public synchronized void update(String context, String arm, boolean success) {
+        int[] counts = contexts.computeIfAbsent(context, x -> new TreeMap<>()).computeIfAbsent(arm, x -> new int[2]);
+        counts[success ? 0 : 1]++;
+    }
+
+    /**
+     * Load statistics from a json file.
+     * @param fileName The name of the file.
+     * @return The statistics, empty if the file does not exist.
+     * @throws IOException If the file cannot be read.
+     */
+    public static BanditStatistics read(String fileName) throws IOException {
+        BanditStatistics statistics = new BanditStatistics();
+        if(!new File(fileName).exists()) {
+            return statistics;
+        }
+        try (InputStream is = JsonFiles.newInputStream(fileName);
+             JsonReader jsonReader = Json.createReader(is)) {
+            JsonObject json = jsonReader.readObject();
+            for(String context : json.keySet()) {
+                JsonObject arms = json.getJsonObject(context);
+                Map<String, int[]> counts = new TreeMap<>();
+                for(String arm : arms.keySet()) {
+                    JsonArray armCounts = arms.getJsonArray(arm);
+                    counts.put(arm, new int[] {armCounts.getInt(0), armCounts.getInt(1)});
+                }
+                statistics.contexts.put(context, counts);
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Save the statistics in a json file. Every arm is saved with its number of successes and failures.
+     * @param fileName The name of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    public synchronized void write(String fileName) throws IOException {
+        JsonObjectBuilder json = Json.createObjectBuilder();
+        for(Map.Entry<String, Map<String, int[]>> context : contexts.entrySet()) {
+            JsonObjectBuilder arms = Json.createObjectBuilder();
+            for(Map.Entry<String, int[]> arm : context.getValue().entrySet()) {
+                arms.add(arm.getKey(), Json.createArrayBuilder().add(arm.getValue()[0]).add(arm.getValue()[1]));
+            }
+            json.add(context.getKey(), arms);
+        }
+        try (OutputStream os = JsonFiles.newOutputStream(fileName);
+             JsonWriter jsonWriter = Json.createWriter(os)) {
+            jsonWriter.writeObject(json.build());
+        }
+    }
+}
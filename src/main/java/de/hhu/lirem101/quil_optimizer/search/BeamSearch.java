@@ -0,0 +1,124 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer.search;
+
+import java.util.*;
+
+/**
+ * Beam search over sequences of optimization routines. The search starts with the empty sequence and extends every
+ * sequence of the beam by every routine in each round. The best extensions by the objective become the next beam.
+ * Extensions that lead to the same program are only kept once, so the beam does not fill up with sequences that
+ * differ only by steps without effect. The search ends when the sequences have the maximal length or the maximal
+ * number of sequences was evaluated.
+ */
+public class BeamSearch implements SearchStrategy {
+    private final List<List<String>> routines;
+    private final int maxRoutines;
+    private final int beamWidth;
+    private final int maxEvaluations;
+    private final Objective objective;
+    private List<ArrayList<String>> beam = new ArrayList<>(Collections.singletonList(new ArrayList<>()));
+    private int length = 0;
+    private int evaluations = 0;
+
+    /**
+     * Constructor for the BeamSearch class.
+     * @param routines The optimization routines a sequence is made of. Each routine is a list of optimization steps.
+     * @param maxRoutines The maximal number of routines in a sequence.
+     * @param beamWidth The number of sequences that are extended in each round.
+     * @param maxEvaluations The maximal number of sequences to evaluate.
+     * @param objective The metric to minimize.
+     */
+    public BeamSearch(List<List<String>> routines, int maxRoutines, int beamWidth, int maxEvaluations,
+                      Objective objective) {
+        if(beamWidth < 1) {
+            throw new IllegalArgumentException("The beam width must be positive.");
+        }
+        this.routines = routines;
+        this.maxRoutines = maxRoutines;
+        this.beamWidth = beamWidth;
+        this.maxEvaluations = maxEvaluations;
+        this.objective = objective;
+    }
+
+    /**
+     * The beam width that spends the maximal number of evaluations on sequences of the maximal length.
+     * @param numberOfRoutines The number of routines a sequence is made of.
+     * @param maxRoutines The maximal number of routines in a sequence.
+     * @param maxEvaluations The maximal number of sequences to evaluate.
+     * @return The beam width, at least 1.
+     */
+    public static int defaultBeamWidth(int numberOfRoutines, int maxRoutines, int maxEvaluations) {
+        return Math.max(1, maxEvaluations / Math.max(1, numberOfRoutines * maxRoutines));
+    }
+
+    @Override
+    public String getName() {
+        return "BeamSearch";
+    }
+
+    @Override
+    public List<ArrayList<String>> nextSequences() {
+        List<ArrayList<String>> candidates = new ArrayList<>();
+        if(length >= maxRoutines) {
+            return candidates;
+        }
+        for(ArrayList<String> sequence : beam) {
+            for(List<String> routine : routines) {
+                if(evaluations + candidates.size() >= maxEvaluations) {
+                    break;
+                }
+                ArrayList<String> candidate = new ArrayList<>(sequence);
+                candidate.addAll(routine);
+                candidates.add(candidate);
+            }
+        }
+        evaluations += candidates.size();
+        length++;
+        return candidates;
+    }
+
+    @Override
+    public void sequencesEvaluated(List<SequenceResult> results) {
+        List<SequenceResult> sorted = new ArrayList<>(results);
+        sorted.sort(objective.comparator());
+        Set<Long> programs = new HashSet<>();
+        beam = new ArrayList<>();
+        for(SequenceResult result : sorted) {
+            if(beam.size() >= beamWidth || result.isFailed()) {
+                break;
+            }
+            if(programs.add(result.getStateHash())) {
+                beam.add(new ArrayList<>(result.getOptimizationSteps()));
+            }
+        }
+    }
+}
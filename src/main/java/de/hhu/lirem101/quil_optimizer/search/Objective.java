@@ -0,0 +1,108 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer.search;
+
+import java.util.Comparator;
+
+/**
+ * The metric a search strategy minimizes.
+ */
+public enum Objective {
+    NUMBER_OF_INSTRUCTIONS("instructions"),
+    NUMBER_OF_QUANTUM_INSTRUCTIONS("quantumInstructions"),
+    QUANTUM_CALCULATION_TIME("quantumCalculationTime"),
+    WALL_TIME("wallTime");
+
+    private final String name;
+
+    Objective(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The name of the objective on the command line.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the objective with the given name.
+     * @param name The name of the objective on the command line.
+     * @return The objective.
+     */
+    public static Objective fromName(String name) {
+        for (Objective objective : values()) {
+            if (objective.name.equals(name)) {
+                return objective;
+            }
+        }
+        throw new IllegalArgumentException("Unknown objective " + name + ".");
+    }
+
+    /**
+     * Get the value of the objective for a result.
+     * @param result The result of a sequence of optimization steps.
+     * @return The value of the metric, positive infinity if the sequence failed.
+     */
+    public double getValue(SequenceResult result) {
+        if (result.isFailed()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        switch (this) {
+            case NUMBER_OF_INSTRUCTIONS:
+                return result.getNumberOfInstructions();
+            case NUMBER_OF_QUANTUM_INSTRUCTIONS:
+                return result.getNumberOfQuantumInstructions();
+            case QUANTUM_CALCULATION_TIME:
+                return result.getQuantumCalculationTime();
+            default:
+                return result.getWallTime();
+        }
+    }
+
+    /**
+     * Compares results by the objective. Ties are broken by the sum of all metrics, so that a result that is better
+     * in the other metrics is preferred. Failed results are the worst.
+     * @return The comparator.
+     */
+    public Comparator<SequenceResult> comparator() {
+        return Comparator.comparingDouble(this::getValue).thenComparingDouble(Objective::sumOfMetrics);
+    }
+
+    private static double sumOfMetrics(SequenceResult result) {
+        if (result.isFailed()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return result.getNumberOfInstructions() + result.getNumberOfQuantumInstructions()
+                + result.getQuantumCalculationTime() + result.getWallTime();
+    }
+}
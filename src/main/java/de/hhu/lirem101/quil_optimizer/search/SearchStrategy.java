@@ -0,0 +1,59 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A strategy to search for good sequences of optimization steps. The search runs in rounds: the strategy proposes
+ * sequences, they are applied to the program, and the strategy gets their results to propose the next sequences. The
+ * sequences of one round can be evaluated in parallel.
+ */
+public interface SearchStrategy {
+
+    /**
+     * @return The name of the strategy that is saved with the results.
+     */
+    String getName();
+
+    /**
+     * Propose the sequences of optimization steps to evaluate next.
+     * @return The sequences to evaluate, an empty list if the search is finished.
+     */
+    List<ArrayList<String>> nextSequences();
+
+    /**
+     * Receive the results of the sequences proposed by the last call of nextSequences.
+     * @param results The results in the order of the proposed sequences.
+     */
+    void sequencesEvaluated(List<SequenceResult> results);
+}
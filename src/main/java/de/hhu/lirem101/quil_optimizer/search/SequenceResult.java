@@ -0,0 +1,98 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer.search;
+
+import java.util.List;
+
+/**
+ * The result of applying a sequence of optimization steps to a program: the metrics of the optimized program and the
+ * hash of its state. The metrics are null if an error was thrown while applying the sequence.
+ */
+public class SequenceResult {
+    private final List<String> optimizationSteps;
+    private final Integer numberOfInstructions;
+    private final Integer numberOfQuantumInstructions;
+    private final Integer quantumCalculationTime;
+    private final Integer wallTime;
+    private final long stateHash;
+
+    /**
+     * Constructor for the SequenceResult class.
+     * @param optimizationSteps The applied optimization steps.
+     * @param numberOfInstructions The number of instructions of the optimized program.
+     * @param numberOfQuantumInstructions The number of quantum instructions of the optimized program.
+     * @param quantumCalculationTime The quantum calculation time of the optimized program.
+     * @param wallTime The wall time of the optimized program.
+     * @param stateHash The hash of the state of the optimized program.
+     */
+    public SequenceResult(List<String> optimizationSteps, Integer numberOfInstructions,
+                          Integer numberOfQuantumInstructions, Integer quantumCalculationTime, Integer wallTime,
+                          long stateHash) {
+        this.optimizationSteps = optimizationSteps;
+        this.numberOfInstructions = numberOfInstructions;
+        this.numberOfQuantumInstructions = numberOfQuantumInstructions;
+        this.quantumCalculationTime = quantumCalculationTime;
+        this.wallTime = wallTime;
+        this.stateHash = stateHash;
+    }
+
+    public List<String> getOptimizationSteps() {
+        return optimizationSteps;
+    }
+
+    public Integer getNumberOfInstructions() {
+        return numberOfInstructions;
+    }
+
+    public Integer getNumberOfQuantumInstructions() {
+        return numberOfQuantumInstructions;
+    }
+
+    public Integer getQuantumCalculationTime() {
+        return quantumCalculationTime;
+    }
+
+    public Integer getWallTime() {
+        return wallTime;
+    }
+
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    /**
+     * @return True if an error was thrown while applying the sequence, false otherwise.
+     */
+    public boolean isFailed() {
+        return numberOfInstructions == null || numberOfQuantumInstructions == null || quantumCalculationTime == null
+                || wallTime == null;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package de.hhu.lirem101.quil_optimizer.search;
+
+import java.util.*;
+
+/**
+ * Simulated annealing over sequences of optimization routines with a fixed length. The search starts with a random
+ * sequence. In each round, a few neighbours of the current sequence are evaluated: sequences in which one routine is
+ * replaced, two routines are swapped or one routine is moved. The best neighbour becomes the current sequence if it is
+ * better, or with a probability that decreases with how much worse it is and with the progress of the search.
+ */
+public class SimulatedAnnealing implements SearchStrategy {
+    private static final int NEIGHBOURS = 4;
+    private static final double INITIAL_TEMPERATURE_FACTOR = 0.1;
+    private static final double FINAL_TEMPERATURE = 0.01;
+
+    private final List<List<String>> routines;
+    private final int maxRoutines;
+    private final int maxEvaluations;
+    private final Objective objective;
+    private final Random random;
+    private ArrayList<Integer> current = null;
+    private double currentValue = Double.POSITIVE_INFINITY;
+    private double initialTemperature = 1;
+    private final List<ArrayList<Integer>> proposed = new ArrayList<>();
+    private int evaluations = 0;
+
+    /**
+     * Constructor for the SimulatedAnnealing class.
+     * @param routines The optimization routines a sequence is made of. Each routine is a list of optimization steps.
+     * @param maxRoutines The number of routines in a sequence.
+     * @param maxEvaluations The maximal number of sequences to evaluate.
+     * @param objective The metric to minimize.
+     * @param seed The seed of the random decisions.
+     */
+    public SimulatedAnnealing(List<List<String>> routines, int maxRoutines, int maxEvaluations, Objective objective,
+                              long seed) {
+        this.routines = routines;
+        this.maxRoutines = maxRoutines;
+        this.maxEvaluations = maxEvaluations;
+        this.objective = objective;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public String getName() {
+        return "SimulatedAnnealing";
+    }
+
+    @Override
+    public List<ArrayList<String>> nextSequences() {
+        proposed.clear();
+        if(evaluations >= maxEvaluations || maxRoutines < 1) {
+            return Collections.emptyList();
+        }
+        if(current == null) {
+            ArrayList<Integer> start = new ArrayList<>();
+            for(int i = 0; i < maxRoutines; i++) {
+                start.add(random.nextInt(routines.size()));
+            }
+            proposed.add(start);
+        } else {
+            int neighbours = Math.min(NEIGHBOURS, maxEvaluations - evaluations);
+            for(int i = 0; i < neighbours; i++) {
+                proposed.add(neighbour(current));
+            }
+        }
+        evaluations += proposed.size();
+        List<ArrayList<String>> sequences = new ArrayList<>();
+        for(ArrayList<Integer> sequence : proposed) {
+            ArrayList<String> steps = new ArrayList<>();
+            sequence.forEach(x -> steps.addAll(routines.get(x)));
+            sequences.add(steps);
+        }
+        return sequences;
+    }
+
+    private ArrayList<Integer> neighbour(ArrayList<Integer> sequence) {
+        ArrayList<Integer> neighbour = new ArrayList<>(sequence);
+        int position = random.nextInt(neighbour.size());
+        switch (random.nextInt(3)) {
+            case 0:
+                if(routines.size() > 1) {
+                    int routine = random.nextInt(routines.size() - 1);
+                    neighbour.set(position, routine < neighbour.get(position) ? routine : routine + 1);
+                }
+                break;
+            case 1:
+                Collections.swap(neighbour, position, random.nextInt(neighbour.size()));
+                break;
+            default:
+                int moved = neighbour.remove(position);
+                neighbour.add(random.nextInt(neighbour.size() + 1), moved);
+                break;
+        }
+        return neighbour;
+    }
+
+    @Override
+    public void sequencesEvaluated(List<SequenceResult> results) {
+        if(results.isEmpty()) {
+            return;
+        }
+        int best = 0;
+        for(int i = 1; i < results.size(); i++) {
+            if(objective.comparator().compare(results.get(i), results.get(best)) < 0) {
+                best = i;
+            }
+        }
+        double value = objective.getValue(results.get(best));
+        if(current == null) {
+            current = proposed.get(best);
+            currentValue = value;
+            if(!Double.isInfinite(value)) {
+                initialTemperature = Math.max(1, INITIAL_TEMPERATURE_FACTOR * value);
+            }
+            return;
+        }
+        double progress = (double) evaluations / maxEvaluations;
+        double temperature = initialTemperature * Math.pow(FINAL_TEMPERATURE / initialTemperature, progress);
+        double delta = value - currentValue;
+        if(delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+            current = proposed.get(best);
+            currentValue = value;
+        }
+    }
+}
@@ -31,8 +31,8 @@
 package de.hhu.lirem101.quil_optimizer.transformation;
 
 import de.hhu.lirem101.quil_analyser.LineType;
-import de.hhu.lirem101.quil_optimizer.ExecutableInstructionsExtractor;
 import de.hhu.lirem101.quil_optimizer.InstructionNode;
+import de.hhu.lirem101.quil_optimizer.InstructionScheduler;
 
 import java.util.*;
 
@@ -115,7 +115,8 @@ public class LatestPossibleQuantumExecuter {
     }
 
     private ArrayList<InstructionNode> executableClassicalInstrutionsWithoutQuantum() {
-        ExecutableInstructionsExtractor eie = new ExecutableInstructionsExtractor(new ArrayList<>(Collections.singletonList(instructions)));
-        return eie.getExecutableInstructionsOfOneType(0, LineType.CLASSICAL, new ArrayList<>());
+        ArrayList<InstructionNode> classicalInstructions = new ArrayList<>();
+        instructions.stream().filter(x -> x.getLineType() == LineType.CLASSICAL).forEach(classicalInstructions::add);
+        return new InstructionScheduler(instructions, Collections.emptyList()).getExecutableInstructions(classicalInstructions);
     }
 }
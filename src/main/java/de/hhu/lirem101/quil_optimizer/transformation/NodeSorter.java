@@ -30,11 +30,12 @@
 
 package de.hhu.lirem101.quil_optimizer.transformation;
 
-import de.hhu.lirem101.quil_optimizer.ExecutableInstructionsExtractor;
 import de.hhu.lirem101.quil_optimizer.InstructionNode;
+import de.hhu.lirem101.quil_optimizer.InstructionScheduler;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 public class NodeSorter {
 
@@ -51,20 +52,17 @@ public class NodeSorter {
     }
 
     /**
-     * Sorts nodes from instructionList into executionOrder.
+     * Sorts nodes from instructionList into executionOrder. The sorted nodes and the nodes that are already in
+     * executionOrder are removed from instructionList, only the nodes that cannot be executed remain.
      * @param instructionList The list of instructions to sort.
      * @param executionOrder The list of instructions that are already in the execution queue.
      */
     public static void sortNodesWithGivenExecutables(ArrayList<InstructionNode> instructionList, ArrayList<InstructionNode> executionOrder) {
-        boolean newNodes = true;
-        instructionList.removeAll(executionOrder);
-        while (!executionOrder.containsAll(instructionList) && newNodes && !instructionList.isEmpty()) {
-            ExecutableInstructionsExtractor executableExtractor = new ExecutableInstructionsExtractor(new ArrayList<>(Collections.singletonList(instructionList)));
-            ArrayList<InstructionNode> executable = executableExtractor.getExecutableInstructionsOfOneBlock(0, executionOrder);
-            newNodes = !executable.isEmpty();
-            executionOrder.addAll(executable);
-            instructionList.removeAll(executable);
-        }
+        ArrayList<InstructionNode> executable = new InstructionScheduler(instructionList, executionOrder)
+                .schedule(instructionList);
+        executionOrder.addAll(executable);
+        Set<InstructionNode> sorted = new HashSet<>(executionOrder);
+        instructionList.removeIf(sorted::contains);
     }
 
 }
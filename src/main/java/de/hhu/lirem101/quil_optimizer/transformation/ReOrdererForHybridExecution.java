@@ -31,14 +31,12 @@
 package de.hhu.lirem101.quil_optimizer.transformation;
 
 import de.hhu.lirem101.quil_analyser.LineType;
-import de.hhu.lirem101.quil_optimizer.ExecutableInstructionsExtractor;
 import de.hhu.lirem101.quil_optimizer.InstructionNode;
+import de.hhu.lirem101.quil_optimizer.InstructionScheduler;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static de.hhu.lirem101.quil_optimizer.transformation.NodeSorter.sortNodesWithGivenExecutables;
-
 public class ReOrdererForHybridExecution {
 
     private final ArrayList<ArrayList<InstructionNode>> instructions;
@@ -85,6 +83,8 @@ public class ReOrdererForHybridExecution {
     private ArrayList<InstructionNode> reOrderInstructions(ArrayList<InstructionNode> instructionList, LinkedHashMap<Integer, Set<Integer>> hybDep) {
         List<Integer> hybridInstructionIndices = new ArrayList<>(hybDep.keySet());
         ArrayList<InstructionNode> newOrder = new ArrayList<>();
+        // Knows which instructions are in the new order and which of the others can follow them
+        InstructionScheduler scheduler = new InstructionScheduler(instructionList, Collections.emptyList());
 
         long previousQuantumNodes = 0;
         long previousClassicalNodes = 0;
@@ -95,7 +95,7 @@ public class ReOrdererForHybridExecution {
                     .filter(x -> hybDep.get(hybridInstructionIndices.get(finalI)).contains(x.getLine()))
                     .collect(Collectors.toCollection(ArrayList::new));
             ArrayList<InstructionNode> toAdd = dependenciesOfCurrentHybrid.stream()
-                    .filter(x -> !newOrder.contains(x))
+                    .filter(x -> !scheduler.isExecuted(x))
                     .collect(Collectors.toCollection(ArrayList::new));
             long newNumberOfQuantumNodes = toAdd.stream()
                     .filter(x -> x.getLineType() == LineType.QUANTUM)
@@ -103,7 +103,7 @@ public class ReOrdererForHybridExecution {
             long newNumberOfClassicalNodes = toAdd.stream()
                     .filter(x -> x.getLineType() == LineType.CLASSICAL)
                     .count();
-            sortNodesWithGivenExecutables(toAdd, newOrder);
+            newOrder.addAll(scheduler.schedule(toAdd));
             boolean quantumAndClassicalEqual = newNumberOfQuantumNodes == newNumberOfClassicalNodes;
             int j = i + 1;
             while(!quantumAndClassicalEqual && j <= hybridInstructionIndices.size()) {
@@ -123,7 +123,7 @@ public class ReOrdererForHybridExecution {
                     int finalBiggestHybridLine = biggestHybridLine;
                     dependenciesToAdd = instructionList.stream()
                             .filter(x -> x.getLine() > finalBiggestHybridLine ||
-                                    x.getLine() < finalBiggestHybridLine && !newOrder.contains(x))
+                                    x.getLine() < finalBiggestHybridLine && !scheduler.isExecuted(x))
                             .filter(x -> x.getLineType() == LineType.QUANTUM || x.getLineType() == LineType.CLASSICAL)
                             .collect(Collectors.toCollection(ArrayList::new));
                 }
@@ -135,7 +135,8 @@ public class ReOrdererForHybridExecution {
                         .filter(x -> x.getLineType() == LineType.CLASSICAL)
                         .count();
 
-                addNewDependencies(newOrder, dependenciesToAdd, newNumberOfQuantumNodes, newNumberOfClassicalNodes);
+                addNewDependencies(newOrder, scheduler, dependenciesToAdd, newNumberOfQuantumNodes,
+                        newNumberOfClassicalNodes);
 
                 long nextNumberOfQuantumNodes = newOrder.stream()
                         .filter(x -> x.getLineType() == LineType.QUANTUM)
@@ -171,13 +172,14 @@ public class ReOrdererForHybridExecution {
                     .orElse(null);
             if (hybridNode != null) {
                 newOrder.add(hybridNode);
+                scheduler.executed(hybridNode);
             } else {
                 throw new RuntimeException("Hybrid instruction not found in instruction list.");
             }
         }
         // Add the instructions that no hybrid instruction depends on at the end
         ArrayList<InstructionNode> remainingInstructions = instructionList.stream()
-                .filter(x -> !newOrder.contains(x))
+                .filter(x -> !scheduler.isExecuted(x))
                 .collect(Collectors.toCollection(ArrayList::new));
         newOrder.addAll(remainingInstructions);
 
@@ -188,44 +190,24 @@ public class ReOrdererForHybridExecution {
      * Add new executable dependencies to the list of dependencies from a set of given dependencies. Do so until the
      * number of quantum and classical instructions is equal or there are no new instructions that can be added.
      * @param instructions The list of dependencies to add new dependencies to.
+     * @param scheduler The scheduler that knows which instructions are in the list of dependencies.
      * @param possibleNewInstructions The list of instructions that can be added.
      * @param numberOfQuantumNodes The number of quantum instructions that have been added since the last hybrid
      *                             instrcution.
      * @param numberOfClassicalNodes The number of classical instructions that have been added since the last hybrid
      *                               instruction.
      */
-    private void addNewDependencies(ArrayList<InstructionNode> instructions, ArrayList<InstructionNode> possibleNewInstructions, long numberOfQuantumNodes, long numberOfClassicalNodes) {
-        boolean quantumAndClassicalEqual = numberOfQuantumNodes == numberOfClassicalNodes;
-        boolean foundNewDependencies = true;
-
-        while(!quantumAndClassicalEqual && foundNewDependencies) {
-            LineType typeToAdd = numberOfQuantumNodes < numberOfClassicalNodes ? LineType.QUANTUM : LineType.CLASSICAL;
-            long typeDifference = Math.abs(numberOfQuantumNodes - numberOfClassicalNodes);
-            ArrayList<InstructionNode> instructionsOfRightType = possibleNewInstructions.stream()
-                    .filter(x -> x.getLineType() == typeToAdd)
-                    .collect(Collectors.toCollection(ArrayList::new));
-            ExecutableInstructionsExtractor eie = new ExecutableInstructionsExtractor(new ArrayList<>(Collections.singletonList(instructionsOfRightType)));
-            ArrayList<InstructionNode> executableInstructions = eie.getExecutableInstructions(new ArrayList<>(Collections.singletonList(instructions))).get(0);
-            List<InstructionNode> instructionsToAdd = executableInstructions.stream()
-                    .filter(x -> !instructions.contains(x))
-                    .collect(Collectors.toList());
-            foundNewDependencies = !instructionsToAdd.isEmpty();
-            int numberToAdd = instructionsToAdd.size();
-
-            if(typeDifference > numberToAdd) {
-                instructions.addAll(instructionsToAdd);
-                if (typeToAdd == LineType.QUANTUM) {
-                    numberOfQuantumNodes += numberToAdd;
-                } else {
-                    numberOfClassicalNodes += numberToAdd;
-                }
-            } else {
-                instructions.addAll(instructionsToAdd.stream()
-                        .limit(typeDifference)
-                        .collect(Collectors.toSet()));
-                quantumAndClassicalEqual = true;
-            }
+    private void addNewDependencies(ArrayList<InstructionNode> instructions, InstructionScheduler scheduler, ArrayList<InstructionNode> possibleNewInstructions, long numberOfQuantumNodes, long numberOfClassicalNodes) {
+        if(numberOfQuantumNodes == numberOfClassicalNodes) {
+            return;
         }
+        LineType typeToAdd = numberOfQuantumNodes < numberOfClassicalNodes ? LineType.QUANTUM : LineType.CLASSICAL;
+        long typeDifference = Math.abs(numberOfQuantumNodes - numberOfClassicalNodes);
+        ArrayList<InstructionNode> instructionsOfRightType = possibleNewInstructions.stream()
+                .filter(x -> x.getLineType() == typeToAdd)
+                .collect(Collectors.toCollection(ArrayList::new));
+        // Only instructions of the type to add are scheduled, so the type stays the same until enough are added
+        instructions.addAll(scheduler.schedule(instructionsOfRightType, typeDifference));
     }
 
 }
@@ -62,6 +62,12 @@ public class ClassicalNodeHandler implements Handler {
             return changed;
         }
         calculated = true;
+        // The index of a LOAD or STORE has to stay an address and its accessed elements are no addresses of the
+        // instruction, so memory accesses are not folded
+        if(instruction.getMemoryAccess() != null) {
+            changed = false;
+            return false;
+        }
         changed = replaceConstants();
         changed |= rewriteToMove();
         return changed;
@@ -49,7 +49,7 @@ public class ParseTreeCreator {
      */
     public static ParseTreeNode createMoveInstruction(ClassicalVariable variable, double value, ParseTreeNode pt) {
         ParseTree tree = new ParseTree("MOVE", "MOVE");
-        String label = "MOVE" + variable + Double.toString(value);
+        String label = "MOVE" + variable.getName() + Double.toString(value);
         ParseTreeNode node = tree.newNode(pt.getParent(), "classicalBinary", label, pt.getSidx(), pt.getEidx(), pt.getLine(), pt.getCharPositionInLine());
         ParseTreeNode moveNode = tree.newNode(node, "move", label, pt.getSidx(), pt.getEidx(), pt.getLine(), pt.getCharPositionInLine());
         node.addChild(moveNode);
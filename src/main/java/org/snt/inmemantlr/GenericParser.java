@@ -31,7 +31,6 @@
 package org.snt.inmemantlr;
 
 import org.antlr.v4.runtime.*;
-import org.antlr.v4.runtime.atn.PredictionMode;
 import org.antlr.v4.runtime.tree.ParseTreeListener;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.antlr.v4.tool.ast.GrammarRootAST;
@@ -87,6 +86,10 @@ public class GenericParser {
     private boolean useCached = true;
     private String lexerName = "";
     private String parserName = "";
+    private CompilationCache cache = CompilationCache.getDefault();
+    private Set<String> grammars = null;
+    private boolean customized = false;
+    private PredictionStrategy strategy = PredictionStrategy.TWO_STAGE;
 
 
     /**
@@ -96,7 +99,10 @@ public class GenericParser {
      * @param tlc tool customizer
      */
     private void init(Set<String> gcontent, ToolCustomizer tlc) {
+        grammars = gcontent;
         if (tlc != null) {
+            // tool customizations cannot be part of the cache key
+            customized = true;
             tlc.customize(antlr);
         }
         Set<GrammarRootAST> ast = antlr.sortGrammarByTokenVocab(gcontent);
@@ -237,7 +243,7 @@ public class GenericParser {
      *
      * @param content   grammar file content
      * @param tlc       a ToolCustomizer
-     * @param useCached true to used cached lexers, otherwise false
+     * @param useCached true to used cached lexers and parsers, otherwise false
      */
     public GenericParser(ToolCustomizer tlc, boolean useCached, String...
             content) {
@@ -296,6 +302,54 @@ public class GenericParser {
         this.oprov = oprov;
     }
 
+    /**
+     * get the prediction strategy that is used for parsing
+     * @return prediction strategy
+     */
+    public PredictionStrategy getPredictionStrategy() {
+        return strategy;
+    }
+
+    /**
+     * set the prediction strategy that is used for parsing. The default is
+     * the two-stage SLL/LL strategy, LL_EXACT_AMBIG_DETECTION can be used
+     * to diagnose ambiguities of the grammar.
+     * @param strategy prediction strategy
+     */
+    public void setPredictionStrategy(PredictionStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * get the on-disk cache for compiled antlr objects
+     * @return compilation cache or null if caching is disabled
+     */
+    public CompilationCache getCompilationCache() {
+        return cache;
+    }
+
+    /**
+     * set the on-disk cache for compiled antlr objects
+     * @param cache compilation cache, null disables caching
+     */
+    public void setCompilationCache(CompilationCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * compute the key under which the compiled antlr objects are cached
+     * @return cache key or null if the compilation must not be cached
+     */
+    private String getCacheKey() {
+        if (cache == null || customized || grammars == null)
+            return null;
+
+        Set<String> utilities = fp.getItems().stream()
+                .map(ms -> ms.getClassName() + "\n" + ms.getCharContent(false))
+                .collect(Collectors.toSet());
+        return CompilationCache.key(grammars, utilities, oprov.getOptions());
+    }
+
     /**
      * compile generic parser
      *
@@ -311,6 +365,17 @@ public class GenericParser {
             throw new RedundantCompilationException("Antlr objects are already " +
                     "available");
 
+        // reuse the antlr objects of an earlier compilation of the same grammar
+        String key = getCacheKey();
+        if (key != null) {
+            GenericParserSerialize cached = cache.get(key);
+            if (cached != null) {
+                sc.load(cached.getMemoryTupleSet());
+                parserName = cached.getParserName();
+                lexerName = cached.getLexerName();
+                return;
+            }
+        }
 
         Set<StringCodeGenPipeline> pip = antlr.getPipelines();
 
@@ -343,6 +408,11 @@ public class GenericParser {
         cu.addAll(antlr.getCompilationUnits());
 
         sc.compile(cu, oprov);
+
+        if (key != null) {
+            cache.put(key, new GenericParserSerialize(getAllCompiledObjects(),
+                    parserName, lexerName));
+        }
     }
 
     /**
@@ -468,7 +538,7 @@ public class GenericParser {
         LOGGER.debug("load lexer {}", lexerName);
 
         Lexer lex = sc.instanciateLexer(input, lexerName, useCached);
-        lex.addErrorListener(el);
+        setErrorListener(lex, el);
 
         Objects.requireNonNull(lex, "lex must not be null");
 
@@ -492,6 +562,27 @@ public class GenericParser {
                                    CaseSensitiveType cs)
             throws
             IllegalWorkflowException, ParsingException {
+        return parse(toParse, production, cs, listener);
+    }
+
+    /**
+     * parse string and create a context with the given listener. Once the
+     * grammar is compiled, this method can be called from several threads
+     * concurrently as long as every thread uses its own listener.
+     *
+     * @param toParse    string to parse
+     * @param production production name to parseFile
+     * @param cs         case sensitivity
+     * @param listener   listener that is walked over the context
+     * @return context
+     * @throws IllegalWorkflowException if compilation did not take place
+     * @throws ParsingException         if an error occurs while parsing
+     */
+    public ParserRuleContext parse(String toParse, String production,
+                                   CaseSensitiveType cs,
+                                   DefaultListener listener)
+            throws
+            IllegalWorkflowException, ParsingException {
         if (!antrlObjectsAvailable()) {
             throw new IllegalWorkflowException("No antlr objects have been compiled or loaded");
         }
@@ -528,7 +619,7 @@ public class GenericParser {
         LOGGER.debug("load lexer {}", lexerName);
 
         Lexer lex = sc.instanciateLexer(input, lexerName, useCached);
-        lex.addErrorListener(el);
+        setErrorListener(lex, el);
         Objects.requireNonNull(lex, "lex must not be null");
 
         CommonTokenStream tokens = new CommonTokenStream(lex);
@@ -536,7 +627,7 @@ public class GenericParser {
         tokens.fill();
 
         LOGGER.debug("load parser {}", parserName);
-        Parser parser = sc.instanciateParser(tokens, parserName);
+        Parser parser = sc.instanciateParser(tokens, parserName, useCached);
 
         Objects.requireNonNull(parser, "Parser must not be null");
 
@@ -544,9 +635,6 @@ public class GenericParser {
         listener.setParser(parser);
 
 
-        parser.removeErrorListeners();
-        parser.addErrorListener(el);
-        parser.getInterpreter().setPredictionMode(PredictionMode.LL_EXACT_AMBIG_DETECTION);
         parser.setBuildParseTree(true);
         parser.setTokenStream(tokens);
 
@@ -568,7 +656,8 @@ public class GenericParser {
             Class<?> pc = parser.getClass();
             Method m = pc.getDeclaredMethod(entryPoint, (Class<?>[]) null);
             Objects.requireNonNull(m, "method should not be null");
-            data = (ParserRuleContext) m.invoke(parser, (Object[]) null);
+            data = strategy.parse(parser, el, p -> (ParserRuleContext) m
+                    .invoke(p, (Object[]) null));
         } catch (NoSuchMethodException | SecurityException |
                 IllegalAccessException | IllegalArgumentException |
                 InvocationTargetException e) {
@@ -591,6 +680,22 @@ public class GenericParser {
         return data;
     }
 
+    /**
+     * set the error listener of a lexer -- a cached lexer still holds the
+     * error listener of its former run, which is removed
+     *
+     * @param lex lexer
+     * @param el  error listener of this run
+     */
+    private static void setErrorListener(Lexer lex, InmemantlrErrorListener el) {
+        Objects.requireNonNull(lex, "lex must not be null");
+        lex.getErrorListeners().stream()
+                .filter(l -> l instanceof InmemantlrErrorListener)
+                .collect(Collectors.toList())
+                .forEach(lex::removeErrorListener);
+        lex.addErrorListener(el);
+    }
+
     /**
      * get parseFile tree listener
      *
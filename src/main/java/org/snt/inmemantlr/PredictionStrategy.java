@@ -0,0 +1,125 @@
+/**
+ * Inmemantlr - In memory compiler for Antlr 4
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * SPDX-FileCopyrightText: 2016 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package org.snt.inmemantlr;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * prediction strategy that is used by the parser
+ */
+public enum PredictionStrategy {
+    /**
+     * parse with SLL and a bail out error strategy first, only parse with
+     * full LL again if this fails
+     */
+    TWO_STAGE,
+    /**
+     * parse with SLL only -- fastest, but may report syntax errors for
+     * inputs that require full context
+     */
+    SLL,
+    /**
+     * parse with full LL only
+     */
+    LL,
+    /**
+     * parse with full LL and report exact ambiguities -- slowest, only
+     * meant for diagnosing the grammar
+     */
+    LL_EXACT_AMBIG_DETECTION;
+
+    /**
+     * entry point of a parser, i.e. the method of the start rule
+     */
+    @FunctionalInterface
+    public interface EntryPoint {
+        ParserRuleContext invoke(Parser parser) throws IllegalAccessException,
+                InvocationTargetException;
+    }
+
+    /**
+     * run the parser with this prediction strategy
+     *
+     * @param parser parser whose token stream is already set
+     * @param el     error listener that collects the syntax errors
+     * @param entry  entry point of the parser
+     * @return context of the entry point
+     * @throws IllegalAccessException    entry point is not accessible
+     * @throws InvocationTargetException entry point threw an exception
+     */
+    public ParserRuleContext parse(Parser parser, ANTLRErrorListener el,
+                                   EntryPoint entry) throws
+            IllegalAccessException, InvocationTargetException {
+        parser.removeErrorListeners();
+        // a reused parser may still hold the bail out strategy of a former run
+        parser.setErrorHandler(new DefaultErrorStrategy());
+
+        switch (this) {
+            case TWO_STAGE:
+                parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+                parser.setErrorHandler(new BailErrorStrategy());
+                try {
+                    return entry.invoke(parser);
+                } catch (ParseCancellationException e) {
+                    // fall through to the second stage
+                } catch (InvocationTargetException e) {
+                    if (!(e.getCause() instanceof ParseCancellationException))
+                        throw e;
+                }
+                // the input is either invalid or needs full context
+                parser.reset();
+                parser.setErrorHandler(new DefaultErrorStrategy());
+                parser.addErrorListener(el);
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                return entry.invoke(parser);
+            case SLL:
+                parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+                break;
+            case LL:
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                break;
+            case LL_EXACT_AMBIG_DETECTION:
+                parser.getInterpreter().setPredictionMode(PredictionMode
+                        .LL_EXACT_AMBIG_DETECTION);
+                break;
+        }
+        parser.addErrorListener(el);
+        return entry.invoke(parser);
+    }
+}
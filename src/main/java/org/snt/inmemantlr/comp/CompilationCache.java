@@ -0,0 +1,211 @@
+/**
+ * Inmemantlr - In memory compiler for Antlr 4
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * SPDX-FileCopyrightText: 2016 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+package org.snt.inmemantlr.comp;
+
+import org.antlr.v4.Tool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snt.inmemantlr.memobjects.GenericParserSerialize;
+import org.snt.inmemantlr.utils.FileUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * persistent on-disk cache of compiled antlr artifacts. Entries are keyed
+ * by a hash of the grammar content, the antlr version, the java version and
+ * the compiler options, such that a changed grammar or tool chain never
+ * hits a stale entry. Entries are written to a temporary file first and
+ * moved into place atomically, such that concurrent processes can share
+ * the same cache directory.
+ */
+public class CompilationCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompilationCache.class);
+
+    /**
+     * system property to overwrite the default cache directory
+     */
+    public static final String CACHE_DIR_PROPERTY = "inmemantlr.cache.dir";
+
+    private static final String ENTRY_SUFFIX = ".gp";
+
+    private final Path directory;
+
+    /**
+     * constructor
+     *
+     * @param directory directory in which the cache entries are stored
+     */
+    public CompilationCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * cache in the default directory, i.e. the directory given by the system
+     * property inmemantlr.cache.dir, $XDG_CACHE_HOME/inmemantlr or
+     * ~/.cache/inmemantlr
+     *
+     * @return compilation cache in the default directory
+     */
+    public static CompilationCache getDefault() {
+        String dir = System.getProperty(CACHE_DIR_PROPERTY);
+        if (dir != null && !dir.isEmpty()) {
+            return new CompilationCache(Paths.get(dir));
+        }
+        String xdg = System.getenv("XDG_CACHE_HOME");
+        Path base = xdg != null && !xdg.isEmpty() ? Paths.get(xdg) :
+                Paths.get(System.getProperty("user.home"), ".cache");
+        return new CompilationCache(base.resolve("inmemantlr"));
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * compute the cache key for a set of compilation inputs
+     *
+     * @param grammars content of the grammar files
+     * @param utilities content of the utility java files
+     * @param options compiler options
+     * @return hex encoded sha-256 hash of all inputs
+     */
+    public static String key(Collection<String> grammars, Collection<String>
+            utilities, Collection<String> options) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        update(md, "antlr " + Tool.VERSION);
+        update(md, "java " + System.getProperty("java.specification.version"));
+        updateSorted(md, grammars);
+        updateSorted(md, utilities);
+        for (String option : options) {
+            update(md, option);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : md.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static void updateSorted(MessageDigest md, Collection<String> items) {
+        List<String> sorted = new ArrayList<>(items);
+        Collections.sort(sorted);
+        update(md, String.valueOf(sorted.size()));
+        sorted.forEach(s -> update(md, s));
+    }
+
+    private static void update(MessageDigest md, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        // length prefix avoids collisions between different splits of the same content
+        md.update(String.valueOf(bytes.length).getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+        md.update(bytes);
+    }
+
+    /**
+     * look up a cache entry
+     *
+     * @param key cache key
+     * @return the compiled artifacts or null if there is no valid entry
+     */
+    public GenericParserSerialize get(String key) {
+        Path entry = directory.resolve(key + ENTRY_SUFFIX);
+        if (!Files.isRegularFile(entry)) {
+            return null;
+        }
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(entry));
+             ObjectInputStream oin = new ObjectInputStream(in)) {
+            Object storedKey = oin.readObject();
+            Object toread = oin.readObject();
+            if (key.equals(storedKey) && toread instanceof GenericParserSerialize) {
+                LOGGER.debug("cache hit {}", entry);
+                return (GenericParserSerialize) toread;
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.debug("invalid cache entry {}: {}", entry, e.getMessage());
+        }
+
+        // the entry is unusable, remove it such that it is written again
+        try {
+            Files.deleteIfExists(entry);
+        } catch (IOException e) {
+            LOGGER.debug("cannot remove cache entry {}: {}", entry, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * store a cache entry. Errors are logged only as the cache is an
+     * optimization and must not break compilation.
+     *
+     * @param key cache key
+     * @param gps compiled artifacts
+     */
+    public void put(String key, GenericParserSerialize gps) {
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp));
+                 ObjectOutputStream oout = new ObjectOutputStream(out)) {
+                oout.writeObject(key);
+                oout.writeObject(gps);
+            }
+            Path entry = directory.resolve(key + ENTRY_SUFFIX);
+            FileUtils.moveReplacing(tmp, entry);
+            LOGGER.debug("stored cache entry {}", entry);
+        } catch (IOException e) {
+            LOGGER.warn("cannot store cache entry {}: {}", key, e.getMessage());
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ex) {
+                    LOGGER.debug("cannot remove {}: {}", tmp, ex.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -34,8 +34,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.snt.inmemantlr.memobjects.MemoryByteCode;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * extended class loader
@@ -44,7 +44,7 @@ class SpecialClassLoader extends ClassLoader {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SpecialClassLoader.class);
 
-    private Map<String, MemoryByteCode> m = new HashMap<>();
+    private Map<String, MemoryByteCode> m = new ConcurrentHashMap<>();
 
     public SpecialClassLoader(ClassLoader parent) {
         super(parent);
@@ -57,7 +57,12 @@ class SpecialClassLoader extends ClassLoader {
      * @return the actual class
      * @throws ClassNotFoundException if the class could not be found
      */
-    protected Class<?> findClass(String name) throws ClassNotFoundException {
+    protected synchronized Class<?> findClass(String name) throws ClassNotFoundException {
+        // a class must not be defined twice
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded != null)
+            return loaded;
+
         MemoryByteCode mbc = m.get(name);
         if (mbc == null) {
             mbc = m.get(name.replace(".", "/"));
@@ -34,6 +34,7 @@ import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.TokenStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.snt.inmemantlr.exceptions.CompilationErrorException;
@@ -44,10 +45,13 @@ import org.snt.inmemantlr.memobjects.MemoryTupleSet;
 import javax.tools.*;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * a compiler for strings
@@ -55,14 +59,22 @@ import java.util.*;
 public class StringCompiler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StringCompiler.class);
-    private static final String CONSTRUCTOR_ARG = "interface org.antlr" +
-            ".v4.runtime.TokenStream";
+    private static final MethodType LEXER_CONSTRUCTOR = MethodType
+            .methodType(Lexer.class, CharStream.class);
+    private static final MethodType PARSER_CONSTRUCTOR = MethodType
+            .methodType(Parser.class, TokenStream.class);
 
     private SpecialClassLoader cl = null;
     private MemoryTupleSet mt = null;
-    private Map<String, Lexer> lexer = null;
-    private Map<String, Parser> parser = null;
-    private Map<String, Class<?>> classes = new HashMap<>();
+    // lexers and parsers are stateful, hence every thread gets its own
+    // instances that are reused for subsequent calls of the same thread
+    private final ThreadLocal<Map<String, Lexer>> lexer = ThreadLocal
+            .withInitial(HashMap::new);
+    private final ThreadLocal<Map<String, Parser>> parser = ThreadLocal
+            .withInitial(HashMap::new);
+    private final Map<String, Class<?>> classes = new ConcurrentHashMap<>();
+    private final Map<String, MethodHandle> constructors = new
+            ConcurrentHashMap<>();
 
 
     /**
@@ -70,8 +82,6 @@ public class StringCompiler {
      */
     public StringCompiler() {
         cl = new SpecialClassLoader(getClass().getClassLoader());
-        lexer = new HashMap<>();
-        parser = new HashMap<>();
         mt = new MemoryTupleSet();
     }
 
@@ -148,24 +158,65 @@ public class StringCompiler {
      * @return a class
      */
     private Class<?> findClass(String cname) {
-        Class<?> clazz;
-        try {
-            if (classes.containsKey(cname)) {
-                clazz = classes.get(cname);
-            } else {
-                clazz = cl.findClass(cname);
+        Class<?> clazz = classes.get(cname);
+        if (clazz != null)
+            return clazz;
+
+        synchronized (classes) {
+            clazz = classes.get(cname);
+            if (clazz == null) {
+                try {
+                    clazz = cl.findClass(cname);
+                } catch (ClassNotFoundException e) {
+                    return null;
+                }
                 classes.put(cname, clazz);
             }
-        } catch (ClassNotFoundException e) {
-            return null;
         }
-
         return clazz;
     }
 
+    /**
+     * find the constructor of a lexer or parser with a single parameter of
+     * the given type. The constructor is resolved only once per class and
+     * cached as method handle.
+     *
+     * @param cname class name
+     * @param type  type of the constructor
+     * @return method handle of the constructor or null if the class cannot
+     * be found
+     */
+    private MethodHandle findConstructor(String cname, MethodType type) {
+        MethodHandle mh = constructors.get(cname);
+        if (mh != null)
+            return mh;
+
+        Class<?> clazz = findClass(cname);
+        if (clazz == null)
+            return null;
+
+        Class<?> arg = type.parameterType(0);
+        for (Constructor<?> c : clazz.getConstructors()) {
+            if (c.getParameterCount() == 1 && c.getParameterTypes()[0] == arg) {
+                try {
+                    mh = MethodHandles.publicLookup().unreflectConstructor(c)
+                            .asType(type);
+                } catch (IllegalAccessException e) {
+                    LOGGER.error(e.getMessage());
+                    return null;
+                }
+                constructors.put(cname, mh);
+                return mh;
+            }
+        }
+        throw new IllegalArgumentException("No constructor with parameter " +
+                arg.getName() + " found for " + cname);
+    }
+
 
     /**
-     * instanciate new lexer
+     * instanciate new lexer. This method is thread-safe, a cached lexer is
+     * only reused within the same thread.
      *
      * @param input          lexer class content as character stream
      * @param lexerClassName class name
@@ -173,69 +224,60 @@ public class StringCompiler {
      * @return antlr lexer
      */
     public Lexer instanciateLexer(CharStream input, String lexerClassName, boolean useCached) {
-        Lexer elexer;
+        Map<String, Lexer> cached = lexer.get();
 
-        if (useCached && lexer.containsKey(lexerClassName)) {
-            elexer = lexer.get(lexerClassName);
+        if (useCached && cached.containsKey(lexerClassName)) {
+            Lexer elexer = cached.get(lexerClassName);
             elexer.reset();
             elexer.setInputStream(input);
             return elexer;
         }
 
-        Class<?> elex = findClass(lexerClassName);
-        if (elex == null)
+        MethodHandle cstr = findConstructor(lexerClassName, LEXER_CONSTRUCTOR);
+        if (cstr == null)
             return null;
 
-        Constructor<?>[] cstr = elex.getConstructors();
-        if (cstr.length != 1)
-            throw new IllegalArgumentException("There must be only constructor");
-
+        Lexer elexer;
         try {
-            elexer = (Lexer) cstr[0].newInstance(input);
-            lexer.put(lexerClassName, elexer);
-        } catch (InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException e) {
+            elexer = (Lexer) cstr.invokeExact(input);
+        } catch (Throwable e) {
+            LOGGER.error(e.getMessage());
             return null;
         }
-
+        cached.put(lexerClassName, elexer);
         return elexer;
     }
 
     /**
-     * instanciate new parser
+     * instanciate new parser. This method is thread-safe, a cached parser is
+     * only reused within the same thread.
      *
      * @param tstream         parser class content as character stream
      * @param parserClassName class name
+     * @param useCached       true to used cached parsers, otherwise false
      * @return antlr parser
      */
-    public Parser instanciateParser(CommonTokenStream tstream, String parserClassName) {
-        Parser eparser;
-        Class<?> elex = findClass(parserClassName);
-        Objects.requireNonNull(elex, "Failed to find class " + parserClassName);
-        Constructor<?>[] cstr = elex.getConstructors();
-        if (cstr.length == 0)
-            throw new IllegalArgumentException("Constructors must not be empty");
-
-        int cidx = 0;
-
-        for (Constructor<?> c : cstr) {
-            LOGGER.debug(c.getParameters()[0].getType().toString());
-            if (c.getParameterCount() == 1 && c.getParameters()[0].getType()
-                    .toString().equals(CONSTRUCTOR_ARG)) {
-                break;
-            }
-            cidx++;
+    public Parser instanciateParser(CommonTokenStream tstream, String parserClassName, boolean useCached) {
+        Map<String, Parser> cached = parser.get();
+
+        if (useCached && cached.containsKey(parserClassName)) {
+            Parser eparser = cached.get(parserClassName);
+            // resets the parser as well
+            eparser.setTokenStream(tstream);
+            return eparser;
         }
 
+        MethodHandle cstr = findConstructor(parserClassName, PARSER_CONSTRUCTOR);
+        Objects.requireNonNull(cstr, "Failed to find class " + parserClassName);
+
+        Parser eparser;
         try {
-            eparser = (Parser) cstr[cidx].newInstance(tstream);
-            parser.put(parserClassName, eparser);
-        } catch (InstantiationException | IllegalAccessException
-                | IllegalArgumentException | InvocationTargetException e) {
+            eparser = (Parser) cstr.invokeExact((TokenStream) tstream);
+        } catch (Throwable e) {
             LOGGER.error(e.getMessage());
             return null;
         }
-
+        cached.put(parserClassName, eparser);
         return eparser;
     }
 
@@ -31,7 +31,9 @@
 package org.snt.inmemantlr.memobjects;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.net.URI;
@@ -98,6 +100,18 @@ public class MemoryByteCode extends MemoryFile implements Serializable {
         return bytebuf;
     }
 
+    /**
+     * serialize the byte code -- the output stream is transient, hence the
+     * byte buffer has to be filled before it is written
+     *
+     * @param out object output stream
+     * @throws IOException if the object cannot be written
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        getBytes();
+        out.defaultWriteObject();
+    }
+
     /**
      * return the class name of this object
      *
@@ -37,8 +37,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 
 public final class FileUtils {
 
@@ -114,4 +117,23 @@ public final class FileUtils {
             assert false;
         }
     }
+
+    /**
+     * moves a file to its target and replaces the target if it exists.
+     * The move is atomic if the file system supports it, otherwise the
+     * file is moved non-atomically
+     *
+     * @param source file to move
+     * @param target file that is replaced
+     * @throws IOException if the file cannot be moved
+     */
+    public static void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOGGER.debug("atomic move to {} not supported: {}", target, e.getMessage());
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
 }
@@ -5,6 +5,10 @@
  The keyword "wait" was changed to "wait1" to avoid conflicts with the Antlr implementation.
  As inmemantlr creates method names out of the rule names, and the name "wait" for a method is already reserved in Java.
 
+ The alternatives of the rule "addr" were swapped such that indexed memory references are predicted first. The
+ language and the parse trees are the same, but this way SLL prediction no longer mistakes "ro[0]" for "ro" followed
+ by "[0]", so that the fast SLL stage of the two-stage parsing succeeds on Quil programs.
+
  SPDX-FileCopyrightText: 2024 Robert S. Smith; Rigetti & Co. Inc.; and contributors
 
  SPDX-License-Identifier: Apache-2.0
@@ -84,7 +88,7 @@ circuit             : ( TAB circuitInstr NEWLINE )* TAB circuitInstr ;
 // F. Measurement
 
 measure             : MEASURE qubit addr? ;
-addr                : IDENTIFIER | ( IDENTIFIER? LBRACKET INT RBRACKET );
+addr                : ( IDENTIFIER? LBRACKET INT RBRACKET ) | IDENTIFIER ;
 
 // G. Program control
 
@@ -0,0 +1,135 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+import de.hhu.lirem101.quil_analyser.PrecompiledQuilParser;
+import org.snt.inmemantlr.GenericParser;
+import org.snt.inmemantlr.PredictionStrategy;
+import org.snt.inmemantlr.exceptions.CompilationException;
+import org.snt.inmemantlr.exceptions.IllegalWorkflowException;
+import org.snt.inmemantlr.exceptions.ParsingException;
+import org.snt.inmemantlr.listener.DefaultTreeListener;
+import org.snt.inmemantlr.utils.FileUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Benchmark of the prediction strategies of the parser on the example Quil files and on large synthetic Quil
+ * programs. Not a test, run it with
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=BenchmarkPredictionStrategy
+ */
+public class BenchmarkPredictionStrategy {
+    public static final String resourcePath = System.getProperty("user.dir") + "/src/main/resources/";
+
+    private static final int WARMUP = 5;
+    private static final int RUNS = 10;
+
+    /**
+     * Create a synthetic Quil program with the given number of loop bodies, each consisting of quantum, classical and
+     * hybrid instructions.
+     * @param bodies The number of loop bodies.
+     * @return The Quil program.
+     */
+    private static String syntheticProgram(int bodies) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("DECLARE ro BIT[2]\n");
+        sb.append("DECLARE theta REAL[1]\n");
+        sb.append("DECLARE counter INTEGER[1]\n");
+        for (int i = 0; i < bodies; i++) {
+            sb.append("LABEL @loop_").append(i).append("\n");
+            sb.append("H 0\n");
+            sb.append("CNOT 0 1\n");
+            sb.append("RZ(theta[0]) 1\n");
+            sb.append("RX(pi/2) 0\n");
+            sb.append("MEASURE 1 ro[0]\n");
+            sb.append("ADD theta[0] 0.5\n");
+            sb.append("MUL theta[0] 2\n");
+            sb.append("ADD counter[0] 1\n");
+            sb.append("LT ro[1] counter[0] 10\n");
+            sb.append("JUMP-WHEN @loop_").append(i).append(" ro[1]\n");
+        }
+        sb.append("MEASURE 0 ro[0]\n");
+        return sb.toString();
+    }
+
+    private static double timeGeneric(GenericParser gp, String quilCode) throws IllegalWorkflowException, ParsingException {
+        for (int i = 0; i < WARMUP; i++) {
+            gp.parse(quilCode, null, GenericParser.CaseSensitiveType.NONE);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            gp.parse(quilCode, null, GenericParser.CaseSensitiveType.NONE);
+        }
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+
+    private static double timePrecompiled(String quilCode, PredictionStrategy strategy) throws ParsingException {
+        for (int i = 0; i < WARMUP; i++) {
+            PrecompiledQuilParser.getParseTree(quilCode, strategy);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            PrecompiledQuilParser.getParseTree(quilCode, strategy);
+        }
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+
+    public static void main(String[] args) throws FileNotFoundException, CompilationException, IllegalWorkflowException, ParsingException {
+        Map<String, String> programs = new LinkedHashMap<>();
+        String[] files = {"ipe", "magic-state-distillation", "readme-example", "repeat-until-success", "teleport"};
+        for (String file : files) {
+            programs.put(file, FileUtils.loadFileContent(resourcePath + "QuilExampleFiles/" + file + ".quil"));
+        }
+        for (int bodies : new int[]{500, 5000}) {
+            programs.put("synthetic-" + bodies * 10 + "-lines", syntheticProgram(bodies));
+        }
+
+        GenericParser gp = new GenericParser(new File(resourcePath + "Quil.g4"));
+        gp.setListener(new DefaultTreeListener());
+        gp.compile();
+
+        System.out.printf("%-32s %-26s %12s %12s%n", "program", "strategy", "generic ms", "precomp. ms");
+        for (Map.Entry<String, String> program : programs.entrySet()) {
+            for (PredictionStrategy strategy : PredictionStrategy.values()) {
+                gp.setPredictionStrategy(strategy);
+                try {
+                    double generic = timeGeneric(gp, program.getValue());
+                    double precompiled = timePrecompiled(program.getValue(), strategy);
+                    System.out.printf("%-32s %-26s %12.2f %12.2f%n", program.getKey(), strategy, generic, precompiled);
+                } catch (ParsingException e) {
+                    // Pure SLL can not parse programs that need full context
+                    System.out.printf("%-32s %-26s %25s%n", program.getKey(), strategy, "syntax error");
+                }
+            }
+        }
+    }
+}
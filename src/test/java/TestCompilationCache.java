@@ -0,0 +1,143 @@
+/**
+ * Inmemantlr - In memory compiler for Antlr 4
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * SPDX-FileCopyrightText: 2016 Julian Thome <julian.thome.de@gmail.com>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.snt.inmemantlr.GenericParser;
+import org.snt.inmemantlr.comp.CompilationCache;
+import org.snt.inmemantlr.comp.StringCompiler;
+import org.snt.inmemantlr.exceptions.CompilationException;
+import org.snt.inmemantlr.exceptions.IllegalWorkflowException;
+import org.snt.inmemantlr.exceptions.ParsingException;
+import org.snt.inmemantlr.listener.DefaultTreeListener;
+import org.snt.inmemantlr.tool.InmemantlrTool;
+import org.snt.inmemantlr.utils.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TestCompilationCache {
+
+    static File grammar = null;
+
+    static {
+        ClassLoader classLoader = TestCompilationCache.class.getClassLoader();
+        grammar = new File(classLoader.getResource("inmemantlr/Simple.g4").getFile());
+    }
+
+    private static List<Path> entries(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * replace a component of a generic parser by a spy on it
+     */
+    private static <T> T spyOn(GenericParser gp, String fieldName) throws ReflectiveOperationException {
+        Field field = GenericParser.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        T spy = spy((T) field.get(gp));
+        field.set(gp, spy);
+        return spy;
+    }
+
+    private static String parse(GenericParser gp) throws IllegalWorkflowException, ParsingException {
+        DefaultTreeListener dlist = new DefaultTreeListener();
+        gp.setListener(dlist);
+        gp.parse("PRINT a + b", GenericParser.CaseSensitiveType.NONE);
+        return dlist.getParseTree().toJson();
+    }
+
+    @Test
+    public void secondCompilationIsLoadedFromCache(@TempDir Path dir) throws IOException, CompilationException, IllegalWorkflowException, ParsingException, ReflectiveOperationException {
+        CompilationCache cache = new CompilationCache(dir);
+
+        GenericParser first = new GenericParser(grammar);
+        first.setCompilationCache(cache);
+        InmemantlrTool firstTool = spyOn(first, "antlr");
+        StringCompiler firstCompiler = spyOn(first, "sc");
+        first.compile();
+        verify(firstTool).process();
+        verify(firstCompiler).compile(any(), any());
+        List<Path> stored = entries(dir);
+        assertEquals(1, stored.size());
+
+        GenericParser second = new GenericParser(grammar);
+        second.setCompilationCache(cache);
+        InmemantlrTool secondTool = spyOn(second, "antlr");
+        StringCompiler secondCompiler = spyOn(second, "sc");
+        second.compile();
+        verify(secondTool, never()).process();
+        verify(secondCompiler, never()).compile(any(), any());
+        assertEquals(stored, entries(dir));
+
+        assertEquals(first.getParserName(), second.getParserName());
+        assertEquals(first.getLexerName(), second.getLexerName());
+        assertEquals(parse(first), parse(second));
+    }
+
+    @Test
+    public void corruptedEntryIsRecompiled(@TempDir Path dir) throws IOException, CompilationException, IllegalWorkflowException, ParsingException {
+        CompilationCache cache = new CompilationCache(dir);
+
+        GenericParser first = new GenericParser(grammar);
+        first.setCompilationCache(cache);
+        first.compile();
+        Path entry = entries(dir).get(0);
+        Files.write(entry, new byte[]{1, 2, 3});
+
+        GenericParser second = new GenericParser(grammar);
+        second.setCompilationCache(cache);
+        second.compile();
+        assertEquals(parse(first), parse(second));
+        assertNotNull(cache.get(entry.getFileName().toString().replace(".gp", "")));
+    }
+
+    @Test
+    public void keyDependsOnGrammarContent() {
+        String content = FileUtils.loadFileContent(grammar.getAbsolutePath());
+        String key = CompilationCache.key(Collections.singleton(content), Collections.emptySet(), Collections.emptyList());
+        assertEquals(key, CompilationCache.key(Collections.singleton(content), Collections.emptySet(), Collections.emptyList()));
+        assertNotEquals(key, CompilationCache.key(Collections.singleton(content + " "), Collections.emptySet(), Collections.emptyList()));
+    }
+}
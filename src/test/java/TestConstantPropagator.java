@@ -44,7 +44,7 @@ class TestConstantPropagator {
     @Test
     void returnsEmptyNewConstantValuesWhenNoInstructions() {
         ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>();
-        ConstantPropagator propagator = new ConstantPropagator(instructions);
+        ConstantPropagator propagator = new ConstantPropagator(instructions, new SymbolTable());
 
         ArrayList<ArrayList<BoxedVariableProperties>> result = propagator.getNewConstantValues();
 
@@ -63,7 +63,7 @@ class TestConstantPropagator {
         ArrayList<InstructionNode> instructions = new ArrayList<>();
         instructions.add(instruction1);
         instructions.add(instruction2);
-        ConstantPropagator propagator = new ConstantPropagator(new ArrayList<>(Collections.singletonList(instructions)));
+        ConstantPropagator propagator = new ConstantPropagator(new ArrayList<>(Collections.singletonList(instructions)), new SymbolTable());
 
         ArrayList<ArrayList<BoxedVariableProperties>> result = propagator.getNewConstantValues();
 
@@ -80,7 +80,7 @@ class TestConstantPropagator {
         quantumVariable.setCliffordStateBeforeGate(QuantumCliffordState.X_POSITIVE);
         when(instruction.getQuantumParameters()).thenReturn(new ArrayList<>(Collections.singletonList(quantumVariable)));
         ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>(Collections.singletonList(new ArrayList<>(Collections.singletonList(instruction))));
-        ConstantPropagator propagator = new ConstantPropagator(instructions);
+        ConstantPropagator propagator = new ConstantPropagator(instructions, new SymbolTable());
 
         ArrayList<ArrayList<BoxedVariableProperties>> result = propagator.getNewConstantValues();
 
@@ -94,7 +94,7 @@ class TestConstantPropagator {
         QuantumVariable quantumVariable = new QuantumVariable("q1", QuantumUsage.SINGLE_GATE);
         when(instruction.getQuantumParameters()).thenReturn(new ArrayList<>(Collections.singletonList(quantumVariable)));
         ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>(Collections.singletonList(new ArrayList<>(Collections.singletonList(instruction))));
-        ConstantPropagator propagator = new ConstantPropagator(instructions);
+        ConstantPropagator propagator = new ConstantPropagator(instructions, new SymbolTable());
 
         ArrayList<ArrayList<BoxedVariableProperties>> result = propagator.getNewConstantValues();
 
@@ -0,0 +1,76 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+import de.hhu.lirem101.quil_optimizer.DistinctCounter;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestDistinctCounter {
+
+    @Test
+    void countsFewHashesExactly() {
+        DistinctCounter counter = new DistinctCounter();
+        for(int i = 0; i < 3000; i++) {
+            counter.add(i % 1000);
+        }
+        assertTrue(counter.isExact());
+        assertEquals(1000, counter.count());
+    }
+
+    @Test
+    void estimatesManyHashes() {
+        DistinctCounter counter = new DistinctCounter();
+        Random random = new Random(42);
+        long[] hashes = new long[200000];
+        for(int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+        }
+        for(int repetition = 0; repetition < 3; repetition++) {
+            for(long hash : hashes) {
+                counter.add(hash);
+            }
+        }
+        assertFalse(counter.isExact());
+        assertEquals(hashes.length, counter.count(), hashes.length * 0.05);
+    }
+
+    @Test
+    void estimatesConsecutiveHashes() {
+        DistinctCounter counter = new DistinctCounter();
+        for(long hash = 0; hash < 10000; hash++) {
+            counter.add(hash);
+        }
+        assertFalse(counter.isExact());
+        assertEquals(10000, counter.count(), 10000 * 0.05);
+    }
+}
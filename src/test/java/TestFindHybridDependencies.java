@@ -106,12 +106,14 @@ class TestFindHybridDependencies {
         when(hybridNode1.getLineType()).thenReturn(LineType.CLASSICAL_INFLUENCES_QUANTUM);
         when(hybridNode1.getCodelines()).thenReturn(new ArrayList<>(Collections.singletonList(3)));
         when(hybridNode1.getDependencies()).thenReturn(new HashSet<>(Collections.singletonList(classicalNode1)));
+        when(hybridNode1.getBranches()).thenReturn(new ArrayList<>(Collections.singletonList(classicalNode1)));
         InstructionNode hybridNode2 = mock(InstructionNode.class);
         when(hybridNode2.getLineType()).thenReturn(LineType.CLASSICAL_INFLUENCES_QUANTUM);
         when(hybridNode2.getCodelines()).thenReturn(new ArrayList<>(Collections.singletonList(4)));
         Set<InstructionNode> dependencies = new HashSet<>(Collections.singletonList(classicalNode1));
         dependencies.add(classicalNode2);
         when(hybridNode2.getDependencies()).thenReturn(dependencies);
+        when(hybridNode2.getBranches()).thenReturn(new ArrayList<>(dependencies));
 
         ArrayList<InstructionNode> instructionList = new ArrayList<>();
         instructionList.add(classicalNode1);
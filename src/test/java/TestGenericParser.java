@@ -35,9 +35,16 @@ import org.slf4j.LoggerFactory;
 import org.snt.inmemantlr.GenericParser;
 import org.snt.inmemantlr.exceptions.*;
 import org.snt.inmemantlr.listener.DefaultListener;
+import org.snt.inmemantlr.listener.DefaultTreeListener;
+import org.snt.inmemantlr.utils.FileUtils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -251,4 +258,39 @@ public class TestGenericParser {
 
     }
 
+    @Test
+    public void genericParserCanBeSharedBetweenThreads() throws Exception {
+        String resourcePath = System.getProperty("user.dir") + "/src/main/resources/";
+        GenericParser gp = new GenericParser(new File(resourcePath + "Quil.g4"));
+        gp.compile();
+        String[] files = {"ipe", "magic-state-distillation", "readme-example", "repeat-until-success", "teleport"};
+        List<String> quilCodes = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (String file : files) {
+            String quilCode = FileUtils.loadFileContent(resourcePath + "QuilExampleFiles/" + file + ".quil");
+            quilCodes.add(quilCode);
+            DefaultTreeListener dlist = new DefaultTreeListener();
+            gp.parse(quilCode, null, GenericParser.CaseSensitiveType.NONE, dlist);
+            expected.add(dlist.getParseTree().toJson());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String quilCode = quilCodes.get(i % quilCodes.size());
+                results.add(pool.submit(() -> {
+                    DefaultTreeListener dlist = new DefaultTreeListener();
+                    gp.parse(quilCode, null, GenericParser.CaseSensitiveType.NONE, dlist);
+                    return dlist.getParseTree().toJson();
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Assertions.assertEquals(expected.get(i % expected.size()), results.get(i).get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
 }
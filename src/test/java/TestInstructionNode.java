@@ -30,6 +30,7 @@
 
 import de.hhu.lirem101.quil_analyser.LineType;
 import de.hhu.lirem101.quil_optimizer.InstructionNode;
+import de.hhu.lirem101.quil_optimizer.quil_variable.SymbolTable;
 import org.junit.jupiter.api.Test;
 import org.snt.inmemantlr.tree.ParseTreeNode;
 
@@ -104,7 +105,7 @@ class TestInstructionNode {
     @Test
     void handlesParameterLinksCorrectly() {
         InstructionNode prevNode = new InstructionNode(1, LineType.CLASSICAL);
-        InstructionNode node = new InstructionNode(1, LineType.CLASSICAL);
+        InstructionNode node = new InstructionNode(2, LineType.CLASSICAL);
         ParseTreeNode classicalNode = mock(ParseTreeNode.class);
         when(classicalNode.getLine()).thenReturn(1);
         when(classicalNode.getRule()).thenReturn("addr");
@@ -113,20 +114,24 @@ class TestInstructionNode {
         node.setParseTreeNode(classicalNode);
         prevNode.setParseTreeNode(classicalNode);
 
-        Map<String, InstructionNode> previousParameters = new HashMap<>();
-        prevNode.setParameterLinks(previousParameters);
+        SymbolTable symbols = new SymbolTable();
+        symbols.intern("param0");
+        prevNode.internParameters(symbols);
+        node.internParameters(symbols);
+        assertEquals(2, symbols.size());
+        assertEquals(1, symbols.intern("param1"));
+        assertEquals("param1", symbols.getName(1));
 
-        Map<String, InstructionNode> expected = new HashMap<>();
-        expected.put("param1", prevNode);
-        assertEquals(expected, previousParameters);
+        InstructionNode[] previousParameters = new InstructionNode[symbols.size()];
+        prevNode.setParameterLinks(previousParameters);
+        assertArrayEquals(new InstructionNode[]{null, prevNode}, previousParameters);
 
         node.setParameterLinks(previousParameters);
-        expected.put("param1", node);
-        assertEquals(expected, previousParameters);
+        assertArrayEquals(new InstructionNode[]{null, node}, previousParameters);
 
         assertTrue(node.getNextInstructions().isEmpty());
         assertEquals(Collections.singletonList(prevNode), node.getBranches());
         assertEquals(Collections.singletonList(node), prevNode.getNextInstructions());
         assertTrue(prevNode.getBranches().isEmpty());
     }
-}
\ No newline at end of file
+}
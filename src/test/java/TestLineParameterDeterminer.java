@@ -122,9 +122,11 @@ class TestLineParameterDeterminer {
         ParseTree pt = mock(ParseTree.class);
         ParseTreeNode rootNode = mock(ParseTreeNode.class);
         ParseTreeNode memoryNode = mock(ParseTreeNode.class);
+        ParseTreeNode addrNode = mock(ParseTreeNode.class);
         when(pt.getRoot()).thenReturn(rootNode);
         List<ParseTreeNode> nodes = new ArrayList<>();
         nodes.add(memoryNode);
+        nodes.add(addrNode);
         when(rootNode.getChildren()).thenReturn(nodes);
         when(rootNode.getRule()).thenReturn("root");
         when(rootNode.getLine()).thenReturn(1);
@@ -132,19 +134,24 @@ class TestLineParameterDeterminer {
         when(rootNode.getLine()).thenReturn(1);
         when(memoryNode.getLine()).thenReturn(3);
         when(memoryNode.getRule()).thenReturn("memoryDescriptor");
-        when(memoryNode.getLabel()).thenReturn("DECLAREparam2REAL[1]");
+        when(memoryNode.getLabel()).thenReturn("DECLAREparam2REAL[1000000]");
+        when(addrNode.getLine()).thenReturn(4);
+        when(addrNode.getRule()).thenReturn("addr");
+        when(addrNode.getLabel()).thenReturn("param2[0]");
 
         ClassifyLines cl = mock(ClassifyLines.class);
         Map<Integer, LineType> lineTypes = new HashMap<>();
         lineTypes.put(3, LineType.CLASSICAL);
+        lineTypes.put(4, LineType.CLASSICAL);
         when(cl.classifyLines()).thenReturn(lineTypes);
 
         LineParameterDeterminer determiner = new LineParameterDeterminer(pt, cl);
         ArrayList<LineParameter> result = determiner.getLineParameters();
 
-        assertEquals(1, result.size());
+        assertEquals(2, result.size());
         assertEquals(3, result.iterator().next().getLineNumber());
-        assertTrue(result.iterator().next().getClassicalParameters().contains("param2[0]"));
+        // Only the referenced element of the region is a parameter of the declaration
+        assertEquals(Collections.singleton("param2[0]"), result.iterator().next().getClassicalParameters());
     }
 
     @Test
@@ -36,6 +36,7 @@ import de.hhu.lirem101.quil_optimizer.quil_variable.ClassicalUsage;
 import de.hhu.lirem101.quil_optimizer.quil_variable.ClassicalVariable;
 import de.hhu.lirem101.quil_optimizer.quil_variable.QuantumUsage;
 import de.hhu.lirem101.quil_optimizer.quil_variable.QuantumVariable;
+import de.hhu.lirem101.quil_optimizer.quil_variable.SymbolTable;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -48,7 +49,7 @@ class TestLiveVariableAnalyser {
     void returnsEmptyVariablesSetToDeadWhenNoInstructions() {
         ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>();
         Set<String> readoutVariables = new HashSet<>();
-        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0);
+        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0, new SymbolTable());
 
         ArrayList<ArrayList<BoxedVariableProperties>> result = analyser.getVariablesSetToDead();
 
@@ -62,7 +63,7 @@ class TestLiveVariableAnalyser {
         when(instruction.getClassicalParameters()).thenReturn(new ArrayList<>(Collections.singletonList(classicalVariable)));
         ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>(Collections.singletonList(new ArrayList<>(Collections.singletonList(instruction))));
         Set<String> readoutVariables = new HashSet<>();
-        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0);
+        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0, new SymbolTable());
 
         ArrayList<ArrayList<BoxedVariableProperties>> result = analyser.getVariablesSetToDead();
 
@@ -78,7 +79,7 @@ class TestLiveVariableAnalyser {
         when(instruction.getClassicalParameters()).thenReturn(new ArrayList<>(Collections.singletonList(classicalVariable)));
         ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>(Collections.singletonList(new ArrayList<>(Collections.singletonList(instruction))));
         Set<String> readoutVariables = new HashSet<>(Collections.singletonList("c1"));
-        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0);
+        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0, new SymbolTable());
 
         ArrayList<ArrayList<BoxedVariableProperties>> result = analyser.getVariablesSetToDead();
 
@@ -92,7 +93,7 @@ class TestLiveVariableAnalyser {
         when(instruction.getQuantumParameters()).thenReturn(new ArrayList<>(Collections.singletonList(quantumVariable)));
         ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>(Collections.singletonList(new ArrayList<>(Collections.singletonList(instruction))));
         Set<String> readoutVariables = new HashSet<>();
-        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0);
+        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0, new SymbolTable());
 
         ArrayList<ArrayList<BoxedVariableProperties>> result = analyser.getVariablesSetToDead();
 
@@ -112,7 +113,7 @@ class TestLiveVariableAnalyser {
         when(instruction.getQuantumParameters()).thenReturn(quantumVariables);
         ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>(Collections.singletonList(new ArrayList<>(Collections.singletonList(instruction))));
         Set<String> readoutVariables = new HashSet<>();
-        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0);
+        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0, new SymbolTable());
 
         ArrayList<ArrayList<BoxedVariableProperties>> result = analyser.getVariablesSetToDead();
 
@@ -141,7 +142,7 @@ class TestLiveVariableAnalyser {
 
         ArrayList<ArrayList<InstructionNode>> instructions = new ArrayList<>(Collections.singletonList(new ArrayList<>(Arrays.asList(multiGateInstruction, measureInstruction))));
         Set<String> readoutVariables = new HashSet<>(Collections.singletonList("c1"));
-        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0);
+        LiveVariableAnalyser analyser = new LiveVariableAnalyser(instructions, readoutVariables, 0, new SymbolTable());
 
         ArrayList<ArrayList<BoxedVariableProperties>> result = analyser.getVariablesSetToDead();
 
@@ -0,0 +1,179 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.snt.inmemantlr.exceptions.CompilationException;
+import org.snt.inmemantlr.exceptions.IllegalWorkflowException;
+import org.snt.inmemantlr.exceptions.ParsingException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestMain {
+    private static final List<String> QUIL_CODE = Arrays.asList("DECLARE ro BIT[1]", "H 0", "MEASURE 0 ro[0]");
+    private static final List<String> BROKEN_QUIL_CODE = Arrays.asList("DECLARE ro BIT[1]", "FOO BAR 0 (",
+            "MEASURE 0 ro[0]");
+
+    @Test
+    public void batchDirectoryGivesItsQuilFilesSorted(@TempDir Path tempDir) throws IOException {
+        for (String name : Arrays.asList("c.quil", "a.quil", "notes.txt", "b.quil")) {
+            Files.write(tempDir.resolve(name), QUIL_CODE);
+        }
+        Files.createDirectory(tempDir.resolve("d.quil.d"));
+
+        List<String> files = Main.getBatchFiles(tempDir.toString());
+        assertEquals(Arrays.asList(tempDir.resolve("a.quil").toString(), tempDir.resolve("b.quil").toString(),
+                tempDir.resolve("c.quil").toString()), files);
+    }
+
+    @Test
+    public void batchFileListSkipsCommentsAndBlankLines(@TempDir Path tempDir) throws IOException {
+        Path fileList = tempDir.resolve("files.txt");
+        Files.write(fileList, Arrays.asList("# Files to process", "", "  second.quil  ", "# skipped.quil", "   ",
+                "first.quil"));
+
+        List<String> files = Main.getBatchFiles(fileList.toString());
+        assertEquals(Arrays.asList("second.quil", "first.quil"), files);
+    }
+
+    @Test
+    public void failingFileDoesNotStopTheBatch(@TempDir Path tempDir) throws IOException, CompilationException {
+        Files.write(tempDir.resolve("a.quil"), QUIL_CODE);
+        Files.write(tempDir.resolve("b.quil"), BROKEN_QUIL_CODE);
+        Files.write(tempDir.resolve("c.quil"), QUIL_CODE);
+        List<String> files = Arrays.asList(tempDir.resolve("a.quil").toString(), tempDir.resolve("b.quil").toString(),
+                tempDir.resolve("missing.quil").toString(), tempDir.resolve("c.quil").toString());
+
+        assertEquals(2, Main.processBatch(files, null, 2, false, false, null, null));
+    }
+
+    @Test
+    public void failingFileDoesNotStopTheOptimizationOfTheBatch(@TempDir Path tempDir) throws IOException, CompilationException, ParsingException, IllegalWorkflowException {
+        Files.write(tempDir.resolve("a.quil"), QUIL_CODE);
+        Files.write(tempDir.resolve("b.quil"), BROKEN_QUIL_CODE);
+        Files.write(tempDir.resolve("c.quil"), QUIL_CODE);
+
+        Main.main(new String[]{tempDir.toString(), "-optimize", "ro[0]", "-iterations", "2", "-nOptimizations", "2",
+                "-threads", "2"});
+        assertTrue(Files.exists(tempDir.resolve("a_optimization_fuzzing.json")));
+        assertFalse(Files.exists(tempDir.resolve("b_optimization_fuzzing.json")));
+        assertTrue(Files.exists(tempDir.resolve("c_optimization_fuzzing.json")));
+    }
+
+    @Test
+    public void bestProgramsOfAnEarlierRunAreNoInputsOfTheBatch(@TempDir Path tempDir) throws IOException, CompilationException, ParsingException, IllegalWorkflowException {
+        Files.write(tempDir.resolve("a.quil"), QUIL_CODE);
+        Files.write(tempDir.resolve("b.quil"), QUIL_CODE);
+        String[] args = new String[]{tempDir.toString(), "-optimize", "ro[0]", "-iterations", "2", "-nOptimizations",
+                "2", "-threads", "2"};
+
+        Main.main(args);
+        assertTrue(Files.exists(tempDir.resolve("a_optimization_fuzzing_best_instructions.quil")));
+        List<String> inputs = Main.getBatchFiles(tempDir.toString());
+        assertEquals(Arrays.asList(tempDir.resolve("a.quil").toString(), tempDir.resolve("b.quil").toString()),
+                inputs);
+
+        long quilFiles;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            quilFiles = files.filter(x -> x.toString().endsWith(".quil")).count();
+        }
+        Main.main(args);
+        assertEquals(inputs, Main.getBatchFiles(tempDir.toString()));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(quilFiles, files.filter(x -> x.toString().endsWith(".quil")).count());
+        }
+    }
+
+    @Test
+    public void resumeWithoutCheckpointKeepsTheResults(@TempDir Path tempDir) throws IOException, CompilationException, ParsingException, IllegalWorkflowException {
+        Path quilFile = tempDir.resolve("a.quil");
+        Files.write(quilFile, QUIL_CODE);
+        Path result = tempDir.resolve("a_optimization_fuzzing.json");
+        Main.main(new String[]{quilFile.toString(), "-optimize", "ro[0]", "-iterations", "2", "-nOptimizations", "2"});
+        assertFalse(Files.exists(tempDir.resolve("a_optimization_fuzzing.json.checkpoint")));
+        byte[] finished = Files.readAllBytes(result);
+
+        PrintStream stderr = System.err;
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(err, true));
+        try {
+            Main.main(new String[]{quilFile.toString(), "-optimize", "ro[0]", "-resume"});
+        } finally {
+            System.setErr(stderr);
+        }
+        assertTrue(err.toString().contains("No checkpoint of " + result + " to resume."));
+        assertArrayEquals(finished, Files.readAllBytes(result));
+    }
+
+    @Test
+    public void outputOfTheFilesOfABatchDoesNotInterleave(@TempDir Path tempDir) throws IOException, CompilationException, ParsingException, IllegalWorkflowException {
+        Files.write(tempDir.resolve("a.quil"), QUIL_CODE);
+        Files.write(tempDir.resolve("b.quil"), QUIL_CODE);
+        String a = tempDir.resolve("a.quil").toString();
+        String b = tempDir.resolve("b.quil").toString();
+
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true));
+        try {
+            Main.main(new String[]{tempDir.toString(), "-optimize", "ro[0]", "-iterations", "20", "-nOptimizations",
+                    "4", "-threads", "2"});
+        } finally {
+            System.setOut(stdout);
+        }
+        assertEquals(stdout, System.out);
+
+        List<String> lines = Arrays.asList(out.toString().split("\\R"));
+        List<String> fileLines = lines.stream().filter(l -> l.startsWith(a + ": ") || l.startsWith(b + ": "))
+                .collect(Collectors.toList());
+        assertTrue(fileLines.contains(a + ": Starting optimization..."));
+        assertTrue(fileLines.contains(b + ": Starting optimization..."));
+        assertTrue(lines.stream().filter(l -> l.contains("Fuzzing iterations")).allMatch(fileLines::contains));
+        // All lines of a file are printed together
+        int firstOfB = fileLines.indexOf(b + ": Starting optimization...");
+        int firstOfA = fileLines.indexOf(a + ": Starting optimization...");
+        List<String> blockOfFirst = fileLines.subList(Math.min(firstOfA, firstOfB), Math.max(firstOfA, firstOfB));
+        String first = firstOfA < firstOfB ? a : b;
+        assertTrue(blockOfFirst.stream().allMatch(l -> l.startsWith(first + ": ")));
+    }
+}
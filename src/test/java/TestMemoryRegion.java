@@ -0,0 +1,85 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+import de.hhu.lirem101.quil_analyser.MemoryRegion;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestMemoryRegion {
+
+    @Test
+    void parsesDeclarationLabel() {
+        MemoryRegion region = MemoryRegion.fromLabel("DECLAREthetaREAL[4]");
+        assertEquals("theta", region.getName());
+        assertEquals("REAL", region.getType());
+        assertEquals(4, region.getLength());
+        assertNull(region.getSharedRegion());
+        assertTrue(region.getOffsets().isEmpty());
+        assertEquals("theta[3]", region.getElementName(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> region.getElementName(4));
+    }
+
+    @Test
+    void parsesSharedDeclarationLabel() {
+        MemoryRegion region = MemoryRegion.fromLabel("DECLAREBITsBIT[8]SHARINGmemOFFSET2REALOFFSET1BIT");
+        assertEquals("BITs", region.getName());
+        assertEquals("BIT", region.getType());
+        assertEquals(8, region.getLength());
+        assertEquals("mem", region.getSharedRegion());
+        assertEquals(Arrays.asList("OFFSET 2 REAL", "OFFSET 1 BIT"), region.getOffsets());
+        assertEquals("DECLARE BITs BIT[8] SHARING mem OFFSET 2 REAL OFFSET 1 BIT", region.toString());
+    }
+
+    @Test
+    void parsesScalarDeclarationLabel() {
+        MemoryRegion region = MemoryRegion.fromLabel("DECLAREflagBIT");
+        assertEquals(1, region.getLength());
+        assertEquals("flag", region.getElementName(0));
+        assertEquals(0, region.getIndexOfElement("flag"));
+        assertEquals(-1, region.getIndexOfElement("flag[0]"));
+    }
+
+    @Test
+    void throwsExceptionForNoDeclarationLabel() {
+        assertThrows(IllegalArgumentException.class, () -> MemoryRegion.fromLabel("MOVEro[0]1"));
+    }
+
+    @Test
+    void returnsOnlyReferencedElementsOrderedByIndex() {
+        MemoryRegion region = MemoryRegion.fromLabel("DECLAREbufREAL[1000000]");
+        assertEquals(Arrays.asList("buf[3]", "buf[999999]"), region.getReferencedElements(
+                Arrays.asList("buf[999999]", "ro[0]", "buf[3]", "buf[1000000]", "buffer[1]", "buf[x]", "buf", "buf[3]")));
+        assertEquals(Collections.emptyList(), region.getReferencedElements(Collections.emptyList()));
+    }
+}
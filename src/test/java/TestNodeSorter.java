@@ -93,4 +93,27 @@ class TestNodeSorter {
         assertTrue(sortedList.contains(node1));
         assertTrue(sortedList.contains(node2));
     }
-}
\ No newline at end of file
+
+    @Test
+    void sortsNodesInTheOrderOfRepeatedScans() {
+        InstructionNode node1 = mock(InstructionNode.class);
+        InstructionNode node2 = mock(InstructionNode.class);
+        InstructionNode node3 = mock(InstructionNode.class);
+        InstructionNode node4 = mock(InstructionNode.class);
+        InstructionNode missing = mock(InstructionNode.class);
+        when(node1.getLine()).thenReturn(1);
+        when(node2.getLine()).thenReturn(2);
+        when(node3.getLine()).thenReturn(3);
+        when(node4.getLine()).thenReturn(4);
+        when(missing.getLine()).thenReturn(5);
+        when(node2.getBranches()).thenReturn(new ArrayList<>(Collections.singletonList(node1)));
+        when(node3.getBranches()).thenReturn(new ArrayList<>(Collections.singletonList(node2)));
+        when(node4.getBranches()).thenReturn(new ArrayList<>(Arrays.asList(node1, missing)));
+        ArrayList<InstructionNode> instructionList = new ArrayList<>(Arrays.asList(node3, node4, node1, node2));
+
+        ArrayList<InstructionNode> sortedList = NodeSorter.sortNodes(instructionList);
+
+        assertEquals(Arrays.asList(node1, node2, node3), sortedList);
+        assertEquals(Collections.singletonList(node4), instructionList);
+    }
+}
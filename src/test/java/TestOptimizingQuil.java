@@ -29,25 +29,55 @@
  **/
 
 import de.hhu.lirem101.quil_analyser.*;
+import de.hhu.lirem101.quil_optimizer.DeltaEncoding;
+import de.hhu.lirem101.quil_optimizer.FuzzingOptions;
+import de.hhu.lirem101.quil_optimizer.FuzzingResultMerger;
+import de.hhu.lirem101.quil_optimizer.JsonFiles;
 import de.hhu.lirem101.quil_optimizer.OptimizingQuil;
+import de.hhu.lirem101.quil_optimizer.StoppingCriterion;
+import de.hhu.lirem101.quil_optimizer.Verbosity;
+import de.hhu.lirem101.quil_optimizer.search.BanditSampling;
+import de.hhu.lirem101.quil_optimizer.search.BanditStatistics;
+import de.hhu.lirem101.quil_optimizer.search.BeamSearch;
+import de.hhu.lirem101.quil_optimizer.search.Objective;
+import de.hhu.lirem101.quil_optimizer.search.SequenceListSearch;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.snt.inmemantlr.GenericParser;
 import org.snt.inmemantlr.exceptions.CompilationException;
 import org.snt.inmemantlr.exceptions.IllegalWorkflowException;
 import org.snt.inmemantlr.exceptions.ParsingException;
 import org.snt.inmemantlr.listener.DefaultTreeListener;
 import org.snt.inmemantlr.tree.ParseTree;
+import org.snt.inmemantlr.tree.ParseTreeNode;
 import org.snt.inmemantlr.utils.FileUtils;
 
+import javax.json.Json;
 import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
 import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 
 import static de.hhu.lirem101.quil_optimizer.OptimizingQuil.fuzzOptimization;
+import static de.hhu.lirem101.quil_optimizer.OptimizingQuil.resumeFuzzing;
+import static de.hhu.lirem101.quil_optimizer.OptimizingQuil.searchOptimization;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestOptimizingQuil {
     // Check that no errors are thrown for combinations that have thrown errors in the past
@@ -79,6 +109,36 @@ public class TestOptimizingQuil {
         return blocks;
     }
 
+    /**
+     * A parsed Quil file with everything needed to optimize it.
+     */
+    private static class ParsedQuil {
+        private final ParseTree pt;
+        private final ParseTreeNode root;
+        private final Map<Integer, LineType> classes;
+        private final ControlFlowBlock blocks;
+        private final Set<String> readoutParams;
+        private final String[] quilCode;
+
+        private ParsedQuil(String quilFileName, Set<String> readoutParams) throws FileNotFoundException, CompilationException, IllegalWorkflowException, ParsingException {
+            pt = getParseTree(resourcePath + "Quil.g4", quilFileName);
+            root = pt.getRoot();
+            ClassifyLines cl = new ClassifyLines(root);
+            classes = cl.classifyLines();
+            blocks = getControlFlow(pt, classes);
+            this.readoutParams = readoutParams;
+            quilCode = FileUtils.loadFileContent(quilFileName).split("\n");
+        }
+
+        private OptimizingQuil optimizingQuil() {
+            return new OptimizingQuil(blocks, classes, root, readoutParams, quilCode);
+        }
+    }
+
+    private static ParsedQuil parseQuil(String quilFileName, String... readoutParams) throws FileNotFoundException, CompilationException, IllegalWorkflowException, ParsingException {
+        return new ParsedQuil(quilFileName, new HashSet<>(Arrays.asList(readoutParams)));
+    }
+
     private JsonObjectBuilder doOptimization(ArrayList<String> optimizationSteps) throws CompilationException, ParsingException, FileNotFoundException, IllegalWorkflowException {
         final String file = "iterative-phase-estimation";
         return doOptimizationOnFile(optimizationSteps, file);
@@ -306,4 +366,471 @@ public class TestOptimizingQuil {
         doMultipleOptimization(optimizations);
     }
 
+    @Test
+    public void parallelFuzzingGivesSameResultAsSequential() throws CompilationException, ParsingException, FileNotFoundException, IllegalWorkflowException {
+        List<String> steps = Arrays.asList("LiveVariableAnalysis", "DeadCodeElimination", "ConstantPropagation",
+                "ConstantFolding", "HybridDependencies", "ReOrdering", "LastPossibleQuantumExecution");
+        Random random = new Random(42);
+        ArrayList<ArrayList<String>> optimizations = new ArrayList<>();
+        for(int i = 0; i < 12; i++) {
+            ArrayList<String> iterationOptimizations = new ArrayList<>();
+            for(int j = 0; j < 10; j++) {
+                iterationOptimizations.add(steps.get(random.nextInt(steps.size())));
+            }
+            optimizations.add(iterationOptimizations);
+        }
+
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/iterative-phase-estimation.quil", "result[0]");
+
+        JsonObject sequential = fuzzOptimization(optimizations, new FuzzingOptions().setThreads(1), quil.blocks,
+                quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        JsonObject parallel = fuzzOptimization(optimizations, new FuzzingOptions().setThreads(4), quil.blocks,
+                quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+
+    @Test
+    public void fuzzingDoesNotChangeTheParseTree() throws CompilationException, ParsingException, FileNotFoundException, IllegalWorkflowException {
+        ArrayList<ArrayList<String>> optimizations = new ArrayList<>();
+        for(int i = 0; i < 4; i++) {
+            optimizations.add(new ArrayList<>(Arrays.asList("ConstantPropagation", "ConstantFolding")));
+        }
+
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/constant-folding.quil", "ro[0]");
+
+        String parseTreeBefore = quil.pt.toJson();
+        JsonObject sequential = fuzzOptimization(optimizations, new FuzzingOptions().setThreads(1), quil.blocks,
+                quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        JsonObject parallel = fuzzOptimization(optimizations, new FuzzingOptions().setThreads(4), quil.blocks,
+                quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        assertEquals(parseTreeBefore, quil.pt.toJson());
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+
+    @Test
+    public void memoizedFuzzingGivesSameResultAsWithoutMemoization() throws CompilationException, ParsingException, FileNotFoundException, IllegalWorkflowException {
+        List<String> steps = Arrays.asList("LiveVariableAnalysis", "DeadCodeElimination", "ConstantPropagation",
+                "ConstantFolding", "HybridDependencies", "ReOrdering", "LastPossibleQuantumExecution");
+        Random random = new Random(42);
+        ArrayList<ArrayList<String>> prefixes = new ArrayList<>();
+        for(int i = 0; i < 3; i++) {
+            ArrayList<String> prefix = new ArrayList<>();
+            for(int j = 0; j < 6; j++) {
+                prefix.add(steps.get(random.nextInt(steps.size())));
+            }
+            prefixes.add(prefix);
+        }
+        ArrayList<ArrayList<String>> optimizations = new ArrayList<>();
+        for(int i = 0; i < 12; i++) {
+            ArrayList<String> iterationOptimizations = new ArrayList<>(prefixes.get(random.nextInt(prefixes.size())));
+            for(int j = 0; j < 4; j++) {
+                iterationOptimizations.add(steps.get(random.nextInt(steps.size())));
+            }
+            optimizations.add(iterationOptimizations);
+        }
+
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/iterative-phase-estimation.quil", "result[0]");
+
+        JsonObject withoutMemoization = fuzzOptimization(optimizations,
+                new FuzzingOptions().setThreads(1).setMemoryBudget(0), quil.blocks, quil.classes, quil.root,
+                quil.readoutParams, quil.quilCode);
+        JsonObject memoized = fuzzOptimization(optimizations,
+                new FuzzingOptions().setThreads(1).setMemoryBudget(1L << 30), quil.blocks, quil.classes, quil.root,
+                quil.readoutParams, quil.quilCode);
+        JsonObject memoizedParallel = fuzzOptimization(optimizations,
+                new FuzzingOptions().setThreads(4).setMemoryBudget(1L << 30), quil.blocks, quil.classes, quil.root,
+                quil.readoutParams, quil.quilCode);
+        JsonObject memoizedSmallBudget = fuzzOptimization(optimizations,
+                new FuzzingOptions().setThreads(1).setMemoryBudget(100000), quil.blocks, quil.classes, quil.root,
+                quil.readoutParams, quil.quilCode);
+        assertEquals(withoutMemoization.toString(), memoized.toString());
+        assertEquals(withoutMemoization.toString(), memoizedParallel.toString());
+        assertEquals(withoutMemoization.toString(), memoizedSmallBudget.toString());
+    }
+
+    @Test
+    public void beamSearchIsDeterministicAndFindsGoodSequences() throws CompilationException, ParsingException, FileNotFoundException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/iterative-phase-estimation.quil", "result[0]");
+        List<List<String>> routines = OptimizingQuil.OPTIMIZATION_ROUTINES;
+
+        JsonObject beam = searchOptimization(new BeamSearch(routines, 4, 2, 24, Objective.WALL_TIME),
+                new FuzzingOptions().setThreads(1).setMemoryBudget(0), quil.blocks, quil.classes, quil.root,
+                quil.readoutParams, quil.quilCode);
+        JsonObject beamParallel = searchOptimization(new BeamSearch(routines, 4, 2, 24, Objective.WALL_TIME),
+                new FuzzingOptions().setThreads(4).setMemoryBudget(1L << 30), quil.blocks, quil.classes, quil.root,
+                quil.readoutParams, quil.quilCode);
+        assertEquals(beam.toString(), beamParallel.toString());
+        assertTrue(beam.containsKey("Iteration23"));
+        assertFalse(beam.containsKey("Iteration24"));
+
+        Random random = new Random(42);
+        ArrayList<ArrayList<String>> optimizations = new ArrayList<>();
+        for(int i = 0; i < 24; i++) {
+            ArrayList<String> iterationOptimizations = new ArrayList<>();
+            for(int j = 0; j < 4; j++) {
+                iterationOptimizations.addAll(routines.get(random.nextInt(routines.size())));
+            }
+            optimizations.add(iterationOptimizations);
+        }
+        JsonObject fuzzed = fuzzOptimization(optimizations, new FuzzingOptions().setThreads(1).setMemoryBudget(0),
+                quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        assertTrue(beam.getInt("MinimumWallTime") <= fuzzed.getInt("MinimumWallTime"));
+    }
+
+    @Test
+    public void banditSamplingLearnsAndPersistsStatistics(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/iterative-phase-estimation.quil", "result[0]");
+        List<List<String>> routines = OptimizingQuil.OPTIMIZATION_ROUTINES;
+        String context = BanditStatistics.getContext(quil.classes, Objective.NUMBER_OF_INSTRUCTIONS);
+
+        BanditStatistics statistics = new BanditStatistics();
+        JsonObject result = searchOptimization(new BanditSampling(routines, 3, 17, Objective.NUMBER_OF_INSTRUCTIONS, 42,
+                statistics, context), new FuzzingOptions().setThreads(1).setMemoryBudget(0), quil.blocks, quil.classes,
+                quil.root, quil.readoutParams, quil.quilCode);
+        assertEquals(0, result.getJsonObject("Iteration0").getJsonArray("AppliedOptimizations").size());
+        assertTrue(result.containsKey("Iteration16"));
+        int arms = 0;
+        for(List<String> first : routines) {
+            int[] counts = statistics.getCounts(context, "Start->" + String.join("+", first));
+            arms += counts[0] + counts[1];
+        }
+        assertEquals(16, arms);
+
+        String fileName = tempDir.resolve("bandit.json").toString();
+        statistics.write(fileName);
+        BanditStatistics read = BanditStatistics.read(fileName);
+        for(List<String> first : routines) {
+            String arm = "Start->" + String.join("+", first);
+            assertArrayEquals(statistics.getCounts(context, arm), read.getCounts(context, arm));
+        }
+        assertArrayEquals(new int[2], BanditStatistics.read(tempDir.resolve("missing.json").toString())
+                .getCounts(context, "Start->LiveVariableAnalysis+DeadCodeElimination"));
+    }
+
+    @Test
+    public void stateHashRecognizesEqualStates() throws CompilationException, ParsingException, FileNotFoundException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/iterative-phase-estimation.quil", "result[0]");
+
+        OptimizingQuil oQuil = quil.optimizingQuil();
+        long originalHash = oQuil.getStateHash();
+        oQuil.applyOptimizationStep("ConstantPropagation");
+        oQuil.applyOptimizationStep("ConstantFolding");
+        long foldedHash = oQuil.getStateHash();
+        assertNotEquals(originalHash, foldedHash);
+
+        OptimizingQuil copy = oQuil.copy();
+        assertEquals(foldedHash, copy.getStateHash());
+        oQuil.applyOptimizationStep("LiveVariableAnalysis");
+        copy.applyOptimizationStep("LiveVariableAnalysis");
+        assertEquals(oQuil.getStateHash(), copy.getStateHash());
+
+        oQuil.applyOptimizationStep("DeadCodeElimination");
+        long eliminatedHash = oQuil.getStateHash();
+        JsonObject first = oQuil.applyOptimizationStep("DeadCodeElimination");
+        assertEquals(eliminatedHash, oQuil.getStateHash());
+        JsonObject second = oQuil.applyOptimizationStep("DeadCodeElimination");
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void constantFoldingOfCopyDoesNotChangeSharedParseTree() throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/constant-folding.quil", "ro[0]");
+
+        OptimizingQuil oQuil = quil.optimizingQuil();
+        oQuil.applyOptimizationStep("ConstantPropagation");
+        long propagatedHash = oQuil.getStateHash();
+
+        OptimizingQuil copy = oQuil.copy();
+        OptimizingQuil secondCopy = oQuil.copy();
+        copy.applyOptimizationStep("ConstantFolding");
+        long foldedHash = copy.getStateHash();
+        assertNotEquals(propagatedHash, foldedHash);
+        assertEquals(propagatedHash, oQuil.getStateHash());
+        assertEquals(propagatedHash, secondCopy.getStateHash());
+
+        oQuil.applyOptimizationStep("ConstantFolding");
+        assertEquals(foldedHash, oQuil.getStateHash());
+        assertEquals(propagatedHash, secondCopy.getStateHash());
+        secondCopy.applyOptimizationStep("ConstantFolding");
+        assertEquals(foldedHash, secondCopy.getStateHash());
+    }
+
+    @Test
+    public void stepResultsShareUnchangedInstructionLists() throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/constant-folding.quil", "ro[0]");
+
+        OptimizingQuil oQuil = quil.optimizingQuil();
+        JsonArray first = oQuil.applyOptimizationStep("ReOrdering").getJsonArray("Result");
+        JsonArray second = oQuil.copy().applyOptimizationStep("ReOrdering").getJsonArray("Result");
+        assertEquals(first, second);
+        for(int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i), second.get(i));
+        }
+
+        oQuil.applyOptimizationStep("ConstantPropagation");
+        JsonArray folded = oQuil.applyOptimizationStep("ConstantFolding").getJsonArray("Result");
+        assertNotEquals(first, folded);
+        assertNotSame(first.get(0), folded.get(0));
+        JsonArray finalResult = oQuil.applyOptimizationSteps(new ArrayList<>()).build().getJsonArray("FinalResult");
+        assertSame(folded.get(0), finalResult.get(0));
+    }
+
+    @Test
+    public void findsHybridDependenciesOfManyPathsToTheSameInstruction(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        // Every CNOT depends on the two CNOTs before it, so the number of paths to the first one grows exponentially
+        List<String> lines = new ArrayList<>(Collections.singletonList("DECLARE ro BIT[1]"));
+        JsonArrayBuilder expectedLines = Json.createArrayBuilder().add(1);
+        for(int i = 0; i < 60; i++) {
+            lines.add("CNOT " + i % 3 + " " + (i + 1) % 3);
+            expectedLines.add(i + 2);
+        }
+        lines.add("MEASURE 0 ro[0]");
+        Path quilFile = tempDir.resolve("paths.quil");
+        Files.write(quilFile, lines);
+        ParsedQuil quil = parseQuil(quilFile.toString(), "ro[0]");
+
+        OptimizingQuil oQuil = quil.optimizingQuil();
+        JsonArray result = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> oQuil.applyOptimizationStep("HybridDependencies").getJsonArray("Result"));
+        JsonObject expected = Json.createObjectBuilder().add("62", expectedLines).build();
+        assertEquals(Json.createArrayBuilder().add(expected).build(), result);
+    }
+
+    @Test
+    public void loadsAndStoresOnlyDependOnTheElementsAtConstantIndices(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        List<String> lines = Arrays.asList("DECLARE ro BIT[1]", "DECLARE x REAL[1000000]", "DECLARE idx INTEGER[2]",
+                "DECLARE a REAL[1]", "MOVE idx[0] 1", "MOVE idx[1] 2", "STORE x idx[0] 0.5", "STORE x idx[1] 1.5",
+                "LOAD a[0] x idx[1]", "RX(a[0]) 0", "MEASURE 0 ro[0]");
+        JsonArray result = getHybridDependencies(tempDir, lines);
+        // The STORE to x[1] in line 7 is independent of the LOAD of x[2]
+        JsonObject expected = Json.createObjectBuilder()
+                .add("10", Json.createArrayBuilder().add(2).add(3).add(4).add(6).add(8).add(9))
+                .add("11", Json.createArrayBuilder().add(1).add(10))
+                .build();
+        assertEquals(Json.createArrayBuilder().add(expected).build(), result);
+    }
+
+    @Test
+    public void loadsAndStoresDependOnTheWholeRegionAtUnknownIndices(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        List<String> lines = Arrays.asList("DECLARE ro BIT[1]", "DECLARE x REAL[1000000]", "DECLARE idx INTEGER[2]",
+                "DECLARE a REAL[1]", "MOVE idx[0] 1", "MEASURE 1 idx[1]", "STORE x idx[0] 0.5", "STORE x idx[1] 1.5",
+                "LOAD a[0] x idx[0]", "RX(a[0]) 0", "MEASURE 0 ro[0]");
+        JsonArray result = getHybridDependencies(tempDir, lines);
+        // The STORE in line 8 may overwrite x[1], so the LOAD depends on both STOREs
+        JsonObject expected = Json.createObjectBuilder()
+                .add("6", Json.createArrayBuilder().add(3))
+                .add("10", Json.createArrayBuilder().add(2).add(4).add(5).add(6).add(7).add(8).add(9))
+                .add("11", Json.createArrayBuilder().add(1).add(10))
+                .build();
+        assertEquals(Json.createArrayBuilder().add(expected).build(), result);
+    }
+
+    @Test
+    public void regionsAccessedOnlyAtUnknownIndicesOrderTheirLoadsAndStores(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        List<String> lines = Arrays.asList("DECLARE ro BIT[1]", "DECLARE x REAL[4]", "DECLARE idx INTEGER[2]",
+                "DECLARE a REAL[1]", "MEASURE 1 idx[0]", "MEASURE 2 idx[1]", "STORE x idx[0] 0.5",
+                "LOAD a[0] x idx[1]", "RX(a[0]) 0", "MEASURE 0 ro[0]");
+        JsonArray result = getHybridDependencies(tempDir, lines);
+        // No element of x is referenced, the LOAD depends on the STORE through the region itself
+        JsonObject expected = Json.createObjectBuilder()
+                .add("5", Json.createArrayBuilder().add(3))
+                .add("6", Json.createArrayBuilder())
+                .add("9", Json.createArrayBuilder().add(2).add(4).add(5).add(6).add(7).add(8))
+                .add("10", Json.createArrayBuilder().add(1).add(9))
+                .build();
+        assertEquals(Json.createArrayBuilder().add(expected).build(), result);
+
+        OptimizingQuil oQuil = parseQuil(tempDir.resolve("memory.quil").toString(), "ro[0]").optimizingQuil();
+        oQuil.applyOptimizationStep("LiveVariableAnalysis");
+        JsonArray optimized = oQuil.applyOptimizationStep("DeadCodeElimination").getJsonArray("Result").getJsonArray(0);
+        assertEquals(lines.size(), optimized.size());
+        assertEquals("7: STORE x idx[0] 0.5", optimized.getString(6));
+    }
+
+    @Test
+    public void loadsAndStoresOfRegionsSharingMemoryDependOnEachOther(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        List<String> lines = Arrays.asList("DECLARE ro BIT[1]", "DECLARE x REAL[4]", "DECLARE y REAL[4] SHARING x",
+                "DECLARE k INTEGER[1]", "DECLARE a REAL[1]", "MOVE k[0] 1", "STORE x k[0] 0.5", "LOAD a[0] y k[0]",
+                "RX(a[0]) 0", "MEASURE 0 ro[0]");
+        JsonArray result = getHybridDependencies(tempDir, lines);
+        // y shares the memory of x, so the LOAD of y may read what the STORE to x[1] wrote
+        JsonObject expected = Json.createObjectBuilder()
+                .add("9", Json.createArrayBuilder().add(2).add(3).add(4).add(5).add(6).add(7).add(8))
+                .add("10", Json.createArrayBuilder().add(1).add(9))
+                .build();
+        assertEquals(Json.createArrayBuilder().add(expected).build(), result);
+
+        OptimizingQuil oQuil = parseQuil(tempDir.resolve("memory.quil").toString(), "ro[0]").optimizingQuil();
+        oQuil.applyOptimizationStep("LiveVariableAnalysis");
+        JsonArray optimized = oQuil.applyOptimizationStep("DeadCodeElimination").getJsonArray("Result").getJsonArray(0);
+        assertEquals(lines.size(), optimized.size());
+        assertEquals("7: STORE x k[0] 0.5", optimized.getString(6));
+    }
+
+    private static JsonArray getHybridDependencies(Path tempDir, List<String> lines) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        Path quilFile = tempDir.resolve("memory.quil");
+        Files.write(quilFile, lines);
+        ParsedQuil quil = parseQuil(quilFile.toString(), "ro[0]");
+
+        OptimizingQuil oQuil = quil.optimizingQuil();
+        return oQuil.applyOptimizationStep("HybridDependencies").getJsonArray("Result");
+    }
+
+    @Test
+    public void analysesAreOnlyRepeatedAfterInvalidatingTransformations() throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/constant-folding.quil", "ro[0]");
+
+        OptimizingQuil oQuil = quil.optimizingQuil();
+        JsonObject dependencies = oQuil.applyOptimizationStep("HybridDependencies");
+        JsonObject deadVariables = oQuil.applyOptimizationStep("LiveVariableAnalysis");
+        oQuil.applyOptimizationStep("ReOrdering");
+        oQuil.applyOptimizationStep("ConstantPropagation");
+        assertSame(dependencies, oQuil.applyOptimizationStep("HybridDependencies"));
+        assertSame(deadVariables, oQuil.copy().applyOptimizationStep("LiveVariableAnalysis"));
+
+        OptimizingQuil folded = oQuil.copy();
+        folded.applyOptimizationStep("ConstantFolding");
+        JsonObject foldedDependencies = folded.applyOptimizationStep("HybridDependencies");
+        assertNotSame(dependencies, foldedDependencies);
+        assertSame(dependencies, oQuil.applyOptimizationStep("HybridDependencies"));
+    }
+
+    @Test
+    public void shardedFuzzingMergesToSingleRun(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/iterative-phase-estimation.quil", "result[0]");
+
+        String singleRun = tempDir.resolve("single.json").toString();
+        fuzzOptimization(singleRun, new FuzzingOptions().setIterations(7).setNumberOfOptimizations(6).setSeed(42L),
+                quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        List<JsonObject> shards = new ArrayList<>();
+        for(int shard = 3; shard >= 1; shard--) {
+            String shardRun = tempDir.resolve("shard" + shard + ".json.gz").toString();
+            fuzzOptimization(shardRun,
+                    new FuzzingOptions().setIterations(7).setNumberOfOptimizations(6).setSeed(42L).setShard(shard, 3),
+                    quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+            shards.add(readJson(shardRun));
+        }
+
+        assertEquals(readJson(singleRun).toString(), FuzzingResultMerger.merge(shards).toString());
+        assertEquals(OptimizingQuil.drawOptimizations(42L, 5, 6), OptimizingQuil.drawOptimizations(42L, 5, 6));
+    }
+
+    @Test
+    public void searchStopsWithoutImprovementAndWritesBestPrograms(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/iterative-phase-estimation.quil", "result[0]");
+
+        ArrayList<ArrayList<String>> optimizations = new ArrayList<>();
+        for(int i = 0; i < 10; i++) {
+            optimizations.add(new ArrayList<>(Arrays.asList("LiveVariableAnalysis", "DeadCodeElimination")));
+        }
+        String jsonFileName = tempDir.resolve("search.json").toString();
+        FuzzingOptions options = new FuzzingOptions().setIterations(10).setNumberOfOptimizations(2).setSeed(0)
+                .setThreads(4).setMemoryBudget(0).setStoppingCriterion(new StoppingCriterion(0, 3));
+        searchOptimization(jsonFileName, new SequenceListSearch("List", optimizations), options, quil.blocks,
+                quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+
+        JsonObject result = readJson(jsonFileName);
+        assertTrue(result.containsKey("StoppedEarly"));
+        assertTrue(result.containsKey("Iteration3"));
+        assertFalse(result.containsKey("Iteration4"));
+        assertEquals(0, result.getInt("MinimumInstructionsIndex"));
+
+        List<String> best = Files.readAllLines(tempDir.resolve("search_best_instructions.quil"));
+        assertEquals("# Best instructions found in iteration 0", best.get(0));
+        assertTrue(best.contains("DEFGATE targetGate_even:"));
+        assertEquals(result.getInt("MinimumNumberOfInstructions"),
+                best.stream().filter(x -> !x.startsWith("#") && !x.startsWith("DEFGATE") && !x.startsWith(" ")).count());
+    }
+
+    @Test
+    public void stoppedFuzzingCanBeResumed(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/iterative-phase-estimation.quil", "result[0]");
+
+        String complete = tempDir.resolve("complete.json.gz").toString();
+        FuzzingOptions options = new FuzzingOptions().setIterations(12).setNumberOfOptimizations(6).setSeed(42L)
+                .setThreads(4).setMemoryBudget(0);
+        fuzzOptimization(complete, options, quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        assertFalse(OptimizingQuil.canResume(complete));
+
+        String stopped = tempDir.resolve("stopped.json.gz").toString();
+        options.setStoppingCriterion(new StoppingCriterion(0, 2)).setCheckpointInterval(2);
+        fuzzOptimization(stopped, options, quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        assertTrue(readJson(stopped).containsKey("StoppedEarly"));
+        assertTrue(OptimizingQuil.canResume(stopped));
+
+        // The resumed run is stopped again, so it writes its checkpoint for the moved file
+        resumeFuzzing(stopped, options, quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        assertTrue(OptimizingQuil.canResume(stopped));
+        options.setStoppingCriterion(StoppingCriterion.NONE);
+        resumeFuzzing(stopped, options, quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        assertFalse(OptimizingQuil.canResume(stopped));
+        assertEquals(readJson(complete).toString(), readJson(stopped).toString());
+        assertFalse(new File(tempDir.toFile(), "resumed_stopped.json.gz").exists());
+    }
+
+    @Test
+    public void deltaEncodedFuzzingDecodesToFullResult(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/iterative-phase-estimation.quil", "result[0]");
+
+        String full = tempDir.resolve("full.json").toString();
+        FuzzingOptions options = new FuzzingOptions().setIterations(12).setNumberOfOptimizations(20).setSeed(42L)
+                .setThreads(4).setMemoryBudget(0);
+        fuzzOptimization(full, options, quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        String delta = tempDir.resolve("delta.json").toString();
+        options.setVerbosity(Verbosity.DELTA);
+        fuzzOptimization(delta, options, quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        assertTrue(new File(delta).length() < new File(full).length() / 2);
+
+        JsonObject fullResult = readJson(full);
+        JsonObject deltaResult = readJson(delta);
+        assertEquals("Delta", deltaResult.getString("Encoding"));
+        assertFalse(deltaResult.getJsonObject("Iteration0").getJsonObject("Optimizations").containsKey("Start"));
+        assertEquals(fullResult, DeltaEncoding.decode(deltaResult));
+        assertEquals(fullResult, DeltaEncoding.decode(fullResult));
+
+        for(int i = 0; i < 12; i++) {
+            JsonObject optimizations = fullResult.getJsonObject("Iteration" + i).getJsonObject("Optimizations");
+            assertEquals(optimizations.getJsonArray("Start"), DeltaEncoding.getProgram(deltaResult, i, 0));
+            assertEquals(optimizations.getJsonArray("FinalResult"), DeltaEncoding.getProgram(deltaResult, i, -1));
+            assertEquals(optimizations.getJsonArray("FinalResult"), DeltaEncoding.getProgram(deltaResult, i, 20));
+        }
+    }
+
+    @Test
+    public void summaryFuzzingOnlyWritesMetrics(@TempDir Path tempDir) throws CompilationException, ParsingException, IOException, IllegalWorkflowException {
+        ParsedQuil quil = parseQuil(resourcePath + "Quil/iterative-phase-estimation.quil", "result[0]");
+
+        String full = tempDir.resolve("full.json").toString();
+        FuzzingOptions options = new FuzzingOptions().setIterations(12).setNumberOfOptimizations(20).setSeed(42L)
+                .setThreads(4).setMemoryBudget(1L << 30);
+        fuzzOptimization(full, options, quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+        String summary = tempDir.resolve("summary.json").toString();
+        options.setVerbosity(Verbosity.SUMMARY);
+        fuzzOptimization(summary, options, quil.blocks, quil.classes, quil.root, quil.readoutParams, quil.quilCode);
+
+        JsonObject fullResult = readJson(full);
+        JsonObject summaryResult = readJson(summary);
+        assertEquals("summary", summaryResult.getString("Verbosity"));
+        for(int i = 0; i < 12; i++) {
+            JsonObjectBuilder expected = Json.createObjectBuilder();
+            fullResult.getJsonObject("Iteration" + i).forEach((k, v) -> {
+                if(!k.equals("Optimizations")) {
+                    expected.add(k, v);
+                }
+            });
+            assertEquals(expected.build(), summaryResult.getJsonObject("Iteration" + i));
+        }
+        assertEquals(fullResult.getJsonArray("ParetoFront"), summaryResult.getJsonArray("ParetoFront"));
+        assertEquals(fullResult.getInt("MinimumWallTime"), summaryResult.getInt("MinimumWallTime"));
+        assertEquals(Files.readAllLines(tempDir.resolve("full_best_wallTime.quil")),
+                Files.readAllLines(tempDir.resolve("summary_best_wallTime.quil")));
+    }
+
+    private static JsonObject readJson(String fileName) throws IOException {
+        try (InputStream is = JsonFiles.newInputStream(fileName);
+             JsonReader jsonReader = Json.createReader(is)) {
+            return jsonReader.readObject();
+        }
+    }
+
 }
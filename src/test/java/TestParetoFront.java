@@ -0,0 +1,75 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+import de.hhu.lirem101.quil_optimizer.ParetoFront;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestParetoFront {
+
+    @Test
+    void keepsOriginalIfNothingIsBetter() {
+        ParetoFront front = new ParetoFront(10, 5, 8, 12);
+        assertFalse(front.add(0, 11, 5, 8, 12));
+        assertFalse(front.add(1, 10, 5, 8, 12));
+        assertEquals(Collections.singletonList(-1), front.getIndices());
+    }
+
+    @Test
+    void removesDominatedPrograms() {
+        ParetoFront front = new ParetoFront(10, 5, 8, 12);
+        assertTrue(front.add(0, 9, 6, 8, 12));
+        assertTrue(front.add(1, 11, 4, 8, 12));
+        assertEquals(Arrays.asList(0, -1, 1), front.getIndices());
+        assertTrue(front.add(2, 9, 4, 8, 11));
+        assertEquals(Collections.singletonList(2), front.getIndices());
+    }
+
+    @Test
+    void keepsTradeOffsBetweenMetrics() {
+        ParetoFront front = new ParetoFront(10, 10, 10, 10);
+        assertTrue(front.add(0, 5, 10, 10, 10));
+        assertTrue(front.add(1, 10, 10, 10, 5));
+        assertTrue(front.add(2, 7, 9, 10, 7));
+        assertFalse(front.add(3, 7, 9, 10, 8));
+        assertEquals(Arrays.asList(0, 2, 1), front.getIndices());
+    }
+
+    @Test
+    void ignoresFailedIterations() {
+        ParetoFront front = new ParetoFront(10, 5, 8, 12);
+        assertFalse(front.add(0, 1, null, null, null));
+        assertEquals(Collections.singletonList(-1), front.getIndices());
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Quil Parser & Analyser
+ *
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-FileCopyrightText: 2025 Lian Remme <lian.remme@dlr.de>
+ *
+ * SPDX-License-Identifier: MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ **/
+
+import de.hhu.lirem101.quil_analyser.PrecompiledQuilParser;
+import org.junit.jupiter.api.Test;
+import org.snt.inmemantlr.GenericParser;
+import org.snt.inmemantlr.PredictionStrategy;
+import org.snt.inmemantlr.exceptions.CompilationException;
+import org.snt.inmemantlr.exceptions.IllegalWorkflowException;
+import org.snt.inmemantlr.exceptions.ParsingException;
+import org.snt.inmemantlr.listener.DefaultTreeListener;
+import org.snt.inmemantlr.tree.ParseTree;
+import org.snt.inmemantlr.utils.FileUtils;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestPrecompiledQuilParser {
+    public static final String resourcePath = System.getProperty("user.dir") + "/src/main/resources/";
+
+    private static ParseTree getGenericParseTree(String quilCode) throws FileNotFoundException, CompilationException, IllegalWorkflowException, ParsingException {
+        GenericParser gp = new GenericParser(new File(resourcePath + "Quil.g4"));
+        DefaultTreeListener dlist = new DefaultTreeListener();
+        gp.setListener(dlist);
+        gp.compile();
+        gp.parse(quilCode, null, GenericParser.CaseSensitiveType.NONE);
+        return dlist.getParseTree();
+    }
+
+    @Test
+    public void sameParseTreeAsGenericParser() throws FileNotFoundException, CompilationException, IllegalWorkflowException, ParsingException {
+        String[] files = {"ipe", "magic-state-distillation", "readme-example", "repeat-until-success", "teleport"};
+        for (String file : files) {
+            String quilCode = FileUtils.loadFileContent(resourcePath + "QuilExampleFiles/" + file + ".quil");
+            ParseTree expected = getGenericParseTree(quilCode);
+            ParseTree result = PrecompiledQuilParser.getParseTree(quilCode);
+            assertEquals(expected.toJson(), result.toJson());
+        }
+    }
+
+    @Test
+    public void sameParseTreeForAllPredictionStrategies() throws ParsingException {
+        String quilCode = FileUtils.loadFileContent(resourcePath + "QuilExampleFiles/magic-state-distillation.quil");
+        String expected = PrecompiledQuilParser.getParseTree(quilCode).toJson();
+        for (PredictionStrategy strategy : PredictionStrategy.values()) {
+            assertEquals(expected, PrecompiledQuilParser.getParseTree(quilCode, strategy).toJson());
+        }
+    }
+
+    @Test
+    public void syntaxErrorThrowsParsingException() {
+        assertThrows(ParsingException.class, () -> PrecompiledQuilParser.getParseTree("H 0 0 (\n"));
+        assertThrows(ParsingException.class, () -> PrecompiledQuilParser.getParseTree("H 0 0 (\n", PredictionStrategy.LL_EXACT_AMBIG_DETECTION));
+    }
+}